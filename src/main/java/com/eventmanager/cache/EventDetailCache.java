@@ -0,0 +1,107 @@
+package com.eventmanager.cache;
+
+import com.eventmanager.dto.EventDTO;
+import com.eventmanager.repository.EventRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Read-through cache for the event detail endpoint. Event bodies are kept until the event
+ * (or a venue, category or artist it shows) is written; ticket counts change with every
+ * sale, so they live in a separate short-lived cache and are dropped whenever the event's
+ * counters move. Evictions run after commit so a reader cannot re-cache the old row.
+ */
+@Component
+public class EventDetailCache {
+
+    @Value("${events.detail-cache.max-size}")
+    private long maxSize;
+
+    @Value("${events.detail-cache.ttl-seconds}")
+    private long ttlSeconds;
+
+    @Value("${events.detail-cache.ticket-counts-ttl-ms}")
+    private long ticketCountsTtlMs;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Cache<Long, EventDTO> events;
+
+    private Cache<Long, EventRepository.TicketCounts> ticketCounts;
+
+    @PostConstruct
+    public void init() {
+        events = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        ticketCounts = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ticketCountsTtlMs))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, events, "event.details");
+        CaffeineCacheMetrics.monitor(meterRegistry, ticketCounts, "event.ticket.counts");
+    }
+
+    /**
+     * Returns a copy of the cached event, so callers may fill in the ticket counts.
+     */
+    public EventDTO getEvent(Long eventId, Function<Long, EventDTO> loader) {
+        EventDTO cached = events.get(eventId, loader);
+        EventDTO copy = new EventDTO();
+        BeanUtils.copyProperties(cached, copy);
+        return copy;
+    }
+
+    public EventRepository.TicketCounts getTicketCounts(Long eventId, Function<Long, EventRepository.TicketCounts> loader) {
+        return ticketCounts.get(eventId, loader);
+    }
+
+    public void eventChanged(Long eventId) {
+        afterCommit(() -> {
+            events.invalidate(eventId);
+            ticketCounts.invalidate(eventId);
+        });
+    }
+
+    public void ticketCountsChanged(Long eventId) {
+        afterCommit(() -> ticketCounts.invalidate(eventId));
+    }
+
+    // Venues, categories and artists are copied into every event body that shows them; the
+    // events showing them got a new version, which the ticket counts row carries for ETags
+    public void referenceDataChanged() {
+        afterCommit(() -> {
+            events.invalidateAll();
+            ticketCounts.invalidateAll();
+        });
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
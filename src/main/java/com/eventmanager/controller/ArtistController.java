@@ -1,13 +1,16 @@
 package com.eventmanager.controller;
 
 import com.eventmanager.dto.ArtistDTO;
+import com.eventmanager.dto.response.CursorPageResponse;
 import com.eventmanager.dto.response.MessageResponse;
 import com.eventmanager.service.ArtistService;
+import com.eventmanager.util.ETags;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -23,14 +26,31 @@ public class ArtistController {
     private ArtistService artistService;
 
     @GetMapping
-    public ResponseEntity<Page<ArtistDTO>> getAllArtists(
+    public ResponseEntity<?> getAllArtists(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
             @PageableDefault(size = 10, sort = "name") Pageable pageable) {
-        return ResponseEntity.ok(artistService.getAllArtists(pageable));
+        if (cursor != null) {
+            CursorPageResponse<ArtistDTO> page = artistService.getAllArtists(pageable, cursor, includeTotal);
+            return ResponseEntity.ok().eTag(ETags.weak(page)).body(page);
+        }
+        Page<ArtistDTO> page = artistService.getAllArtists(pageable);
+        return ResponseEntity.ok().eTag(ETags.weak(page)).body(page);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ArtistDTO> getArtistById(@PathVariable Long id) {
-        return ResponseEntity.ok(artistService.getArtistById(id));
+    public ResponseEntity<ArtistDTO> getArtistById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // Answer revalidation from the version alone, before the body is built
+        if (ifNoneMatch != null) {
+            String eTag = artistService.getArtistETag(id);
+            if (ETags.matches(ifNoneMatch, eTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+            }
+        }
+        ArtistDTO artist = artistService.getArtistById(id);
+        return ResponseEntity.ok().eTag(ETags.strong(artist.revision())).body(artist);
     }
 
     @PostMapping
@@ -53,10 +73,17 @@ public class ArtistController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Page<ArtistDTO>> searchArtists(
+    public ResponseEntity<?> searchArtists(
             @RequestParam String name,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
             @PageableDefault(size = 10) Pageable pageable) {
-        return ResponseEntity.ok(artistService.searchArtistsByName(name, pageable));
+        if (cursor != null) {
+            CursorPageResponse<ArtistDTO> page = artistService.searchArtistsByName(name, pageable, cursor, includeTotal);
+            return ResponseEntity.ok().eTag(ETags.weak(page)).body(page);
+        }
+        Page<ArtistDTO> page = artistService.searchArtistsByName(name, pageable);
+        return ResponseEntity.ok().eTag(ETags.weak(page)).body(page);
     }
 
     @GetMapping("/genre/{genre}")
@@ -2,14 +2,18 @@ package com.eventmanager.controller;
 
 import com.eventmanager.dto.request.LoginRequest;
 import com.eventmanager.dto.request.SignupRequest;
+import com.eventmanager.dto.request.TokenRefreshRequest;
 import com.eventmanager.dto.response.JwtResponse;
 import com.eventmanager.dto.response.MessageResponse;
 import com.eventmanager.service.AuthService;
+import com.eventmanager.service.RefreshTokenService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/auth")
 public class AuthController {
@@ -17,13 +21,34 @@ public class AuthController {
     @Autowired
     private AuthService authService;
 
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
     @PostMapping("/signin")
-    public ResponseEntity<JwtResponse> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
-        return ResponseEntity.ok(authService.authenticateUser(loginRequest));
+    public CompletableFuture<ResponseEntity<JwtResponse>> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
+        return authService.authenticateUser(loginRequest)
+                .thenApply(ResponseEntity::ok);
     }
 
     @PostMapping("/signup")
-    public ResponseEntity<MessageResponse> registerUser(@Valid @RequestBody SignupRequest signUpRequest) {
-        return ResponseEntity.ok(authService.registerUser(signUpRequest));
+    public CompletableFuture<ResponseEntity<MessageResponse>> registerUser(@Valid @RequestBody SignupRequest signUpRequest) {
+        return authService.registerUser(signUpRequest)
+                .thenApply(ResponseEntity::ok);
+    }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<JwtResponse> refreshToken(@Valid @RequestBody TokenRefreshRequest request) {
+        return ResponseEntity.ok(refreshTokenService.refresh(request.getRefreshToken()));
+    }
+
+    @PostMapping("/revoke")
+    public ResponseEntity<MessageResponse> revokeToken(@Valid @RequestBody TokenRefreshRequest request) {
+        refreshTokenService.revoke(request.getRefreshToken());
+        return ResponseEntity.ok(new MessageResponse("Session revoked"));
+    }
+
+    @PostMapping("/signout")
+    public ResponseEntity<MessageResponse> signOutEverywhere() {
+        return ResponseEntity.ok(authService.signOutEverywhere());
     }
 }
\ No newline at end of file
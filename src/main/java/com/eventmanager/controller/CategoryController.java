@@ -3,8 +3,10 @@ package com.eventmanager.controller;
 import com.eventmanager.dto.CategoryDTO;
 import com.eventmanager.dto.response.MessageResponse;
 import com.eventmanager.service.CategoryService;
+import com.eventmanager.util.ETags;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -25,8 +27,18 @@ public class CategoryController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<CategoryDTO> getCategoryById(@PathVariable Long id) {
-        return ResponseEntity.ok(categoryService.getCategoryById(id));
+    public ResponseEntity<CategoryDTO> getCategoryById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // Answer revalidation from the version alone, before the body is built
+        if (ifNoneMatch != null) {
+            String eTag = categoryService.getCategoryETag(id);
+            if (ETags.matches(ifNoneMatch, eTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+            }
+        }
+        CategoryDTO category = categoryService.getCategoryById(id);
+        return ResponseEntity.ok().eTag(ETags.strong(category.revision())).body(category);
     }
 
     @PostMapping
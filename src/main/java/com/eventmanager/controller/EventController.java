@@ -1,13 +1,18 @@
 package com.eventmanager.controller;
 
 import com.eventmanager.dto.EventDTO;
+import com.eventmanager.dto.request.DateRangeMatch;
+import com.eventmanager.dto.response.CursorPageResponse;
 import com.eventmanager.dto.response.MessageResponse;
+import com.eventmanager.model.Event;
 import com.eventmanager.service.EventService;
+import com.eventmanager.util.ETags;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -23,14 +28,31 @@ public class EventController {
     private EventService eventService;
 
     @GetMapping
-    public ResponseEntity<Page<EventDTO>> getAllEvents(
+    public ResponseEntity<?> getAllEvents(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
             @PageableDefault(size = 10, sort = "startDateTime") Pageable pageable) {
-        return ResponseEntity.ok(eventService.getAllEvents(pageable));
+        if (cursor != null) {
+            CursorPageResponse<EventDTO> page = eventService.getAllEvents(pageable, cursor, includeTotal);
+            return ResponseEntity.ok().eTag(ETags.weak(page)).body(page);
+        }
+        Page<EventDTO> page = eventService.getAllEvents(pageable);
+        return ResponseEntity.ok().eTag(ETags.weak(page)).body(page);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<EventDTO> getEventById(@PathVariable Long id) {
-        return ResponseEntity.ok(eventService.getEventById(id));
+    public ResponseEntity<EventDTO> getEventById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // Answer revalidation from the version alone, before the body is built
+        if (ifNoneMatch != null) {
+            String eTag = eventService.getEventETag(id);
+            if (ETags.matches(ifNoneMatch, eTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+            }
+        }
+        EventDTO event = eventService.getEventById(id);
+        return ResponseEntity.ok().eTag(ETags.strong(event.revision())).body(event);
     }
 
     @PostMapping
@@ -53,32 +75,65 @@ public class EventController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Page<EventDTO>> searchEvents(
+    public ResponseEntity<?> searchEvents(
             @RequestParam(required = false) String name,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
             @PageableDefault(size = 10) Pageable pageable) {
-        return ResponseEntity.ok(eventService.searchEventsByName(name, pageable));
+        if (cursor != null) {
+            CursorPageResponse<EventDTO> page = eventService.searchEventsByName(name, pageable, cursor, includeTotal);
+            return ResponseEntity.ok().eTag(ETags.weak(page)).body(page);
+        }
+        Page<EventDTO> page = eventService.searchEventsByName(name, pageable);
+        return ResponseEntity.ok().eTag(ETags.weak(page)).body(page);
     }
 
     @GetMapping("/category/{categoryId}")
-    public ResponseEntity<Page<EventDTO>> getEventsByCategory(
+    public ResponseEntity<?> getEventsByCategory(
             @PathVariable Long categoryId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
             @PageableDefault(size = 10) Pageable pageable) {
-        return ResponseEntity.ok(eventService.getEventsByCategory(categoryId, pageable));
+        if (cursor != null) {
+            CursorPageResponse<EventDTO> page = eventService.getEventsByCategory(categoryId, pageable, cursor, includeTotal);
+            return ResponseEntity.ok().eTag(ETags.weak(page)).body(page);
+        }
+        Page<EventDTO> page = eventService.getEventsByCategory(categoryId, pageable);
+        return ResponseEntity.ok().eTag(ETags.weak(page)).body(page);
     }
 
     @GetMapping("/date-range")
-    public ResponseEntity<Page<EventDTO>> getEventsByDateRange(
+    public ResponseEntity<?> getEventsByDateRange(
             @RequestParam LocalDateTime startDate,
             @RequestParam LocalDateTime endDate,
+            @RequestParam(defaultValue = "CONTAINED") DateRangeMatch match,
+            @RequestParam(required = false) Event.EventStatus status,
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
             @PageableDefault(size = 10) Pageable pageable) {
-        return ResponseEntity.ok(eventService.getEventsByDateRange(startDate, endDate, pageable));
+        // Any cursor parameter, even an empty one for the first page, switches to keyset paging
+        if (cursor != null) {
+            CursorPageResponse<EventDTO> page = eventService.getEventsByDateRange(
+                    startDate, endDate, match, status, city, pageable, cursor, includeTotal);
+            return ResponseEntity.ok().eTag(ETags.weak(page)).body(page);
+        }
+        Page<EventDTO> page = eventService.getEventsByDateRange(startDate, endDate, match, status, city, pageable);
+        return ResponseEntity.ok().eTag(ETags.weak(page)).body(page);
     }
 
     @GetMapping("/city/{city}")
-    public ResponseEntity<Page<EventDTO>> getEventsByCity(
+    public ResponseEntity<?> getEventsByCity(
             @PathVariable String city,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
             @PageableDefault(size = 10) Pageable pageable) {
-        return ResponseEntity.ok(eventService.getEventsByCity(city, pageable));
+        if (cursor != null) {
+            CursorPageResponse<EventDTO> page = eventService.getEventsByCity(city, pageable, cursor, includeTotal);
+            return ResponseEntity.ok().eTag(ETags.weak(page)).body(page);
+        }
+        Page<EventDTO> page = eventService.getEventsByCity(city, pageable);
+        return ResponseEntity.ok().eTag(ETags.weak(page)).body(page);
     }
 
     @PutMapping("/{id}/publish")
@@ -1,18 +1,32 @@
 package com.eventmanager.controller;
 
+import com.eventmanager.dto.CheckInResultDTO;
 import com.eventmanager.dto.TicketDTO;
+import com.eventmanager.dto.request.CheckInRequest;
 import com.eventmanager.dto.request.PurchaseTicketRequest;
+import com.eventmanager.dto.response.KeysetPageResponse;
 import com.eventmanager.dto.response.MessageResponse;
+import com.eventmanager.model.Ticket;
+import com.eventmanager.service.GateManifestService;
+import com.eventmanager.service.IdempotencyService;
+import com.eventmanager.service.OfflineCheckInService;
 import com.eventmanager.service.TicketService;
+import com.eventmanager.service.WaitingRoomService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/tickets")
@@ -21,10 +35,27 @@ public class TicketController {
     @Autowired
     private TicketService ticketService;
 
+    @Autowired
+    private WaitingRoomService waitingRoomService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private GateManifestService gateManifestService;
+
+    @Autowired
+    private OfflineCheckInService offlineCheckInService;
+
     @GetMapping("/user")
     @PreAuthorize("hasRole('USER') or hasRole('ORGANIZER') or hasRole('ADMIN')")
-    public ResponseEntity<Page<TicketDTO>> getUserTickets(
+    public ResponseEntity<?> getUserTickets(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
             @PageableDefault(size = 10) Pageable pageable) {
+        if (cursor != null) {
+            return ResponseEntity.ok(ticketService.getCurrentUserTickets(pageable, cursor, includeTotal));
+        }
         return ResponseEntity.ok(ticketService.getCurrentUserTickets(pageable));
     }
 
@@ -36,28 +67,103 @@ public class TicketController {
 
     @PostMapping("/purchase")
     @PreAuthorize("hasRole('USER') or hasRole('ORGANIZER') or hasRole('ADMIN')")
-    public ResponseEntity<TicketDTO> purchaseTicket(@Valid @RequestBody PurchaseTicketRequest request) {
-        return new ResponseEntity<>(ticketService.purchaseTicket(request), HttpStatus.CREATED);
+    public ResponseEntity<TicketDTO> purchaseTicket(
+            @Valid @RequestBody PurchaseTicketRequest request,
+            @RequestHeader(value = "X-Admission-Token", required = false) String admissionToken,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "purchase", request, TicketDTO.class, () -> {
+            waitingRoomService.verifyAdmission(request.getEventId(), admissionToken);
+            return new ResponseEntity<>(ticketService.purchaseTicket(request), HttpStatus.CREATED);
+        });
+    }
+
+    @PostMapping("/purchase/sequenced")
+    @PreAuthorize("hasRole('USER') or hasRole('ORGANIZER') or hasRole('ADMIN')")
+    public CompletableFuture<ResponseEntity<TicketDTO>> purchaseTicketSequenced(
+            @Valid @RequestBody PurchaseTicketRequest request,
+            @RequestHeader(value = "X-Admission-Token", required = false) String admissionToken) {
+        waitingRoomService.verifyAdmission(request.getEventId(), admissionToken);
+        return ticketService.purchaseTicketSequenced(request)
+                .thenApply(ticket -> new ResponseEntity<>(ticket, HttpStatus.CREATED));
+    }
+
+    @PostMapping("/hold")
+    @PreAuthorize("hasRole('USER') or hasRole('ORGANIZER') or hasRole('ADMIN')")
+    public ResponseEntity<TicketDTO> holdTickets(
+            @Valid @RequestBody PurchaseTicketRequest request,
+            @RequestHeader(value = "X-Admission-Token", required = false) String admissionToken,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "hold", request, TicketDTO.class, () -> {
+            waitingRoomService.verifyAdmission(request.getEventId(), admissionToken);
+            return new ResponseEntity<>(ticketService.holdTickets(request), HttpStatus.CREATED);
+        });
+    }
+
+    @PutMapping("/holds/{holdReference}/confirm")
+    @PreAuthorize("hasRole('USER') or hasRole('ORGANIZER') or hasRole('ADMIN')")
+    public ResponseEntity<List<TicketDTO>> confirmHold(@PathVariable String holdReference) {
+        return ResponseEntity.ok(ticketService.confirmHold(holdReference));
     }
 
     @PutMapping("/{id}/cancel")
     @PreAuthorize("hasRole('USER') or hasRole('ORGANIZER') or hasRole('ADMIN')")
-    public ResponseEntity<TicketDTO> cancelTicket(@PathVariable Long id) {
-        return ResponseEntity.ok(ticketService.cancelTicket(id));
+    public ResponseEntity<TicketDTO> cancelTicket(
+            @PathVariable Long id,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "cancel:" + id, id, TicketDTO.class,
+                () -> ResponseEntity.ok(ticketService.cancelTicket(id)));
     }
 
     @GetMapping("/event/{eventId}")
     @PreAuthorize("hasRole('ORGANIZER') or hasRole('ADMIN')")
-    public ResponseEntity<Page<TicketDTO>> getTicketsByEvent(
+    public ResponseEntity<?> getTicketsByEvent(
             @PathVariable Long eventId,
+            @RequestParam(required = false) List<Ticket.TicketStatus> status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
             @PageableDefault(size = 10) Pageable pageable) {
-        return ResponseEntity.ok(ticketService.getTicketsByEvent(eventId, pageable));
+        if (cursor != null) {
+            return ResponseEntity.ok(ticketService.getTicketsByEvent(eventId, status, pageable, cursor, includeTotal));
+        }
+        return ResponseEntity.ok(ticketService.getTicketsByEvent(eventId, status, pageable));
+    }
+
+    @GetMapping("/event/{eventId}/keyset")
+    @PreAuthorize("hasRole('ORGANIZER') or hasRole('ADMIN')")
+    public ResponseEntity<KeysetPageResponse<TicketDTO>> getTicketsByEventAfter(
+            @PathVariable Long eventId,
+            @RequestParam(required = false) List<Ticket.TicketStatus> status,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "100") int size) {
+        return ResponseEntity.ok(ticketService.getTicketsByEventAfter(eventId, status, afterId, size));
+    }
+
+    @GetMapping("/event/{eventId}/manifest")
+    @PreAuthorize("hasRole('ORGANIZER') or hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportManifest(@PathVariable Long eventId) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"manifest-" + eventId + ".bin.gz\"")
+                .body(gateManifestService.exportManifest(eventId));
+    }
+
+    @GetMapping("/event/{eventId}/manifest/delta")
+    @PreAuthorize("hasRole('ORGANIZER') or hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportManifestDelta(
+            @PathVariable Long eventId,
+            @RequestParam long since) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"manifest-" + eventId + "-delta.bin.gz\"")
+                .body(gateManifestService.exportDelta(eventId, since));
     }
 
     @GetMapping("/validate/{ticketNumber}")
     @PreAuthorize("hasRole('ORGANIZER') or hasRole('ADMIN')")
-    public ResponseEntity<MessageResponse> validateTicket(@PathVariable String ticketNumber) {
-        boolean isValid = ticketService.validateTicket(ticketNumber);
+    public ResponseEntity<MessageResponse> validateTicket(
+            @PathVariable String ticketNumber,
+            @RequestParam(required = false) Long eventId) {
+        boolean isValid = ticketService.validateTicket(ticketNumber, eventId);
         return ResponseEntity.ok(new MessageResponse(
                 isValid ? "Ticket is valid" : "Invalid ticket"));
     }
@@ -67,4 +173,28 @@ public class TicketController {
     public ResponseEntity<TicketDTO> markTicketAsUsed(@PathVariable Long id) {
         return ResponseEntity.ok(ticketService.markTicketAsUsed(id));
     }
+
+    @PutMapping("/check-in/{ticketNumber}")
+    @PreAuthorize("hasRole('ORGANIZER') or hasRole('ADMIN')")
+    public ResponseEntity<CheckInResultDTO> checkIn(
+            @PathVariable String ticketNumber,
+            @RequestParam Long eventId) {
+        return ResponseEntity.ok(ticketService.checkIn(eventId, ticketNumber));
+    }
+
+    @PostMapping("/check-in")
+    @PreAuthorize("hasRole('ORGANIZER') or hasRole('ADMIN')")
+    public ResponseEntity<List<CheckInResultDTO>> checkIn(@Valid @RequestBody CheckInRequest request) {
+        return ResponseEntity.ok(ticketService.checkIn(request));
+    }
+
+    @PostMapping(value = "/check-in/offline", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasRole('ORGANIZER') or hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> reconcileOfflineCheckIns(
+            @RequestParam Long eventId,
+            InputStream scanLog) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(offlineCheckInService.reconcile(eventId, scanLog));
+    }
 }
\ No newline at end of file
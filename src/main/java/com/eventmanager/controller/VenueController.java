@@ -1,13 +1,16 @@
 package com.eventmanager.controller;
 
 import com.eventmanager.dto.VenueDTO;
+import com.eventmanager.dto.response.CursorPageResponse;
 import com.eventmanager.dto.response.MessageResponse;
 import com.eventmanager.service.VenueService;
+import com.eventmanager.util.ETags;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -23,14 +26,31 @@ public class VenueController {
     private VenueService venueService;
 
     @GetMapping
-    public ResponseEntity<Page<VenueDTO>> getAllVenues(
+    public ResponseEntity<?> getAllVenues(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
             @PageableDefault(size = 10, sort = "name") Pageable pageable) {
-        return ResponseEntity.ok(venueService.getAllVenues(pageable));
+        if (cursor != null) {
+            CursorPageResponse<VenueDTO> page = venueService.getAllVenues(pageable, cursor, includeTotal);
+            return ResponseEntity.ok().eTag(ETags.weak(page)).body(page);
+        }
+        Page<VenueDTO> page = venueService.getAllVenues(pageable);
+        return ResponseEntity.ok().eTag(ETags.weak(page)).body(page);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<VenueDTO> getVenueById(@PathVariable Long id) {
-        return ResponseEntity.ok(venueService.getVenueById(id));
+    public ResponseEntity<VenueDTO> getVenueById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // Answer revalidation from the version alone, before the body is built
+        if (ifNoneMatch != null) {
+            String eTag = venueService.getVenueETag(id);
+            if (ETags.matches(ifNoneMatch, eTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+            }
+        }
+        VenueDTO venue = venueService.getVenueById(id);
+        return ResponseEntity.ok().eTag(ETags.strong(venue.revision())).body(venue);
     }
 
     @PostMapping
@@ -53,10 +73,17 @@ public class VenueController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Page<VenueDTO>> searchVenues(
+    public ResponseEntity<?> searchVenues(
             @RequestParam String name,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
             @PageableDefault(size = 10) Pageable pageable) {
-        return ResponseEntity.ok(venueService.searchVenuesByName(name, pageable));
+        if (cursor != null) {
+            CursorPageResponse<VenueDTO> page = venueService.searchVenuesByName(name, pageable, cursor, includeTotal);
+            return ResponseEntity.ok().eTag(ETags.weak(page)).body(page);
+        }
+        Page<VenueDTO> page = venueService.searchVenuesByName(name, pageable);
+        return ResponseEntity.ok().eTag(ETags.weak(page)).body(page);
     }
 
     @GetMapping("/city/{city}")
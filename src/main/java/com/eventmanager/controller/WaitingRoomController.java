@@ -0,0 +1,29 @@
+package com.eventmanager.controller;
+
+import com.eventmanager.dto.WaitingRoomStatusDTO;
+import com.eventmanager.service.WaitingRoomService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/waiting-room")
+public class WaitingRoomController {
+
+    @Autowired
+    private WaitingRoomService waitingRoomService;
+
+    @PostMapping("/{eventId}/join")
+    @PreAuthorize("hasRole('USER') or hasRole('ORGANIZER') or hasRole('ADMIN')")
+    public ResponseEntity<WaitingRoomStatusDTO> joinQueue(@PathVariable Long eventId,
+                                                          @RequestParam(required = false) String token) {
+        return ResponseEntity.ok(waitingRoomService.joinQueue(eventId, token));
+    }
+
+    @GetMapping("/{eventId}/status")
+    @PreAuthorize("hasRole('USER') or hasRole('ORGANIZER') or hasRole('ADMIN')")
+    public ResponseEntity<WaitingRoomStatusDTO> getStatus(@PathVariable Long eventId, @RequestParam String token) {
+        return ResponseEntity.ok(waitingRoomService.getStatus(eventId, token));
+    }
+}
@@ -12,7 +12,7 @@ import java.time.LocalDateTime;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-public class ArtistDTO {
+public class ArtistDTO implements Versioned {
     
     private Long id;
     
@@ -33,6 +33,8 @@ public class ArtistDTO {
     @Size(max = 255, message = "Image URL cannot exceed 255 characters")
     private String imageUrl;
     
+    private Long version;
+    
     private LocalDateTime createdAt;
     
     private LocalDateTime updatedAt;
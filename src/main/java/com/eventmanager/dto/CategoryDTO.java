@@ -11,7 +11,7 @@ import java.time.LocalDateTime;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-public class CategoryDTO {
+public class CategoryDTO implements Versioned {
     
     private Long id;
     
@@ -22,6 +22,8 @@ public class CategoryDTO {
     @Size(max = 200, message = "Description cannot exceed 200 characters")
     private String description;
     
+    private Long version;
+    
     private LocalDateTime createdAt;
     
     private LocalDateTime updatedAt;
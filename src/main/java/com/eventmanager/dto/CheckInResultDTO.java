@@ -0,0 +1,19 @@
+package com.eventmanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckInResultDTO {
+    
+    private String ticketNumber;
+    
+    private Outcome outcome;
+    
+    public enum Outcome {
+        ADMITTED, ALREADY_USED, CANCELLED, NOT_PAID, WRONG_EVENT, EVENT_CLOSED, UNKNOWN, INVALID
+    }
+}
@@ -1,6 +1,7 @@
 package com.eventmanager.dto;
 
 import com.eventmanager.model.Event.EventStatus;
+import com.eventmanager.util.ETags;
 import jakarta.validation.constraints.FutureOrPresent;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -17,7 +18,7 @@ import java.util.Set;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-public class EventDTO {
+public class EventDTO implements Versioned {
     
     private Long id;
     
@@ -63,7 +64,20 @@ public class EventDTO {
     
     private Integer soldTickets;
     
+    private Integer reservedTickets;
+    
+    private Integer usedTickets;
+    
+    private Integer cancelledTickets;
+    
+    private Long version;
+    
     private LocalDateTime createdAt;
     
     private LocalDateTime updatedAt;
+    
+    @Override
+    public String revision() {
+        return ETags.revision(version, reservedTickets, soldTickets, usedTickets, cancelledTickets);
+    }
 }
\ No newline at end of file
@@ -35,6 +35,14 @@ public class TicketDTO {
     
     private LocalDateTime purchaseDate;
     
+    private String holdReference;
+    
+    private LocalDateTime expiresAt;
+    
+    private LocalDateTime checkedInAt;
+    
+    private String checkedInGate;
+    
     private LocalDateTime createdAt;
     
     private LocalDateTime updatedAt;
@@ -1,5 +1,6 @@
 package com.eventmanager.dto;
 
+import com.eventmanager.util.ETags;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -13,7 +14,7 @@ import java.time.LocalDateTime;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-public class VenueDTO {
+public class VenueDTO implements Versioned {
     
     private Long id;
     
@@ -42,7 +43,14 @@ public class VenueDTO {
     
     private Integer eventCount;
     
+    private Long version;
+    
     private LocalDateTime createdAt;
     
     private LocalDateTime updatedAt;
+    
+    @Override
+    public String revision() {
+        return ETags.revision(version, eventCount);
+    }
 }
\ No newline at end of file
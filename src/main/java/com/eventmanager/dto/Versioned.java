@@ -0,0 +1,16 @@
+package com.eventmanager.dto;
+
+/**
+ * A response body backed by a versioned entity. The revision changes whenever the JSON
+ * does; it is the entity version unless the body also shows counters kept outside it.
+ */
+public interface Versioned {
+    
+    Long getId();
+    
+    Long getVersion();
+    
+    default String revision() {
+        return String.valueOf(getVersion());
+    }
+}
@@ -0,0 +1,27 @@
+package com.eventmanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WaitingRoomStatusDTO {
+    
+    private Long eventId;
+    
+    private String queueToken;
+    
+    private Long position;
+    
+    private Long estimatedWaitSeconds;
+    
+    private boolean admitted;
+    
+    private String admissionToken;
+    
+    private LocalDateTime admissionExpiresAt;
+}
@@ -0,0 +1,19 @@
+package com.eventmanager.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class CheckInRequest {
+    
+    @NotNull(message = "Event ID is required")
+    private Long eventId;
+    
+    @NotEmpty(message = "At least one ticket number is required")
+    @Size(max = 500, message = "At most 500 tickets can be checked in per request")
+    private List<String> ticketNumbers;
+}
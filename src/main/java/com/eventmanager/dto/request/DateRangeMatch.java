@@ -0,0 +1,10 @@
+package com.eventmanager.dto.request;
+
+public enum DateRangeMatch {
+    
+    // The event starts and ends inside the range
+    CONTAINED,
+    
+    // Any part of the event falls inside the range
+    OVERLAPS
+}
@@ -0,0 +1,15 @@
+package com.eventmanager.dto.request;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class OfflineCheckInRecord {
+    
+    private String ticketNumber;
+    
+    private String gateId;
+    
+    private LocalDateTime scannedAt;
+}
@@ -0,0 +1,11 @@
+package com.eventmanager.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class TokenRefreshRequest {
+    
+    @NotBlank(message = "Refresh token cannot be blank")
+    private String refreshToken;
+}
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.eventmanager.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorPageResponse<T> {
+    
+    private List<T> content;
+    
+    private boolean hasNext;
+    
+    // Opaque token to pass as cursor for the next page; null when there is none
+    private String nextCursor;
+    
+    // Only counted when the client asks for totals
+    private Long totalElements;
+}
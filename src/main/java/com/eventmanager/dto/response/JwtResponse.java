@@ -8,6 +8,7 @@ import java.util.List;
 public class JwtResponse {
     
     private String token;
+    private String refreshToken;
     private String type = "Bearer";
     private Long id;
     private String firstName;
@@ -15,8 +16,10 @@ public class JwtResponse {
     private String email;
     private List<String> roles;
     
-    public JwtResponse(String token, Long id, String firstName, String lastName, String email, List<String> roles) {
+    public JwtResponse(String token, String refreshToken, Long id, String firstName, String lastName, String email,
+                       List<String> roles) {
         this.token = token;
+        this.refreshToken = refreshToken;
         this.id = id;
         this.firstName = firstName;
         this.lastName = lastName;
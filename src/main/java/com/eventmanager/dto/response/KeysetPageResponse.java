@@ -0,0 +1,20 @@
+package com.eventmanager.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class KeysetPageResponse<T> {
+    
+    private List<T> content;
+    
+    private boolean hasNext;
+    
+    // Pass as afterId to fetch the next page; null when there is none
+    private Long nextAfterId;
+}
@@ -0,0 +1,12 @@
+package com.eventmanager.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+public class UnprocessableEntityException extends RuntimeException {
+    
+    public UnprocessableEntityException(String message) {
+        super(message);
+    }
+}
\ No newline at end of file
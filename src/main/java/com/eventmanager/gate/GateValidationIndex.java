@@ -0,0 +1,281 @@
+package com.eventmanager.gate;
+
+import com.eventmanager.model.Event;
+import com.eventmanager.model.Ticket;
+import com.eventmanager.repository.EventRepository;
+import com.eventmanager.repository.TicketRepository;
+import com.eventmanager.util.BloomFilter;
+import com.eventmanager.util.LongHashSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory index of the PAID ticket keys of events whose doors are about to open, so
+ * gate scans of valid tickets are answered without a database round trip. Each event
+ * keeps a Bloom filter in front of the exact sets. Purchases, cancels and check-ins on
+ * this node update the index after their transaction commits; other nodes' changes are
+ * picked up when the index is rebuilt every {@code tickets.gate.rebuild-ms}. A key the
+ * index does not know may have been sold elsewhere, so misses are left to the database.
+ */
+@Component
+public class GateValidationIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(GateValidationIndex.class);
+
+    private static final int MIN_EXPECTED_TICKETS = 1024;
+
+    @Value("${tickets.gate.enabled}")
+    private boolean enabled;
+
+    @Value("${tickets.gate.preload-minutes}")
+    private long preloadMinutes;
+
+    @Value("${tickets.gate.rebuild-ms}")
+    private long rebuildMs;
+
+    @Value("${tickets.gate.bloom-false-positive-rate}")
+    private double bloomFalsePositiveRate;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    private final Map<Long, EventIndex> indexes = new ConcurrentHashMap<>();
+
+    /**
+     * Answers a scan from memory. When an event id is given, only that event's tickets
+     * are accepted. Returns null when the index cannot decide, in which case the caller
+     * checks the database.
+     */
+    public Boolean validate(long ticketKey, Long eventId, LocalDateTime now) {
+        if (eventId != null) {
+            EventIndex index = indexes.get(eventId);
+            if (index == null || !index.ready) {
+                return null;
+            }
+            if (index.isValid(ticketKey)) {
+                return index.isOpen(now);
+            }
+            return index.isRevoked(ticketKey) ? false : null;
+        }
+
+        for (EventIndex index : indexes.values()) {
+            if (!index.ready) {
+                continue;
+            }
+            if (index.isValid(ticketKey)) {
+                return index.isOpen(now);
+            }
+            if (index.isRevoked(ticketKey)) {
+                return false;
+            }
+        }
+        return null;
+    }
+
+    // The index is looked up after commit: one registered while the transaction was open
+    // may have read the ticket table before these rows were visible
+    public void ticketsIssued(Long eventId, Collection<Long> ticketKeys) {
+        if (enabled) {
+            afterCommit(() -> {
+                EventIndex index = indexes.get(eventId);
+                if (index != null) {
+                    index.addAll(ticketKeys);
+                }
+            });
+        }
+    }
+
+    public void ticketRevoked(Long eventId, Long ticketKey) {
+        if (enabled && ticketKey != null) {
+            afterCommit(() -> {
+                EventIndex index = indexes.get(eventId);
+                if (index != null) {
+                    index.revoke(ticketKey);
+                }
+            });
+        }
+    }
+
+    public void evict(Long eventId) {
+        indexes.remove(eventId);
+    }
+
+    @Scheduled(fixedDelayString = "${tickets.gate.refresh-ms}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Event> events = eventRepository.findEventsWithOpenDoors(
+                Event.EventStatus.PUBLISHED, now.plusMinutes(preloadMinutes), now);
+        Set<Long> eventIds = events.stream().map(Event::getId).collect(Collectors.toSet());
+        indexes.keySet().removeIf(eventId -> !eventIds.contains(eventId));
+
+        for (Event event : events) {
+            EventIndex existing = indexes.get(event.getId());
+            if (existing == null) {
+                load(event);
+            } else if (Duration.between(existing.loadedAt, now).toMillis() >= rebuildMs) {
+                rebuild(event, existing);
+            } else {
+                existing.startDateTime = event.getStartDateTime();
+                existing.endDateTime = event.getEndDateTime();
+            }
+        }
+    }
+
+    private void load(Event event) {
+        EventIndex index = newIndex(event);
+
+        // Register before reading so changes committed during the load are not lost
+        indexes.put(event.getId(), index);
+        try {
+            int loaded = fill(event, index);
+            logger.info("Gate validation index loaded for event {} with {} tickets", event.getId(), loaded);
+        } catch (RuntimeException e) {
+            indexes.remove(event.getId(), index);
+            logger.error("Failed to load gate validation index for event {}: {}", event.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Reloads an index to pick up other nodes' changes. The old index keeps answering
+     * scans meanwhile and forwards this node's changes to the new one until it is swapped in.
+     */
+    private void rebuild(Event event, EventIndex existing) {
+        EventIndex index = newIndex(event);
+        existing.next = index;
+        try {
+            int loaded = fill(event, index);
+            if (indexes.replace(event.getId(), existing, index)) {
+                logger.debug("Gate validation index rebuilt for event {} with {} tickets", event.getId(), loaded);
+            }
+        } catch (RuntimeException e) {
+            existing.next = null;
+            logger.error("Failed to rebuild gate validation index for event {}: {}", event.getId(), e.getMessage());
+        }
+    }
+
+    private EventIndex newIndex(Event event) {
+        int expected = Math.max(MIN_EXPECTED_TICKETS, Math.max(
+                event.getMaxAttendees() == null ? 0 : event.getMaxAttendees(), event.getAllocatedTickets()));
+        return new EventIndex(expected, bloomFalsePositiveRate, event.getStartDateTime(), event.getEndDateTime());
+    }
+
+    private int fill(Event event, EventIndex index) {
+        List<Long> ticketKeys = ticketRepository.findTicketKeysByEventAndStatus(event.getId(), Ticket.TicketStatus.PAID);
+        index.addAll(ticketKeys);
+        index.ready = true;
+        return ticketKeys.size();
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static class EventIndex {
+
+        private final BloomFilter seen;
+
+        private final LongHashSet valid;
+
+        // Keys are never reissued, so a revoked key stays revoked even if a load reads it later
+        private final LongHashSet revoked = new LongHashSet(16);
+
+        private volatile LocalDateTime startDateTime;
+
+        private volatile LocalDateTime endDateTime;
+
+        private volatile boolean ready;
+
+        private final LocalDateTime loadedAt = LocalDateTime.now();
+
+        // The index being built to replace this one, which must see the same changes
+        private volatile EventIndex next;
+
+        private EventIndex(int expectedTickets, double falsePositiveRate,
+                           LocalDateTime startDateTime, LocalDateTime endDateTime) {
+            this.seen = new BloomFilter(expectedTickets, falsePositiveRate);
+            this.valid = new LongHashSet(expectedTickets);
+            this.startDateTime = startDateTime;
+            this.endDateTime = endDateTime;
+        }
+
+        private boolean isValid(long ticketKey) {
+            if (!seen.mightContain(ticketKey)) {
+                return false;
+            }
+            synchronized (this) {
+                return valid.contains(ticketKey);
+            }
+        }
+
+        private boolean isRevoked(long ticketKey) {
+            if (!seen.mightContain(ticketKey)) {
+                return false;
+            }
+            synchronized (this) {
+                return revoked.contains(ticketKey);
+            }
+        }
+
+        private boolean isOpen(LocalDateTime now) {
+            return startDateTime.isAfter(now.minusHours(24)) && endDateTime.isAfter(now);
+        }
+
+        private void addAll(Collection<Long> ticketKeys) {
+            synchronized (this) {
+                for (Long ticketKey : ticketKeys) {
+                    if (ticketKey != null && !revoked.contains(ticketKey)) {
+                        seen.put(ticketKey);
+                        valid.add(ticketKey);
+                    }
+                }
+            }
+            EventIndex successor = next;
+            if (successor != null) {
+                successor.addAll(ticketKeys);
+            }
+        }
+
+        private void revoke(long ticketKey) {
+            synchronized (this) {
+                seen.put(ticketKey);
+                revoked.add(ticketKey);
+                valid.remove(ticketKey);
+            }
+            EventIndex successor = next;
+            if (successor != null) {
+                successor.revoke(ticketKey);
+            }
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.eventmanager.inventory;
+
+import com.eventmanager.model.Ticket;
+import com.eventmanager.repository.TicketRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Hashed timing wheel that expires RESERVED holds. Each tick only visits one bucket,
+ * and the holds found there are cancelled with one bulk update per event, which also
+ * returns their capacity. New holds are handed over through a queue once their
+ * transaction commits, and only the ticking thread files them into buckets, so a hold
+ * cannot land in a bucket that was just swept. Holds that outlive a restart are picked
+ * up by a slow sweep.
+ */
+@Component
+public class HoldExpiryWheel {
+
+    private static final Logger logger = LoggerFactory.getLogger(HoldExpiryWheel.class);
+
+    private static final int MAX_REFERENCES_PER_UPDATE = 1000;
+
+    @Value("${tickets.hold.wheel-tick-ms}")
+    private long tickMs;
+
+    @Value("${tickets.hold.wheel-size}")
+    private int wheelSize;
+
+    @Autowired
+    private TicketBatchWriter ticketBatchWriter;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    private final long startMillis = System.currentTimeMillis();
+
+    private final Queue<Entry> incoming = new ConcurrentLinkedQueue<>();
+
+    private Queue<Entry>[] buckets;
+
+    private long currentTick;
+
+    @PostConstruct
+    @SuppressWarnings("unchecked")
+    public void init() {
+        buckets = new Queue[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+    }
+
+    public void schedule(String holdReference, Long eventId, LocalDateTime expiresAt) {
+        long deadline = expiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        Entry entry = new Entry(holdReference, eventId, Math.floorDiv(deadline - startMillis + tickMs - 1, tickMs));
+        // A hold that rolls back must not be expired, and its tickets may not be visible before commit
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    incoming.add(entry);
+                }
+            });
+        } else {
+            incoming.add(entry);
+        }
+    }
+
+    @Scheduled(fixedRateString = "${tickets.hold.wheel-tick-ms}")
+    public synchronized void advance() {
+        long nowTick = (System.currentTimeMillis() - startMillis) / tickMs;
+        fileIncoming();
+        while (currentTick <= nowTick) {
+            expireBucket(currentTick);
+            currentTick++;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${tickets.hold.recovery-sweep-ms}")
+    public void sweepOverdueHolds() {
+        List<Long> eventIds = ticketRepository.findEventIdsWithOverdueHolds(
+                LocalDateTime.now(), Ticket.TicketStatus.RESERVED);
+        for (Long eventId : eventIds) {
+            int expired = ticketBatchWriter.expireOverdueHolds(eventId);
+            if (expired > 0) {
+                logger.info("Recovery sweep expired {} held tickets for event {}", expired, eventId);
+            }
+        }
+    }
+
+    // A hold whose slot has already been swept goes into the next bucket to be swept
+    private void fileIncoming() {
+        Entry entry;
+        while ((entry = incoming.poll()) != null) {
+            long tick = Math.max(entry.tick, currentTick);
+            buckets[(int) (tick % wheelSize)].add(entry);
+        }
+    }
+
+    private void expireBucket(long tick) {
+        Queue<Entry> bucket = buckets[(int) (tick % wheelSize)];
+        Map<Long, List<String>> dueByEvent = new HashMap<>();
+        List<Entry> notYetDue = new ArrayList<>();
+
+        Entry entry;
+        while ((entry = bucket.poll()) != null) {
+            if (entry.tick <= tick) {
+                dueByEvent.computeIfAbsent(entry.eventId, id -> new ArrayList<>()).add(entry.holdReference);
+            } else {
+                notYetDue.add(entry);
+            }
+        }
+        bucket.addAll(notYetDue);
+
+        dueByEvent.forEach((eventId, references) -> {
+            for (int from = 0; from < references.size(); from += MAX_REFERENCES_PER_UPDATE) {
+                List<String> chunk = references.subList(from, Math.min(from + MAX_REFERENCES_PER_UPDATE, references.size()));
+                try {
+                    ticketBatchWriter.expireHolds(eventId, chunk);
+                } catch (RuntimeException e) {
+                    // The recovery sweep expires these holds later
+                    logger.error("Failed to expire {} holds for event {}: {}", chunk.size(), eventId, e.getMessage());
+                }
+            }
+        });
+    }
+
+    private static class Entry {
+
+        private final String holdReference;
+
+        private final Long eventId;
+
+        private final long tick;
+
+        private Entry(String holdReference, Long eventId, long tick) {
+            this.holdReference = holdReference;
+            this.eventId = eventId;
+            this.tick = tick;
+        }
+    }
+}
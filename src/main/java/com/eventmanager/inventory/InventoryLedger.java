@@ -0,0 +1,307 @@
+package com.eventmanager.inventory;
+
+import com.eventmanager.exception.BadRequestException;
+import com.eventmanager.model.Event;
+import com.eventmanager.util.TicketNumberGenerator;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Optional in-memory inventory for hot on-sale events. Once an event's purchase rate
+ * crosses the activation threshold, the flush thread leases a block of its capacity from
+ * the events row and sells it from a {@link StripedInventory}; the resulting tickets are
+ * written behind in batches. Another block is leased when the ledger runs low, so the
+ * rest of the capacity stays on the row for other nodes. Leases are recorded in the row's
+ * leased_tickets column until their tickets are written. Unsold units go back to the row
+ * when the rate drops or the event starts. Buyers never touch the database here.
+ */
+@Component
+public class InventoryLedger {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryLedger.class);
+
+    @Value("${tickets.ledger.enabled}")
+    private boolean enabled;
+
+    @Value("${tickets.ledger.shards}")
+    private int shards;
+
+    @Value("${tickets.ledger.activation-rate}")
+    private long activationRate;
+
+    @Value("${tickets.ledger.lease-block}")
+    private int leaseBlock;
+
+    @Value("${tickets.ledger.batch-size}")
+    private int batchSize;
+
+    @Autowired
+    private TicketBatchWriter ticketBatchWriter;
+
+    @Autowired
+    private TicketNumberGenerator ticketNumberGenerator;
+
+    private final Map<Long, EventLedger> ledgers = new ConcurrentHashMap<>();
+
+    private final Map<Long, SalesVelocity> velocities = new ConcurrentHashMap<>();
+
+    // Events that turned hot, with the end of their sale, waiting for the flush thread to lease capacity
+    private final Map<Long, LocalDateTime> pendingActivations = new ConcurrentHashMap<>();
+
+    public boolean isActive(Long eventId) {
+        return ledgers.containsKey(eventId);
+    }
+
+    public void recordPurchaseAttempt(Event event) {
+        if (!enabled || event.getMaxAttendees() == null) {
+            return;
+        }
+
+        long rate = velocities.computeIfAbsent(event.getId(), id -> new SalesVelocity()).record();
+        if (rate >= activationRate && !ledgers.containsKey(event.getId())) {
+            pendingActivations.putIfAbsent(event.getId(), event.getStartDateTime());
+        }
+    }
+
+    /**
+     * Takes tickets from the event's ledger. Returns empty when the event is not served
+     * by the ledger, in which case the caller falls back to the database path.
+     */
+    public Optional<List<PendingTicket>> tryAllocate(Long eventId, Long userId, int quantity, BigDecimal price) {
+        EventLedger ledger = ledgers.get(eventId);
+        if (ledger == null) {
+            return Optional.empty();
+        }
+
+        ledger.inFlight.incrementAndGet();
+        try {
+            if (ledger.closed) {
+                return Optional.empty();
+            }
+            if (!ledger.inventory.tryTake(userId * 0x9E3779B97F4A7C15L, quantity)) {
+                if (ledger.dry) {
+                    throw new BadRequestException("Not enough tickets available");
+                }
+                // Leasing here would need a second connection inside the buyer's transaction, so the
+                // row sells what it still holds until the next flush tops the ledger up
+                return Optional.empty();
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            List<PendingTicket> tickets = new ArrayList<>(quantity);
+            for (int i = 0; i < quantity; i++) {
+                PendingTicket ticket = new PendingTicket(userId, ticketNumberGenerator.nextKey(), price, now);
+                tickets.add(ticket);
+                ledger.pending.add(ticket);
+            }
+            return Optional.of(tickets);
+        } finally {
+            ledger.inFlight.decrementAndGet();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${tickets.ledger.flush-interval-ms}")
+    public void flush() {
+        for (Long eventId : pendingActivations.keySet()) {
+            LocalDateTime salesEnd = pendingActivations.remove(eventId);
+            if (salesEnd != null) {
+                activate(eventId, salesEnd);
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<Long, EventLedger> entry : ledgers.entrySet()) {
+            Long eventId = entry.getKey();
+            EventLedger ledger = entry.getValue();
+            if (!writePending(eventId, ledger)) {
+                continue;
+            }
+
+            SalesVelocity velocity = velocities.get(eventId);
+            long rate = velocity == null ? 0 : velocity.lastRate();
+            if (ledger.closed || !now.isBefore(ledger.salesEnd) || rate < activationRate / 2) {
+                deactivate(eventId, ledger);
+            } else {
+                topUp(eventId, ledger);
+            }
+        }
+        velocities.entrySet().removeIf(entry ->
+                entry.getValue().isIdle() && !ledgers.containsKey(entry.getKey()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ledgers.forEach(this::deactivate);
+    }
+
+    private void activate(Long eventId, LocalDateTime salesEnd) {
+        if (ledgers.containsKey(eventId)) {
+            return;
+        }
+        try {
+            int leased = ticketBatchWriter.leaseCapacity(eventId, leaseBlock);
+            if (leased > 0) {
+                ledgers.put(eventId, new EventLedger(new StripedInventory(shards, leased), salesEnd));
+                logger.info("Inventory ledger activated for event {} with {} leased tickets", eventId, leased);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Failed to activate the inventory ledger for event {}: {}", eventId, e.getMessage());
+        }
+    }
+
+    /**
+     * Leases another block once the ledger holds less than half of one. A lease that comes
+     * back empty marks the ledger dry, so buyers are turned away from memory instead of
+     * falling through to the row; a later top-up picks up capacity released since.
+     */
+    private void topUp(Long eventId, EventLedger ledger) {
+        try {
+            // Held against deactivate, so units are never added after the ledger was drained
+            synchronized (ledger) {
+                if (ledger.closed || ledger.inventory.remaining() >= leaseBlock / 2) {
+                    return;
+                }
+                int leased = ticketBatchWriter.leaseCapacity(eventId, leaseBlock);
+                ledger.dry = leased == 0;
+                if (leased > 0) {
+                    ledger.inventory.add(leased);
+                    logger.debug("Inventory ledger for event {} leased {} more tickets", eventId, leased);
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.error("Failed to lease more tickets for event {}: {}", eventId, e.getMessage());
+        }
+    }
+
+    private void deactivate(Long eventId, EventLedger ledger) {
+        // Shutdown and the flush may both get here; only one of them returns the unsold units
+        synchronized (ledger) {
+            if (ledgers.get(eventId) != ledger) {
+                return;
+            }
+            // Close first and wait for buyers already inside tryAllocate so no pending ticket is missed
+            ledger.closed = true;
+            while (ledger.inFlight.get() > 0) {
+                Thread.onSpinWait();
+            }
+            ledger.unsold += ledger.inventory.drain();
+
+            // A closed ledger stays registered until its queue is written, so a failed write is retried
+            if (!writePending(eventId, ledger)) {
+                return;
+            }
+            try {
+                ticketBatchWriter.releaseLease(eventId, (int) ledger.unsold);
+            } catch (RuntimeException e) {
+                logger.error("Failed to return {} unsold tickets for event {}: {}", ledger.unsold, eventId, e.getMessage());
+                return;
+            }
+            ledgers.remove(eventId, ledger);
+            logger.info("Inventory ledger deactivated for event {}, {} unsold tickets returned", eventId, ledger.unsold);
+        }
+    }
+
+    private boolean writePending(Long eventId, EventLedger ledger) {
+        // Serialized so a deactivate never sees an empty queue while a flush is still writing its batch
+        synchronized (ledger) {
+            List<PendingTicket> batch = new ArrayList<>(batchSize);
+            PendingTicket ticket;
+            while ((ticket = ledger.pending.poll()) != null) {
+                batch.add(ticket);
+                if (batch.size() == batchSize) {
+                    if (!writeBatch(eventId, ledger, batch)) {
+                        return false;
+                    }
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            return batch.isEmpty() || writeBatch(eventId, ledger, batch);
+        }
+    }
+
+    private boolean writeBatch(Long eventId, EventLedger ledger, List<PendingTicket> batch) {
+        try {
+            ticketBatchWriter.writeTickets(eventId, batch);
+            return true;
+        } catch (RuntimeException e) {
+            // Keep the tickets queued; their capacity is already leased so the next flush retries them
+            logger.error("Failed to write {} tickets for event {}: {}", batch.size(), eventId, e.getMessage());
+            ledger.pending.addAll(batch);
+            return false;
+        }
+    }
+
+    private static class EventLedger {
+
+        private final StripedInventory inventory;
+
+        private final ConcurrentLinkedQueue<PendingTicket> pending = new ConcurrentLinkedQueue<>();
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        private final LocalDateTime salesEnd;
+
+        private volatile boolean closed;
+
+        private volatile boolean dry;
+
+        private long unsold;
+
+        private EventLedger(StripedInventory inventory, LocalDateTime salesEnd) {
+            this.inventory = inventory;
+            this.salesEnd = salesEnd;
+        }
+    }
+
+    private static class SalesVelocity {
+
+        private final AtomicLong second = new AtomicLong();
+
+        private final AtomicLong count = new AtomicLong();
+
+        private volatile long previousCount;
+
+        private long record() {
+            roll();
+            return count.incrementAndGet();
+        }
+
+        private long lastRate() {
+            roll();
+            return previousCount;
+        }
+
+        private boolean isIdle() {
+            return currentSecond() - second.get() > 60;
+        }
+
+        private void roll() {
+            long now = currentSecond();
+            long current = second.get();
+            if (current != now && second.compareAndSet(current, now)) {
+                long last = count.getAndSet(0);
+                previousCount = now - current == 1 ? last : 0;
+            }
+        }
+
+        private static long currentSecond() {
+            return System.currentTimeMillis() / 1000;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.eventmanager.inventory;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class PendingTicket {
+
+    private Long userId;
+
+    private Long ticketKey;
+
+    private BigDecimal price;
+
+    private LocalDateTime purchaseDate;
+}
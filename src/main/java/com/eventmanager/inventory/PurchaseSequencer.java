@@ -0,0 +1,154 @@
+package com.eventmanager.inventory;
+
+import com.eventmanager.exception.TooManyRequestsException;
+import com.eventmanager.model.Ticket;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opt-in single-writer purchase path. Each event gets a bounded queue drained by one
+ * writer thread, which decides availability in memory and commits the accepted
+ * purchases in group-commit batches, so buyers never contend for the event row.
+ */
+@Component
+public class PurchaseSequencer {
+
+    private static final Logger logger = LoggerFactory.getLogger(PurchaseSequencer.class);
+
+    @Value("${tickets.sequencer.enabled}")
+    private boolean enabled;
+
+    @Value("${tickets.sequencer.queue-capacity}")
+    private int queueCapacity;
+
+    @Value("${tickets.sequencer.batch-size}")
+    private int batchSize;
+
+    @Value("${tickets.sequencer.idle-timeout-ms}")
+    private long idleTimeoutMs;
+
+    @Value("${tickets.sequencer.max-lanes}")
+    private int maxLanes;
+
+    @Autowired
+    private TicketBatchWriter ticketBatchWriter;
+
+    private final Map<Long, Lane> lanes = new ConcurrentHashMap<>();
+
+    private volatile boolean stopping;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public CompletableFuture<Ticket> submit(Long eventId, Long userId, int quantity) {
+        if (stopping) {
+            throw new TooManyRequestsException("Purchases are temporarily unavailable", 5);
+        }
+
+        SequencedPurchase purchase = new SequencedPurchase(userId, quantity);
+        boolean[] queued = new boolean[1];
+        lanes.compute(eventId, (id, lane) -> {
+            if (lane == null) {
+                if (lanes.size() >= maxLanes) {
+                    return null;
+                }
+                lane = new Lane(id);
+                lane.start();
+            }
+            queued[0] = lane.queue.offer(purchase);
+            return lane;
+        });
+
+        if (!queued[0]) {
+            throw new TooManyRequestsException("Too many pending purchases for this event, please retry", 1);
+        }
+        return purchase.getResult();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stopping = true;
+        lanes.values().forEach(lane -> lane.thread.interrupt());
+    }
+
+    private class Lane implements Runnable {
+
+        private final Long eventId;
+
+        private final BlockingQueue<SequencedPurchase> queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        private final Thread thread;
+
+        private Lane(Long eventId) {
+            this.eventId = eventId;
+            this.thread = new Thread(this, "purchase-sequencer-" + eventId);
+            this.thread.setDaemon(true);
+        }
+
+        private void start() {
+            thread.start();
+        }
+
+        @Override
+        public void run() {
+            List<SequencedPurchase> batch = new ArrayList<>(batchSize);
+            try {
+                while (!stopping) {
+                    SequencedPurchase first = queue.poll(idleTimeoutMs, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        // Retire the lane only if nothing was queued since the poll timed out
+                        if (lanes.computeIfPresent(eventId, (id, lane) -> lane.queue.isEmpty() ? null : lane) == null) {
+                            return;
+                        }
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                    commit(batch);
+                    batch.clear();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                lanes.remove(eventId, this);
+                batch.addAll(queue);
+                batch.forEach(purchase -> purchase.getResult().completeExceptionally(
+                        new TooManyRequestsException("Purchases are temporarily unavailable", 5)));
+            }
+        }
+
+        private void commit(List<SequencedPurchase> batch) {
+            List<Ticket> results;
+            try {
+                results = ticketBatchWriter.commitSequencedPurchases(eventId, batch);
+            } catch (RuntimeException e) {
+                logger.debug("Sequenced batch of {} purchases for event {} failed: {}", batch.size(), eventId, e.getMessage());
+                batch.forEach(purchase -> purchase.getResult().completeExceptionally(e));
+                return;
+            }
+
+            for (int i = 0; i < batch.size(); i++) {
+                Ticket ticket = results.get(i);
+                if (ticket == null) {
+                    batch.get(i).getResult().completeExceptionally(batch.get(i).getRejection());
+                } else {
+                    batch.get(i).getResult().complete(ticket);
+                }
+            }
+        }
+    }
+}
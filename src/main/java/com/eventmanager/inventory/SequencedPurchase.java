@@ -0,0 +1,28 @@
+package com.eventmanager.inventory;
+
+import com.eventmanager.model.Ticket;
+import lombok.Getter;
+
+import java.util.concurrent.CompletableFuture;
+
+@Getter
+public class SequencedPurchase {
+
+    private final Long userId;
+
+    private final int quantity;
+
+    private final CompletableFuture<Ticket> result = new CompletableFuture<>();
+
+    // Why the batch writer turned this purchase down; only read once its batch has committed
+    private RuntimeException rejection;
+
+    public SequencedPurchase(Long userId, int quantity) {
+        this.userId = userId;
+        this.quantity = quantity;
+    }
+
+    void reject(RuntimeException rejection) {
+        this.rejection = rejection;
+    }
+}
@@ -0,0 +1,81 @@
+package com.eventmanager.inventory;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Remaining capacity of one event split across lock-free CAS slots. Buyers take
+ * units from their own shard first and borrow from the others when it runs dry.
+ */
+public class StripedInventory {
+
+    // Slots are spaced a cache line apart so neighbouring shards do not false-share
+    private static final int STRIDE = 8;
+
+    private final AtomicLongArray slots;
+    private final int shards;
+
+    public StripedInventory(int shards, long units) {
+        this.shards = shards;
+        this.slots = new AtomicLongArray(shards * STRIDE);
+        add(units);
+    }
+
+    // Spreads the units evenly across the shards
+    public void add(long units) {
+        long base = units / shards;
+        long extra = units % shards;
+        for (int i = 0; i < shards; i++) {
+            put(i, base + (i < extra ? 1 : 0));
+        }
+    }
+
+    public boolean tryTake(long hash, int quantity) {
+        int start = (int) Math.floorMod(hash, (long) shards);
+        long taken = 0;
+        for (int i = 0; i < shards && taken < quantity; i++) {
+            taken += takeFromSlot((start + i) % shards, quantity - taken);
+        }
+        if (taken < quantity) {
+            // Partial takes are handed back so other buyers can still use them
+            put(start, taken);
+            return false;
+        }
+        return true;
+    }
+
+    public void put(int shard, long units) {
+        if (units > 0) {
+            slots.getAndAdd(shard * STRIDE, units);
+        }
+    }
+
+    public long remaining() {
+        long total = 0;
+        for (int i = 0; i < shards; i++) {
+            total += slots.get(i * STRIDE);
+        }
+        return total;
+    }
+
+    public long drain() {
+        long total = 0;
+        for (int i = 0; i < shards; i++) {
+            total += slots.getAndSet(i * STRIDE, 0);
+        }
+        return total;
+    }
+
+    private long takeFromSlot(int shard, long wanted) {
+        int index = shard * STRIDE;
+        while (true) {
+            long available = slots.get(index);
+            if (available <= 0) {
+                return 0;
+            }
+            long take = Math.min(available, wanted);
+            if (slots.compareAndSet(index, available, available - take)) {
+                return take;
+            }
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.eventmanager.inventory;
+
+import com.eventmanager.exception.BadRequestException;
+import com.eventmanager.exception.ResourceNotFoundException;
+import com.eventmanager.gate.GateValidationIndex;
+import com.eventmanager.model.Event;
+import com.eventmanager.model.Ticket;
+import com.eventmanager.model.User;
+import com.eventmanager.repository.EventRepository;
+import com.eventmanager.repository.TicketRepository;
+import com.eventmanager.repository.UserRepository;
+import com.eventmanager.util.TicketNumberGenerator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Component
+public class TicketBatchWriter {
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TicketNumberGenerator ticketNumberGenerator;
+
+    @Autowired
+    private GateValidationIndex gateValidationIndex;
+
+    @Autowired
+    private TicketCounters ticketCounters;
+
+    // Leases at most maxUnits of the event's unallocated capacity, so other nodes can still sell the rest
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int leaseCapacity(Long eventId, int maxUnits) {
+        Event event = eventRepository.findByIdForUpdate(eventId).orElse(null);
+        if (event == null || event.getMaxAttendees() == null) {
+            return 0;
+        }
+
+        int units = Math.min(maxUnits, event.getMaxAttendees() - event.getAllocatedTickets());
+        if (units <= 0 || eventRepository.leaseTickets(eventId, units) == 0) {
+            return 0;
+        }
+        return units;
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void releaseLease(Long eventId, int units) {
+        if (units > 0) {
+            eventRepository.releaseLeasedTickets(eventId, units);
+        }
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void writeTickets(Long eventId, List<PendingTicket> pendingTickets) {
+        Event event = eventRepository.getReferenceById(eventId);
+        List<Ticket> tickets = new ArrayList<>(pendingTickets.size());
+        for (PendingTicket pending : pendingTickets) {
+            Ticket ticket = new Ticket();
+            ticket.setTicketKey(pending.getTicketKey());
+            ticket.setEvent(event);
+            ticket.setUser(userRepository.getReferenceById(pending.getUserId()));
+            ticket.setStatus(Ticket.TicketStatus.PAID);
+            ticket.setPrice(pending.getPrice());
+            ticket.setPurchaseDate(pending.getPurchaseDate());
+            tickets.add(ticket);
+        }
+        ticketRepository.saveAll(tickets);
+        // The rows and the lease settlement commit together, so the reconciliation job never counts a unit twice
+        eventRepository.settleLeasedTickets(eventId, tickets.size());
+        ticketCounters.issued(eventId, Ticket.TicketStatus.PAID, tickets.size());
+        gateValidationIndex.ticketsIssued(eventId, tickets.stream().map(Ticket::getTicketKey).collect(Collectors.toList()));
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int expireHolds(Long eventId, Collection<String> holdReferences) {
+        int expired = ticketRepository.expireHolds(eventId, holdReferences, LocalDateTime.now(),
+                Ticket.TicketStatus.RESERVED, Ticket.TicketStatus.CANCELLED);
+        if (expired > 0) {
+            eventRepository.releaseTickets(eventId, expired);
+            ticketCounters.moved(eventId, Ticket.TicketStatus.RESERVED, Ticket.TicketStatus.CANCELLED, expired);
+        }
+        return expired;
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int expireOverdueHolds(Long eventId) {
+        int expired = ticketRepository.expireOverdueHolds(eventId, LocalDateTime.now(),
+                Ticket.TicketStatus.RESERVED, Ticket.TicketStatus.CANCELLED);
+        if (expired > 0) {
+            eventRepository.releaseTickets(eventId, expired);
+            ticketCounters.moved(eventId, Ticket.TicketStatus.RESERVED, Ticket.TicketStatus.CANCELLED, expired);
+        }
+        return expired;
+    }
+
+    /**
+     * Commits one group of sequenced purchases. The whole group is claimed with one
+     * guarded allocation; only when it does not fit is the remaining capacity read and
+     * handed out in arrival order. The accepted tickets are inserted in one batch. The
+     * returned list holds the first ticket of each purchase, or null when the purchase
+     * was rejected, with the reason recorded on the purchase.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public List<Ticket> commitSequencedPurchases(Long eventId, List<SequencedPurchase> purchases) {
+        Event event = eventRepository.findById(eventId)
+                .orElseThrow(() -> new ResourceNotFoundException("Event", "id", eventId));
+        if (event.getStatus() != Event.EventStatus.PUBLISHED) {
+            throw new BadRequestException("Cannot purchase tickets for a non-published event");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (event.getStartDateTime().isBefore(now)) {
+            throw new BadRequestException("Cannot purchase tickets for past events");
+        }
+
+        Map<Long, User> users = userRepository.findAllById(
+                        purchases.stream().map(SequencedPurchase::getUserId).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        List<SequencedPurchase> candidates = new ArrayList<>(purchases.size());
+        for (SequencedPurchase purchase : purchases) {
+            if (users.containsKey(purchase.getUserId())) {
+                candidates.add(purchase);
+            } else {
+                purchase.reject(new ResourceNotFoundException("User", "id", purchase.getUserId()));
+            }
+        }
+
+        List<SequencedPurchase> accepted = allocate(eventId, candidates);
+        List<Ticket> tickets = new ArrayList<>();
+        Map<SequencedPurchase, Ticket> firstTickets = new IdentityHashMap<>();
+        for (SequencedPurchase purchase : accepted) {
+            for (int i = 0; i < purchase.getQuantity(); i++) {
+                Ticket ticket = new Ticket();
+                ticket.setTicketKey(ticketNumberGenerator.nextKey());
+                ticket.setEvent(event);
+                ticket.setUser(users.get(purchase.getUserId()));
+                ticket.setStatus(Ticket.TicketStatus.PAID);
+                ticket.setPrice(event.getTicketPrice());
+                ticket.setPurchaseDate(now);
+                tickets.add(ticket);
+            }
+            firstTickets.put(purchase, tickets.get(tickets.size() - purchase.getQuantity()));
+        }
+
+        if (!tickets.isEmpty()) {
+            ticketRepository.saveAll(tickets);
+            ticketCounters.issued(eventId, Ticket.TicketStatus.PAID, tickets.size());
+            gateValidationIndex.ticketsIssued(eventId, tickets.stream().map(Ticket::getTicketKey).collect(Collectors.toList()));
+        }
+        return purchases.stream().map(firstTickets::get).collect(Collectors.toList());
+    }
+
+    // Claims capacity for the purchases with guarded updates and returns the ones that got it
+    private List<SequencedPurchase> allocate(Long eventId, List<SequencedPurchase> purchases) {
+        List<SequencedPurchase> fitting = purchases;
+        while (true) {
+            int total = fitting.stream().mapToInt(SequencedPurchase::getQuantity).sum();
+            if (total == 0 || eventRepository.allocateTickets(eventId, total) == 1) {
+                break;
+            }
+
+            // Another node may lease capacity between the read and the update; the loop then retries with less
+            Integer remaining = eventRepository.findRemainingCapacity(eventId);
+            long left = remaining == null ? Long.MAX_VALUE : remaining;
+            fitting = new ArrayList<>();
+            for (SequencedPurchase purchase : purchases) {
+                if (purchase.getQuantity() <= left) {
+                    left -= purchase.getQuantity();
+                    fitting.add(purchase);
+                }
+            }
+        }
+
+        for (SequencedPurchase purchase : purchases) {
+            if (!fitting.contains(purchase)) {
+                purchase.reject(new BadRequestException("Not enough tickets available"));
+            }
+        }
+        return fitting;
+    }
+}
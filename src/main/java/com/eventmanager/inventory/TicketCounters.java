@@ -0,0 +1,44 @@
+package com.eventmanager.inventory;
+
+import com.eventmanager.cache.EventDetailCache;
+import com.eventmanager.model.Ticket;
+import com.eventmanager.repository.EventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the per-status ticket counts on the events row in step with ticket writes. Each
+ * call is one bulk update in the caller's transaction, so the counts commit or roll back
+ * with the tickets they describe; CounterReconciliationJob repairs any drift.
+ */
+@Component
+public class TicketCounters {
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private EventDetailCache eventDetailCache;
+
+    public void issued(Long eventId, Ticket.TicketStatus status, int quantity) {
+        moved(eventId, null, status, quantity);
+    }
+
+    public void moved(Long eventId, Ticket.TicketStatus from, Ticket.TicketStatus to, int quantity) {
+        if (quantity == 0) {
+            return;
+        }
+
+        int[] deltas = new int[Ticket.TicketStatus.values().length];
+        if (from != null) {
+            deltas[from.ordinal()] -= quantity;
+        }
+        deltas[to.ordinal()] += quantity;
+        eventRepository.adjustTicketCounts(eventId,
+                deltas[Ticket.TicketStatus.RESERVED.ordinal()],
+                deltas[Ticket.TicketStatus.PAID.ordinal()],
+                deltas[Ticket.TicketStatus.USED.ordinal()],
+                deltas[Ticket.TicketStatus.CANCELLED.ordinal()]);
+        eventDetailCache.ticketCountsChanged(eventId);
+    }
+}
@@ -0,0 +1,85 @@
+package com.eventmanager.job;
+
+import com.eventmanager.model.Event;
+import com.eventmanager.model.Ticket;
+import com.eventmanager.repository.EventRepository;
+import com.eventmanager.repository.TicketRepository;
+import com.eventmanager.repository.VenueRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+@Component
+public class CounterReconciliationJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(CounterReconciliationJob.class);
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private VenueRepository venueRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Scheduled(cron = "${tickets.counter.reconcile-cron}")
+    public void reconcileCounters() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int corrected = 0;
+        for (Long eventId : eventRepository.findAllIds()) {
+            Boolean drifted = transactionTemplate.execute(status -> reconcileEvent(eventId));
+            if (Boolean.TRUE.equals(drifted)) {
+                corrected++;
+            }
+        }
+
+        Integer venuesCorrected = transactionTemplate.execute(status -> venueRepository.reconcileEventCounts());
+        logger.info("Counter reconciliation finished, {} event(s) and {} venue(s) corrected", corrected, venuesCorrected);
+    }
+
+    private boolean reconcileEvent(Long eventId) {
+        // Locking the event row serializes with in-flight purchases, which update the same row
+        Event event = eventRepository.findByIdForUpdate(eventId).orElse(null);
+        if (event == null) {
+            return false;
+        }
+
+        Map<Ticket.TicketStatus, Integer> counts = new EnumMap<>(Ticket.TicketStatus.class);
+        for (Ticket.TicketStatus status : Ticket.TicketStatus.values()) {
+            counts.put(status, 0);
+        }
+        for (TicketRepository.StatusCount count : ticketRepository.countTicketsByStatus(eventId)) {
+            counts.put(count.getStatus(), (int) count.getTicketCount());
+        }
+        int reserved = counts.get(Ticket.TicketStatus.RESERVED);
+        int paid = counts.get(Ticket.TicketStatus.PAID);
+        int used = counts.get(Ticket.TicketStatus.USED);
+        int cancelled = counts.get(Ticket.TicketStatus.CANCELLED);
+        // Units leased to a ledger on any node hold capacity before their ticket rows are written
+        int active = reserved + paid + used + event.getLeasedTickets();
+
+        if (event.getAllocatedTickets() == active && event.getReservedTickets() == reserved &&
+            event.getPaidTickets() == paid && event.getUsedTickets() == used &&
+            event.getCancelledTickets() == cancelled) {
+            return false;
+        }
+
+        logger.warn("Ticket counters for event {} drifted: stored allocated={} reserved={} paid={} used={} cancelled={}, " +
+                    "actual allocated={} reserved={} paid={} used={} cancelled={}",
+                eventId, event.getAllocatedTickets(), event.getReservedTickets(), event.getPaidTickets(),
+                event.getUsedTickets(), event.getCancelledTickets(), active, reserved, paid, used, cancelled);
+        eventRepository.setTicketCounts(eventId, active, reserved, paid, used, cancelled);
+        return true;
+    }
+}
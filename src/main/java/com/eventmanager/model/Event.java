@@ -7,6 +7,9 @@ import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -17,11 +20,15 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "events")
+@Table(name = "events", indexes = {
+        @Index(name = "idx_event_start_date_time", columnList = "start_date_time, id"),
+        @Index(name = "idx_event_end_date_time", columnList = "end_date_time")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @EntityListeners(AuditingEntityListener.class)
+@DynamicUpdate
 public class Event {
 
     @Id
@@ -52,13 +59,36 @@ public class Event {
     
     private BigDecimal ticketPrice;
 
+    // Tickets holding capacity (RESERVED, PAID or USED); only changed through guarded bulk updates
+    @Column(nullable = false)
+    private Integer allocatedTickets = 0;
+
+    // Part of allocatedTickets leased to in-memory ledgers and not yet written as ticket rows
+    @Column(nullable = false)
+    private Integer leasedTickets = 0;
+
+    // Tickets per status, maintained by TicketCounters alongside every status change
+    @Column(nullable = false)
+    private Integer reservedTickets = 0;
+
+    @Column(nullable = false)
+    private Integer paidTickets = 0;
+
+    @Column(nullable = false)
+    private Integer usedTickets = 0;
+
+    @Column(nullable = false)
+    private Integer cancelledTickets = 0;
+
     @ManyToMany(fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @JoinTable(name = "event_artists",
             joinColumns = @JoinColumn(name = "event_id"),
             inverseJoinColumns = @JoinColumn(name = "artist_id"))
     private Set<Artist> artists = new HashSet<>();
 
     @ManyToMany(fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @JoinTable(name = "event_categories",
             joinColumns = @JoinColumn(name = "event_id"),
             inverseJoinColumns = @JoinColumn(name = "category_id"))
@@ -67,6 +97,9 @@ public class Event {
     @OneToMany(mappedBy = "event", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<Ticket> tickets = new HashSet<>();
 
+    @Version
+    private Long version;
+
     @CreatedDate
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -0,0 +1,38 @@
+package com.eventmanager.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "idempotency_records", indexes = {
+        @Index(name = "idx_idempotency_expires_at", columnList = "expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+
+    @Id
+    @Column(length = 255)
+    private String id;
+
+    // SHA-256 of the request payload, so a reused key with a different payload is not replayed
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+
+    @Column(nullable = false)
+    private Integer responseStatus;
+
+    @Lob
+    private String responseBody;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
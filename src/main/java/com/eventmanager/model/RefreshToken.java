@@ -0,0 +1,58 @@
+package com.eventmanager.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One refresh token of a sign-in session. Only a SHA-256 digest of the token is stored. Each
+ * refresh rotates the token: the row is marked rotated and a new row joins the same family.
+ * Presenting a rotated token again revokes the whole family, together with the access tokens
+ * it issued.
+ */
+@Entity
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "idx_refresh_token_family", columnList = "family_id"),
+        @Index(name = "idx_refresh_token_user", columnList = "user_id"),
+        @Index(name = "idx_refresh_token_revoked_access", columnList = "revoked_at, access_expires_at"),
+        @Index(name = "idx_refresh_token_expires_at", columnList = "expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefreshToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = 64)
+    private String tokenHash;
+
+    @Column(nullable = false)
+    private Long familyId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    // The access token issued alongside this refresh token, so revoking the session can revoke it too
+    @Column(nullable = false)
+    private Long accessTokenId;
+
+    @Column(nullable = false)
+    private LocalDateTime accessExpiresAt;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    private LocalDateTime rotatedAt;
+
+    private LocalDateTime revokedAt;
+}
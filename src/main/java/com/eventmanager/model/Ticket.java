@@ -10,22 +10,34 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.UUID;
 
 @Entity
-@Table(name = "tickets")
+@Table(name = "tickets", indexes = {
+        @Index(name = "idx_ticket_hold_reference", columnList = "hold_reference"),
+        @Index(name = "idx_ticket_status_expires_at", columnList = "status, expires_at"),
+        @Index(name = "idx_ticket_event_id", columnList = "event_id, id"),
+        @Index(name = "idx_ticket_event_status_id", columnList = "event_id, status, id"),
+        @Index(name = "idx_ticket_event_status_key", columnList = "event_id, status, ticket_key"),
+        @Index(name = "idx_ticket_event_updated_at", columnList = "event_id, updated_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @EntityListeners(AuditingEntityListener.class)
 public class Ticket {
 
+    // Pooled sequence instead of IDENTITY so Hibernate can batch ticket inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ticket_seq")
+    @SequenceGenerator(name = "ticket_seq", sequenceName = "ticket_seq", allocationSize = 50)
     private Long id;
 
-    @Column(nullable = false, unique = true)
-    private String ticketNumber = UUID.randomUUID().toString();
+    @Column(unique = true)
+    private Long ticketKey;
+
+    // Legacy UUID ticket number; tickets issued with a ticketKey leave it null
+    @Column(unique = true)
+    private String ticketNumber;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "event_id", nullable = false)
@@ -42,6 +54,16 @@ public class Ticket {
 
     private LocalDateTime purchaseDate;
 
+    @Column(length = 36)
+    private String holdReference;
+
+    private LocalDateTime expiresAt;
+
+    private LocalDateTime checkedInAt;
+
+    @Column(length = 64)
+    private String checkedInGate;
+
     @CreatedDate
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -6,7 +6,12 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -21,6 +26,9 @@ import java.util.Set;
 @NoArgsConstructor
 @AllArgsConstructor
 @EntityListeners(AuditingEntityListener.class)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@DynamicUpdate
 public class Venue {
 
     @Id
@@ -49,9 +57,19 @@ public class Venue {
     @NotNull
     private Integer capacity;
 
+    // Inverse side: left out of equals/hashCode so hashing an event does not load it back
     @OneToMany(mappedBy = "venue")
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private Set<Event> events = new HashSet<>();
 
+    // Maintained by the event write paths; only changed through bulk updates
+    @Column(nullable = false)
+    private Integer eventCount = 0;
+
+    @Version
+    private Long version;
+
     @CreatedDate
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -0,0 +1,39 @@
+package com.eventmanager.repository;
+
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Filters shared by entities with a name attribute.
+ */
+public final class CommonSpecifications {
+    
+    private static final char LIKE_ESCAPE = '\\';
+    
+    private CommonSpecifications() {
+    }
+    
+    public static <T> Specification<T> all() {
+        return (root, query, cb) -> cb.conjunction();
+    }
+    
+    // Wildcards typed by the user are matched literally
+    public static <T> Specification<T> nameContainsIgnoreCase(String name) {
+        String pattern = "%" + escapeLike(name.toLowerCase()) + "%";
+        return (root, query, cb) -> cb.like(cb.lower(root.get("name")), pattern, LIKE_ESCAPE);
+    }
+    
+    /**
+     * Escapes LIKE wildcards with a backslash, for queries that declare {@code ESCAPE '\'}.
+     */
+    public static String escapeLike(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
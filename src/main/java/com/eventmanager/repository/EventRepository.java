@@ -1,29 +1,147 @@
 package com.eventmanager.repository;
 
 import com.eventmanager.model.Event;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface EventRepository extends JpaRepository<Event, Long> {
+public interface EventRepository extends JpaRepository<Event, Long>, JpaSpecificationExecutor<Event> {
     
     Page<Event> findByStatus(Event.EventStatus status, Pageable pageable);
     
-    Page<Event> findByNameContainingIgnoreCase(String name, Pageable pageable);
+    // List pages select ids only; the rows are then loaded with findWithDetailsByIdIn
+    @Query(value = "SELECT e.id FROM Event e", countQuery = "SELECT COUNT(e) FROM Event e")
+    Page<Long> findIdPage(Pageable pageable);
     
-    @Query("SELECT e FROM Event e WHERE e.startDateTime >= :start AND e.endDateTime <= :end")
-    List<Event> findByDateRange(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+    // The name must be escaped with CommonSpecifications.escapeLike
+    @Query(value = "SELECT e.id FROM Event e WHERE LOWER(e.name) LIKE LOWER(CONCAT('%', :name, '%')) ESCAPE '\\'",
+           countQuery = "SELECT COUNT(e) FROM Event e WHERE LOWER(e.name) LIKE LOWER(CONCAT('%', :name, '%')) ESCAPE '\\'")
+    Page<Long> findIdPageByNameContainingIgnoreCase(@Param("name") String name, Pageable pageable);
     
-    @Query("SELECT e FROM Event e JOIN e.categories c WHERE c.id = :categoryId")
-    Page<Event> findByCategory(@Param("categoryId") Long categoryId, Pageable pageable);
+    @Query(value = "SELECT e.id FROM Event e JOIN e.categories c WHERE c.id = :categoryId",
+           countQuery = "SELECT COUNT(e) FROM Event e JOIN e.categories c WHERE c.id = :categoryId")
+    Page<Long> findIdPageByCategory(@Param("categoryId") Long categoryId, Pageable pageable);
     
-    @Query("SELECT e FROM Event e JOIN e.venue v WHERE v.city = :city")
-    Page<Event> findByCity(@Param("city") String city, Pageable pageable);
-}
\ No newline at end of file
+    @Query(value = "SELECT e.id FROM Event e JOIN e.venue v WHERE v.city = :city",
+           countQuery = "SELECT COUNT(e) FROM Event e JOIN e.venue v WHERE v.city = :city")
+    Page<Long> findIdPageByCity(@Param("city") String city, Pageable pageable);
+    
+    @EntityGraph(attributePaths = {"venue", "categories", "artists"})
+    @Query("SELECT DISTINCT e FROM Event e WHERE e.id IN :ids")
+    List<Event> findWithDetailsByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT e FROM Event e WHERE e.status = :status AND e.startDateTime <= :doorsOpen AND e.endDateTime > :now")
+    List<Event> findEventsWithOpenDoors(@Param("status") Event.EventStatus status,
+                                        @Param("doorsOpen") LocalDateTime doorsOpen,
+                                        @Param("now") LocalDateTime now);
+    
+    @Query("SELECT e FROM Event e WHERE e.status = :status AND e.startDateTime > :now")
+    List<Event> findEventsOnSale(@Param("status") Event.EventStatus status,
+                                 @Param("now") LocalDateTime now);
+    
+    @Query("SELECT e.id FROM Event e")
+    List<Long> findAllIds();
+    
+    @Query("SELECT e.version AS version, e.maxAttendees AS maxAttendees, e.reservedTickets AS reservedTickets, " +
+           "e.paidTickets AS paidTickets, e.usedTickets AS usedTickets, e.cancelledTickets AS cancelledTickets " +
+           "FROM Event e WHERE e.id = :id")
+    TicketCounts findTicketCountsById(@Param("id") Long id);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM Event e WHERE e.id = :id")
+    Optional<Event> findByIdForUpdate(@Param("id") Long id);
+    
+    // Null when the event is unbounded
+    @Query("SELECT e.maxAttendees - e.allocatedTickets FROM Event e WHERE e.id = :id")
+    Integer findRemainingCapacity(@Param("id") Long id);
+    
+    @Modifying
+    @Query("UPDATE Event e SET e.allocatedTickets = e.allocatedTickets + :quantity " +
+           "WHERE e.id = :eventId AND (e.maxAttendees IS NULL OR e.allocatedTickets + :quantity <= e.maxAttendees)")
+    int allocateTickets(@Param("eventId") Long eventId, @Param("quantity") int quantity);
+    
+    @Modifying
+    @Query("UPDATE Event e SET e.allocatedTickets = e.allocatedTickets - :quantity " +
+           "WHERE e.id = :eventId AND e.allocatedTickets >= :quantity")
+    int releaseTickets(@Param("eventId") Long eventId, @Param("quantity") int quantity);
+    
+    @Modifying
+    @Query("UPDATE Event e SET e.allocatedTickets = e.allocatedTickets + :quantity, e.leasedTickets = e.leasedTickets + :quantity " +
+           "WHERE e.id = :eventId AND (e.maxAttendees IS NULL OR e.allocatedTickets + :quantity <= e.maxAttendees)")
+    int leaseTickets(@Param("eventId") Long eventId, @Param("quantity") int quantity);
+    
+    // Leased units that became ticket rows stay allocated but are no longer held by a ledger
+    @Modifying
+    @Query("UPDATE Event e SET e.leasedTickets = e.leasedTickets - :quantity " +
+           "WHERE e.id = :eventId AND e.leasedTickets >= :quantity")
+    int settleLeasedTickets(@Param("eventId") Long eventId, @Param("quantity") int quantity);
+    
+    @Modifying
+    @Query("UPDATE Event e SET e.allocatedTickets = e.allocatedTickets - :quantity, e.leasedTickets = e.leasedTickets - :quantity " +
+           "WHERE e.id = :eventId AND e.leasedTickets >= :quantity AND e.allocatedTickets >= :quantity")
+    int releaseLeasedTickets(@Param("eventId") Long eventId, @Param("quantity") int quantity);
+    
+    @Modifying
+    @Query("UPDATE Event e SET e.reservedTickets = e.reservedTickets + :reserved, e.paidTickets = e.paidTickets + :paid, " +
+           "e.usedTickets = e.usedTickets + :used, e.cancelledTickets = e.cancelledTickets + :cancelled " +
+           "WHERE e.id = :eventId")
+    int adjustTicketCounts(@Param("eventId") Long eventId,
+                           @Param("reserved") int reserved,
+                           @Param("paid") int paid,
+                           @Param("used") int used,
+                           @Param("cancelled") int cancelled);
+    
+    @Modifying
+    @Query("UPDATE Event e SET e.allocatedTickets = :allocated, e.reservedTickets = :reserved, e.paidTickets = :paid, " +
+           "e.usedTickets = :used, e.cancelledTickets = :cancelled WHERE e.id = :eventId")
+    int setTicketCounts(@Param("eventId") Long eventId,
+                        @Param("allocated") int allocated,
+                        @Param("reserved") int reserved,
+                        @Param("paid") int paid,
+                        @Param("used") int used,
+                        @Param("cancelled") int cancelled);
+    
+    // Event bodies embed venue, artist and category fields, so their edits must change the event's ETag too
+    @Modifying
+    @Query("UPDATE Event e SET e.version = e.version + 1 WHERE e.venue.id = :venueId")
+    int incrementVersionByVenue(@Param("venueId") Long venueId);
+    
+    @Modifying
+    @Query("UPDATE Event e SET e.version = e.version + 1 " +
+           "WHERE e.id IN (SELECT ea.id FROM Event ea JOIN ea.artists a WHERE a.id = :artistId)")
+    int incrementVersionByArtist(@Param("artistId") Long artistId);
+    
+    @Modifying
+    @Query("UPDATE Event e SET e.version = e.version + 1 " +
+           "WHERE e.id IN (SELECT ec.id FROM Event ec JOIN ec.categories c WHERE c.id = :categoryId)")
+    int incrementVersionByCategory(@Param("categoryId") Long categoryId);
+    
+    interface TicketCounts {
+        
+        Long getVersion();
+        
+        Integer getMaxAttendees();
+        
+        int getReservedTickets();
+        
+        int getPaidTickets();
+        
+        int getUsedTickets();
+        
+        int getCancelledTickets();
+    }
+}
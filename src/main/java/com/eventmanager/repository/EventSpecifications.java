@@ -0,0 +1,46 @@
+package com.eventmanager.repository;
+
+import com.eventmanager.dto.request.DateRangeMatch;
+import com.eventmanager.model.Event;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+
+/**
+ * Optional filters for event searches. A filter whose argument is null returns null,
+ * which {@link Specification#and} skips.
+ */
+public final class EventSpecifications {
+    
+    private EventSpecifications() {
+    }
+    
+    public static Specification<Event> inDateRange(LocalDateTime start, LocalDateTime end, DateRangeMatch match) {
+        if (match == DateRangeMatch.OVERLAPS) {
+            return (root, query, cb) -> cb.and(
+                    cb.lessThanOrEqualTo(root.get("startDateTime"), end),
+                    cb.greaterThanOrEqualTo(root.get("endDateTime"), start));
+        }
+        return (root, query, cb) -> cb.and(
+                cb.greaterThanOrEqualTo(root.get("startDateTime"), start),
+                cb.lessThanOrEqualTo(root.get("endDateTime"), end));
+    }
+    
+    public static Specification<Event> hasStatus(Event.EventStatus status) {
+        if (status == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+    
+    public static Specification<Event> inCategory(Long categoryId) {
+        return (root, query, cb) -> cb.equal(root.join("categories").get("id"), categoryId);
+    }
+    
+    public static Specification<Event> inCity(String city) {
+        if (city == null || city.isEmpty()) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.join("venue").get("city"), city);
+    }
+}
@@ -0,0 +1,54 @@
+package com.eventmanager.repository;
+
+import com.eventmanager.model.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+    
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+    
+    // Guarded so two concurrent refreshes with the same token cannot both rotate it
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.rotatedAt = :now " +
+           "WHERE r.id = :id AND r.rotatedAt IS NULL AND r.revokedAt IS NULL AND r.expiresAt > :now")
+    int rotate(@Param("id") Long id, @Param("now") LocalDateTime now);
+    
+    @Query("SELECT r.accessTokenId AS accessTokenId, r.accessExpiresAt AS accessExpiresAt FROM RefreshToken r " +
+           "WHERE r.familyId = :familyId AND r.revokedAt IS NULL AND r.accessExpiresAt > :now")
+    List<RevokedAccessToken> findLiveAccessTokensByFamily(@Param("familyId") Long familyId,
+                                                          @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.revokedAt = :now WHERE r.familyId = :familyId AND r.revokedAt IS NULL")
+    int revokeFamily(@Param("familyId") Long familyId, @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.revokedAt = :now WHERE r.user.id = :userId AND r.revokedAt IS NULL")
+    int revokeAllForUser(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+    
+    @Query("SELECT r.accessTokenId AS accessTokenId, r.accessExpiresAt AS accessExpiresAt FROM RefreshToken r " +
+           "WHERE r.revokedAt IS NOT NULL AND r.accessExpiresAt > :now")
+    List<RevokedAccessToken> findRevokedAccessTokens(@Param("now") LocalDateTime now);
+    
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RefreshToken r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+    
+    interface RevokedAccessToken {
+        
+        Long getAccessTokenId();
+        
+        LocalDateTime getAccessExpiresAt();
+    }
+}
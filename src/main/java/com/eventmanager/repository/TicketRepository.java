@@ -2,26 +2,178 @@ package com.eventmanager.repository;
 
 import com.eventmanager.model.Event;
 import com.eventmanager.model.Ticket;
-import com.eventmanager.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface TicketRepository extends JpaRepository<Ticket, Long> {
+public interface TicketRepository extends JpaRepository<Ticket, Long>, JpaSpecificationExecutor<Ticket> {
     
     List<Ticket> findByEventAndStatus(Event event, Ticket.TicketStatus status);
     
-    Page<Ticket> findByUser(User user, Pageable pageable);
+    @EntityGraph(attributePaths = {"event", "user"})
+    Page<Ticket> findByUserId(Long userId, Pageable pageable);
     
-    @Query("SELECT COUNT(t) FROM Ticket t WHERE t.event.id = :eventId AND t.status IN ('RESERVED', 'PAID')")
-    long countActiveTicketsByEvent(@Param("eventId") Long eventId);
+    @EntityGraph(attributePaths = {"event", "user"})
+    Page<Ticket> findByEventId(Long eventId, Pageable pageable);
     
+    @EntityGraph(attributePaths = {"event", "user"})
+    Page<Ticket> findByEventIdAndStatusIn(Long eventId, Collection<Ticket.TicketStatus> statuses, Pageable pageable);
+    
+    // Keyset pages: seek past the last id seen instead of skipping an OFFSET, and no count query
+    @EntityGraph(attributePaths = {"event", "user"})
+    @Query("SELECT t FROM Ticket t WHERE t.event.id = :eventId AND t.id > :afterId ORDER BY t.id")
+    List<Ticket> findByEventIdAfter(@Param("eventId") Long eventId,
+                                    @Param("afterId") Long afterId,
+                                    Pageable pageable);
+    
+    @EntityGraph(attributePaths = {"event", "user"})
+    @Query("SELECT t FROM Ticket t WHERE t.event.id = :eventId AND t.status IN :statuses AND t.id > :afterId ORDER BY t.id")
+    List<Ticket> findByEventIdAndStatusInAfter(@Param("eventId") Long eventId,
+                                               @Param("statuses") Collection<Ticket.TicketStatus> statuses,
+                                               @Param("afterId") Long afterId,
+                                               Pageable pageable);
+    
+    @Query("SELECT t.status AS status, COUNT(t) AS ticketCount FROM Ticket t WHERE t.event.id = :eventId GROUP BY t.status")
+    List<StatusCount> countTicketsByStatus(@Param("eventId") Long eventId);
+    
+    @EntityGraph(attributePaths = "event")
     Optional<Ticket> findByTicketNumber(String ticketNumber);
+    
+    @EntityGraph(attributePaths = "event")
+    Optional<Ticket> findByTicketKey(Long ticketKey);
+    
+    @Query("SELECT t.ticketKey FROM Ticket t WHERE t.event.id = :eventId AND t.status = :status AND t.ticketKey IS NOT NULL")
+    List<Long> findTicketKeysByEventAndStatus(@Param("eventId") Long eventId,
+                                              @Param("status") Ticket.TicketStatus status);
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT t.ticketKey FROM Ticket t " +
+           "WHERE t.event.id = :eventId AND t.status = :status AND t.ticketKey IS NOT NULL ORDER BY t.ticketKey")
+    Stream<Long> streamTicketKeysByEventAndStatus(@Param("eventId") Long eventId,
+                                                  @Param("status") Ticket.TicketStatus status);
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT t.ticketNumber FROM Ticket t " +
+           "WHERE t.event.id = :eventId AND t.status = :status AND t.ticketKey IS NULL ORDER BY t.ticketNumber")
+    Stream<String> streamLegacyTicketNumbersByEventAndStatus(@Param("eventId") Long eventId,
+                                                             @Param("status") Ticket.TicketStatus status);
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT t.ticketKey AS ticketKey, t.ticketNumber AS ticketNumber, t.event.id AS eventId, t.status AS status " +
+           "FROM Ticket t WHERE t.event.id = :eventId AND t.updatedAt > :since")
+    Stream<ScanStatus> streamScanStatusChangedSince(@Param("eventId") Long eventId,
+                                                    @Param("since") LocalDateTime since);
+    
+    List<Ticket> findByHoldReference(String holdReference);
+    
+    // Gate scans: the event must still be published and not over, checked in the same statement
+    @Modifying
+    @Query("UPDATE Ticket t SET t.status = :used, t.checkedInAt = :now, t.updatedAt = :now " +
+           "WHERE t.ticketKey = :ticketKey AND t.event.id = :eventId AND t.status = :paid AND EXISTS " +
+           "(SELECT 1 FROM Event e WHERE e.id = :eventId AND e.status = :published AND e.endDateTime > :now)")
+    int checkInByTicketKey(@Param("ticketKey") Long ticketKey,
+                           @Param("eventId") Long eventId,
+                           @Param("now") LocalDateTime now,
+                           @Param("published") Event.EventStatus published,
+                           @Param("paid") Ticket.TicketStatus paid,
+                           @Param("used") Ticket.TicketStatus used);
+    
+    @Modifying
+    @Query("UPDATE Ticket t SET t.status = :used, t.checkedInAt = :now, t.updatedAt = :now " +
+           "WHERE t.ticketNumber = :ticketNumber AND t.event.id = :eventId AND t.status = :paid AND EXISTS " +
+           "(SELECT 1 FROM Event e WHERE e.id = :eventId AND e.status = :published AND e.endDateTime > :now)")
+    int checkInByTicketNumber(@Param("ticketNumber") String ticketNumber,
+                              @Param("eventId") Long eventId,
+                              @Param("now") LocalDateTime now,
+                              @Param("published") Event.EventStatus published,
+                              @Param("paid") Ticket.TicketStatus paid,
+                              @Param("used") Ticket.TicketStatus used);
+    
+    @Query("SELECT t.ticketKey AS ticketKey, t.ticketNumber AS ticketNumber, t.event.id AS eventId, t.status AS status " +
+           "FROM Ticket t WHERE t.ticketKey IN :ticketKeys")
+    List<ScanStatus> findScanStatusByTicketKeys(@Param("ticketKeys") Collection<Long> ticketKeys);
+    
+    @Query("SELECT t.ticketKey AS ticketKey, t.ticketNumber AS ticketNumber, t.event.id AS eventId, t.status AS status " +
+           "FROM Ticket t WHERE t.ticketNumber IN :ticketNumbers")
+    List<ScanStatus> findScanStatusByTicketNumbers(@Param("ticketNumbers") Collection<String> ticketNumbers);
+    
+    @Modifying
+    @Query("UPDATE Ticket t SET t.status = :paid, t.purchaseDate = :now, t.expiresAt = NULL, t.updatedAt = :now " +
+           "WHERE t.holdReference = :holdReference AND t.user.id = :userId AND t.status = :reserved AND t.expiresAt > :now")
+    int confirmHold(@Param("holdReference") String holdReference,
+                    @Param("userId") Long userId,
+                    @Param("now") LocalDateTime now,
+                    @Param("reserved") Ticket.TicketStatus reserved,
+                    @Param("paid") Ticket.TicketStatus paid);
+    
+    @Modifying
+    @Query("UPDATE Ticket t SET t.status = :used, t.checkedInAt = :now, t.updatedAt = :now " +
+           "WHERE t.id = :id AND t.status = :paid")
+    int checkInById(@Param("id") Long id,
+                    @Param("now") LocalDateTime now,
+                    @Param("paid") Ticket.TicketStatus paid,
+                    @Param("used") Ticket.TicketStatus used);
+    
+    // Only the caller that moves the ticket out of the status it read releases its seat
+    @Modifying
+    @Query("UPDATE Ticket t SET t.status = :cancelled, t.updatedAt = :now WHERE t.id = :id AND t.status = :expected")
+    int cancel(@Param("id") Long id,
+               @Param("now") LocalDateTime now,
+               @Param("expected") Ticket.TicketStatus expected,
+               @Param("cancelled") Ticket.TicketStatus cancelled);
+    
+    @Modifying
+    @Query("UPDATE Ticket t SET t.status = :cancelled, t.updatedAt = :now " +
+           "WHERE t.event.id = :eventId AND t.holdReference IN :holdReferences AND t.status = :reserved AND t.expiresAt <= :now")
+    int expireHolds(@Param("eventId") Long eventId,
+                    @Param("holdReferences") Collection<String> holdReferences,
+                    @Param("now") LocalDateTime now,
+                    @Param("reserved") Ticket.TicketStatus reserved,
+                    @Param("cancelled") Ticket.TicketStatus cancelled);
+    
+    @Modifying
+    @Query("UPDATE Ticket t SET t.status = :cancelled, t.updatedAt = :now " +
+           "WHERE t.event.id = :eventId AND t.status = :reserved AND t.expiresAt <= :now")
+    int expireOverdueHolds(@Param("eventId") Long eventId,
+                           @Param("now") LocalDateTime now,
+                           @Param("reserved") Ticket.TicketStatus reserved,
+                           @Param("cancelled") Ticket.TicketStatus cancelled);
+    
+    @Query("SELECT DISTINCT t.event.id FROM Ticket t WHERE t.status = :reserved AND t.expiresAt <= :now")
+    List<Long> findEventIdsWithOverdueHolds(@Param("now") LocalDateTime now,
+                                            @Param("reserved") Ticket.TicketStatus reserved);
+    
+    interface ScanStatus {
+        
+        Long getTicketKey();
+        
+        String getTicketNumber();
+        
+        Long getEventId();
+        
+        Ticket.TicketStatus getStatus();
+    }
+    
+    interface StatusCount {
+        
+        Ticket.TicketStatus getStatus();
+        
+        long getTicketCount();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,31 @@
+package com.eventmanager.repository;
+
+import com.eventmanager.model.Ticket;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+
+/**
+ * Optional filters for ticket listings. A filter whose argument is null or empty
+ * returns null, which {@link Specification#and} skips.
+ */
+public final class TicketSpecifications {
+    
+    private TicketSpecifications() {
+    }
+    
+    public static Specification<Ticket> forEvent(Long eventId) {
+        return (root, query, cb) -> cb.equal(root.get("event").get("id"), eventId);
+    }
+    
+    public static Specification<Ticket> ownedBy(Long userId) {
+        return (root, query, cb) -> cb.equal(root.get("user").get("id"), userId);
+    }
+    
+    public static Specification<Ticket> hasStatusIn(Collection<Ticket.TicketStatus> statuses) {
+        if (statuses == null || statuses.isEmpty()) {
+            return null;
+        }
+        return (root, query, cb) -> root.get("status").in(statuses);
+    }
+}
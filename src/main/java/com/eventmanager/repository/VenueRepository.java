@@ -4,16 +4,29 @@ import com.eventmanager.model.Venue;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
-public interface VenueRepository extends JpaRepository<Venue, Long> {
+public interface VenueRepository extends JpaRepository<Venue, Long>, JpaSpecificationExecutor<Venue> {
     
     Page<Venue> findByNameContainingIgnoreCase(String name, Pageable pageable);
     
     List<Venue> findByCity(String city);
     
     List<Venue> findByCapacityGreaterThanEqual(Integer capacity);
+    
+    @Modifying
+    @Query("UPDATE Venue v SET v.eventCount = v.eventCount + :delta WHERE v.id = :venueId")
+    int adjustEventCount(@Param("venueId") Long venueId, @Param("delta") int delta);
+    
+    @Modifying
+    @Query("UPDATE Venue v SET v.eventCount = (SELECT COUNT(e) FROM Event e WHERE e.venue = v) " +
+           "WHERE v.eventCount <> (SELECT COUNT(e) FROM Event e WHERE e.venue = v)")
+    int reconcileEventCounts();
 }
\ No newline at end of file
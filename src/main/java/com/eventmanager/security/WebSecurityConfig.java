@@ -3,7 +3,9 @@ package com.eventmanager.security;
 import com.eventmanager.security.jwt.AuthEntryPointJwt;
 import com.eventmanager.security.jwt.AuthTokenFilter;
 import com.eventmanager.security.services.UserDetailsServiceImpl;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -29,6 +31,10 @@ public class WebSecurityConfig {
     @Autowired
     private AuthEntryPointJwt unauthorizedHandler;
     
+    // Raising this re-hashes each password at the new cost on its next successful sign-in
+    @Value("${security.password.bcrypt-strength}")
+    private int bcryptStrength;
+    
     @Bean
     public AuthTokenFilter authenticationJwtTokenFilter() {
         return new AuthTokenFilter();
@@ -40,6 +46,7 @@ public class WebSecurityConfig {
         
         authProvider.setUserDetailsService(userDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setUserDetailsPasswordService(userDetailsService);
         
         return authProvider;
     }
@@ -51,7 +58,7 @@ public class WebSecurityConfig {
     
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
     
     @Bean
@@ -60,26 +67,30 @@ public class WebSecurityConfig {
             .exceptionHandling(exception -> exception.authenticationEntryPoint(unauthorizedHandler))
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> 
-                auth.requestMatchers("/api/auth/**").permitAll()
-                    .requestMatchers("/api/events").permitAll()
-                    .requestMatchers("/api/events/{id}").permitAll()
-                    .requestMatchers("/api/events/search").permitAll()
-                    .requestMatchers("/api/events/category/**").permitAll()
-                    .requestMatchers("/api/events/date-range").permitAll()
-                    .requestMatchers("/api/events/city/**").permitAll()
-                    .requestMatchers("/api/categories").permitAll()
-                    .requestMatchers("/api/categories/{id}").permitAll()
-                    .requestMatchers("/api/venues").permitAll()
-                    .requestMatchers("/api/venues/{id}").permitAll()
-                    .requestMatchers("/api/venues/search").permitAll()
-                    .requestMatchers("/api/venues/city/**").permitAll()
-                    .requestMatchers("/api/artists").permitAll()
-                    .requestMatchers("/api/artists/{id}").permitAll()
-                    .requestMatchers("/api/artists/search").permitAll()
-                    .requestMatchers("/api/artists/genre/**").permitAll()
+                // Async results are re-dispatched after the original request was already authorized
+                // Paths are matched without the /api context path
+                auth.dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                    .requestMatchers("/auth/**").permitAll()
+                    .requestMatchers("/events").permitAll()
+                    .requestMatchers("/events/{id}").permitAll()
+                    .requestMatchers("/events/search").permitAll()
+                    .requestMatchers("/events/category/**").permitAll()
+                    .requestMatchers("/events/date-range").permitAll()
+                    .requestMatchers("/events/city/**").permitAll()
+                    .requestMatchers("/categories").permitAll()
+                    .requestMatchers("/categories/{id}").permitAll()
+                    .requestMatchers("/venues").permitAll()
+                    .requestMatchers("/venues/{id}").permitAll()
+                    .requestMatchers("/venues/search").permitAll()
+                    .requestMatchers("/venues/city/**").permitAll()
+                    .requestMatchers("/artists").permitAll()
+                    .requestMatchers("/artists/{id}").permitAll()
+                    .requestMatchers("/artists/search").permitAll()
+                    .requestMatchers("/artists/genre/**").permitAll()
                     .requestMatchers("/api-docs/**").permitAll()
                     .requestMatchers("/swagger-ui/**").permitAll()
                     .requestMatchers("/h2-console/**").permitAll()
+                    .requestMatchers("/actuator/**").hasRole("ADMIN")
                     .anyRequest().authenticated()
             );
         
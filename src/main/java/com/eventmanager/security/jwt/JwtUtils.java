@@ -1,19 +1,34 @@
 package com.eventmanager.security.jwt;
 
 import com.eventmanager.security.services.UserDetailsImpl;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SecurityException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 @Component
 public class JwtUtils {
@@ -25,30 +40,118 @@ public class JwtUtils {
     @Value("${jwt.expiration}")
     private int jwtExpirationMs;
 
-    public String generateJwtToken(Authentication authentication) {
-        UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
+    private static final String USER_ID_CLAIM = "uid";
 
+    private static final String ROLES_CLAIM = "roles";
+
+    private static final String TOKEN_VERSION_CLAIM = "ver";
+
+    @Value("${jwt.verified-cache.max-entries}")
+    private long verifiedCacheMaxEntries;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Key key;
+
+    private JwtParser parser;
+
+    // Keyed by a digest of the token, so the cache never holds bearer credentials
+    private Cache<String, VerifiedToken> verifiedTokens;
+
+    @PostConstruct
+    public void init() {
+        key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        parser = Jwts.parserBuilder().setSigningKey(key).build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaxEntries)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String digest, VerifiedToken token, long currentTime) {
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, token.expiresAt - System.currentTimeMillis()));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String digest, VerifiedToken token, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String digest, VerifiedToken token, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwt.verified.tokens");
+    }
+
+    public int getJwtExpirationMs() {
+        return jwtExpirationMs;
+    }
+
+    /**
+     * @param tokenId random id carried as the jti claim, by which the token can be revoked
+     */
+    public String generateJwtToken(UserDetailsImpl userPrincipal, long tokenId, Date issuedAt, Date expiresAt) {
+        List<String> roles = userPrincipal.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toList());
+
+        // Everything the request filter needs travels in the token, so it never loads the user
         return Jwts.builder()
                 .setSubject((userPrincipal.getUsername()))
-                .setIssuedAt(new Date())
-                .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(key(), SignatureAlgorithm.HS256)
+                .setId(Long.toString(tokenId))
+                .claim(USER_ID_CLAIM, userPrincipal.getId())
+                .claim(ROLES_CLAIM, roles)
+                .claim(TOKEN_VERSION_CLAIM, userPrincipal.getTokenVersion())
+                .setIssuedAt(issuedAt)
+                .setExpiration(expiresAt)
+                .signWith(key, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    private Key key() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+    /**
+     * Verifies the token and rebuilds its principal from the claims, or returns null when the
+     * token is invalid or was issued before tokens carried claims. A token verified before is
+     * answered from memory until it expires.
+     */
+    public UserDetailsImpl getUserDetailsFromJwtToken(String authToken) {
+        String digest = digest(authToken);
+        VerifiedToken cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null && cached.expiresAt > System.currentTimeMillis()) {
+            return cached.userDetails;
+        }
+
+        Claims claims = verify(authToken);
+        if (claims == null) {
+            return null;
+        }
+        UserDetailsImpl userDetails = toUserDetails(claims);
+        if (userDetails != null) {
+            verifiedTokens.put(digest, new VerifiedToken(userDetails, claims.getExpiration().getTime()));
+        }
+        return userDetails;
     }
 
-    public String getUserNameFromJwtToken(String token) {
-        return Jwts.parserBuilder().setSigningKey(key()).build()
-                .parseClaimsJws(token).getBody().getSubject();
+    @SuppressWarnings("unchecked")
+    private UserDetailsImpl toUserDetails(Claims claims) {
+        Long userId = claims.get(USER_ID_CLAIM, Long.class);
+        List<String> roles = claims.get(ROLES_CLAIM, List.class);
+        Long tokenVersion = claims.get(TOKEN_VERSION_CLAIM, Long.class);
+        if (userId == null || roles == null || tokenVersion == null || claims.getId() == null
+                || claims.getExpiration() == null) {
+            logger.error("JWT token is missing user claims");
+            return null;
+        }
+        return UserDetailsImpl.fromClaims(userId, claims.getSubject(), roles, tokenVersion, Long.parseLong(claims.getId()));
     }
 
-    public boolean validateJwtToken(String authToken) {
+    private Claims verify(String authToken) {
         try {
-            Jwts.parserBuilder().setSigningKey(key()).build().parse(authToken);
-            return true;
+            return parser.parseClaimsJws(authToken).getBody();
+        } catch (SecurityException e) {
+            logger.error("Invalid JWT signature: {}", e.getMessage());
         } catch (MalformedJwtException e) {
             logger.error("Invalid JWT token: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
@@ -59,7 +162,16 @@ public class JwtUtils {
             logger.error("JWT claims string is empty: {}", e.getMessage());
         }
 
-        return false;
+        return null;
+    }
+
+    private static String digest(String authToken) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(sha256.digest(authToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
 
     public String parseJwt(HttpServletRequest request) {
@@ -71,4 +183,16 @@ public class JwtUtils {
 
         return null;
     }
+
+    private static final class VerifiedToken {
+
+        private final UserDetailsImpl userDetails;
+
+        private final long expiresAt;
+
+        private VerifiedToken(UserDetailsImpl userDetails, long expiresAt) {
+            this.userDetails = userDetails;
+            this.expiresAt = expiresAt;
+        }
+    }
 }
\ No newline at end of file
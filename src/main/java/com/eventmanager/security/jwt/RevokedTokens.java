@@ -0,0 +1,90 @@
+package com.eventmanager.security.jwt;
+
+import com.eventmanager.repository.RefreshTokenRepository;
+import com.eventmanager.util.BloomFilter;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory list of revoked access token ids, so the request filter never asks the database.
+ * A Bloom filter answers the common "not revoked" case; its positives are confirmed against an
+ * exact map from token id to expiry. Entries are dropped once their token has expired, and the
+ * filter is rebuilt from what is left. Revocations on this node apply after commit; those made
+ * on other nodes are loaded on the next refresh.
+ */
+@Component
+public class RevokedTokens {
+
+    @Value("${jwt.revocation.expected-entries}")
+    private long expectedEntries;
+
+    @Value("${jwt.revocation.bloom-false-positive-rate}")
+    private double bloomFalsePositiveRate;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private final Map<Long, Long> revoked = new ConcurrentHashMap<>();
+
+    private volatile BloomFilter filter;
+
+    @PostConstruct
+    public void init() {
+        filter = new BloomFilter(expectedEntries, bloomFalsePositiveRate);
+    }
+
+    public boolean isRevoked(Long tokenId) {
+        return filter.mightContain(tokenId) && revoked.containsKey(tokenId);
+    }
+
+    public void revoke(Collection<RefreshTokenRepository.RevokedAccessToken> tokens) {
+        if (tokens.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    add(tokens);
+                }
+            });
+        } else {
+            add(tokens);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.refresh-ms}")
+    public void refresh() {
+        add(refreshTokenRepository.findRevokedAccessTokens(LocalDateTime.now()));
+        prune();
+    }
+
+    // Serialised with prune so a revocation cannot slip in between rebuilding the filter and publishing it
+    private synchronized void add(Collection<RefreshTokenRepository.RevokedAccessToken> tokens) {
+        for (RefreshTokenRepository.RevokedAccessToken token : tokens) {
+            revoked.put(token.getAccessTokenId(),
+                    token.getAccessExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+            filter.put(token.getAccessTokenId());
+        }
+    }
+
+    private synchronized void prune() {
+        long now = System.currentTimeMillis();
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedEntries, revoked.size() * 2L), bloomFalsePositiveRate);
+        revoked.keySet().forEach(rebuilt::put);
+        filter = rebuilt;
+    }
+}
@@ -0,0 +1,69 @@
+package com.eventmanager.security.jwt;
+
+import com.eventmanager.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * In-memory copy of each user's token version, checked against the version a token was issued
+ * under. Entries are refreshed in the background once they are older than the refresh interval,
+ * so the request path never waits on the database for a user it has seen recently; a revocation
+ * made on another node is picked up within one interval.
+ */
+@Component
+public class TokenVersions {
+
+    @Value("${jwt.token-version.refresh-seconds}")
+    private long refreshSeconds;
+
+    @Value("${jwt.token-version.max-entries}")
+    private long maxEntries;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private LoadingCache<Long, Long> versions;
+
+    @PostConstruct
+    public void init() {
+        versions = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .refreshAfterWrite(Duration.ofSeconds(refreshSeconds))
+                .expireAfterAccess(Duration.ofSeconds(refreshSeconds * 10))
+                .recordStats()
+                .build(userRepository::findTokenVersionById);
+        CaffeineCacheMetrics.monitor(meterRegistry, versions, "jwt.token.versions");
+    }
+
+    // A deleted user has no version, which rejects every token they still hold
+    public boolean isCurrent(Long userId, Long tokenVersion) {
+        return Objects.equals(versions.get(userId), tokenVersion);
+    }
+
+    public void versionChanged(Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    versions.invalidate(userId);
+                }
+            });
+        } else {
+            versions.invalidate(userId);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.eventmanager.security.services;
+
+import com.eventmanager.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs BCrypt work (sign-in verification and sign-up hashing) on one thread per core with a
+ * bounded queue, so a login storm cannot take the request threads. When the queue is full the
+ * caller gets a 429 straight away instead of waiting behind work it would time out on.
+ */
+@Component
+public class PasswordHashExecutor {
+
+    @Value("${security.password.queue-capacity}")
+    private int queueCapacity;
+
+    @Value("${security.password.retry-after-seconds}")
+    private long retryAfterSeconds;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        int threads = Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        Gauge.builder("auth.password.hash.queue", executor, pool -> pool.getQueue().size())
+                .description("Password hashing tasks waiting for a thread")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param operation tag for the latency timer, e.g. "verify" or "encode"
+     */
+    public <T> CompletableFuture<T> submit(String operation, Supplier<T> task) {
+        Timer timer = Timer.builder("auth.password.hash")
+                .description("Time spent on a password hashing task, including the user lookup for sign-in")
+                .tag("operation", operation)
+                .register(meterRegistry);
+        try {
+            return CompletableFuture.supplyAsync(() -> timer.record(task), executor);
+        } catch (RejectedExecutionException e) {
+            throw new TooManyRequestsException("Too many sign-in attempts in progress, please retry", retryAfterSeconds);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -30,6 +30,13 @@ public class UserDetailsImpl implements UserDetails {
 
     private Collection<? extends GrantedAuthority> authorities;
 
+    @JsonIgnore
+    private Long tokenVersion;
+
+    // Id of the access token this principal was read from; null when built from the database
+    @JsonIgnore
+    private Long tokenId;
+
     public static UserDetailsImpl build(User user) {
         List<GrantedAuthority> authorities = user.getRoles().stream()
                 .map(role -> new SimpleGrantedAuthority(role.getName().name()))
@@ -41,10 +48,24 @@ public class UserDetailsImpl implements UserDetails {
                 user.getLastName(),
                 user.getEmail(),
                 user.getPassword(),
-                authorities
+                authorities,
+                user.getTokenVersion(),
+                null
         );
     }
 
+    /**
+     * Rebuilds the principal from verified token claims. Names and password are not in the
+     * token and stay null.
+     */
+    public static UserDetailsImpl fromClaims(Long id, String email, List<String> roles, Long tokenVersion, Long tokenId) {
+        List<GrantedAuthority> authorities = roles.stream()
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toList());
+
+        return new UserDetailsImpl(id, null, null, email, null, authorities, tokenVersion, tokenId);
+    }
+
     @Override
     public String getUsername() {
         return email;
@@ -4,13 +4,14 @@ import com.eventmanager.model.User;
 import com.eventmanager.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
     @Autowired
     UserRepository userRepository;
 
@@ -22,4 +23,15 @@ public class UserDetailsServiceImpl implements UserDetailsService {
 
         return UserDetailsImpl.build(user);
     }
+
+    // Called by the authentication provider after a successful sign-in whose hash is below the configured cost
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        UserDetailsImpl userDetails = (UserDetailsImpl) user;
+        userRepository.updatePassword(userDetails.getId(), newPassword);
+        return new UserDetailsImpl(userDetails.getId(), userDetails.getFirstName(), userDetails.getLastName(),
+                userDetails.getEmail(), newPassword, userDetails.getAuthorities(), userDetails.getTokenVersion(),
+                userDetails.getTokenId());
+    }
 }
\ No newline at end of file
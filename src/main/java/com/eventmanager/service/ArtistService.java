@@ -1,6 +1,7 @@
 package com.eventmanager.service;
 
 import com.eventmanager.dto.ArtistDTO;
+import com.eventmanager.dto.response.CursorPageResponse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -10,8 +11,12 @@ public interface ArtistService {
     
     Page<ArtistDTO> getAllArtists(Pageable pageable);
     
+    CursorPageResponse<ArtistDTO> getAllArtists(Pageable pageable, String cursor, boolean includeTotal);
+    
     ArtistDTO getArtistById(Long id);
     
+    String getArtistETag(Long id);
+    
     ArtistDTO createArtist(ArtistDTO artistDTO);
     
     ArtistDTO updateArtist(Long id, ArtistDTO artistDTO);
@@ -20,5 +25,7 @@ public interface ArtistService {
     
     Page<ArtistDTO> searchArtistsByName(String name, Pageable pageable);
     
+    CursorPageResponse<ArtistDTO> searchArtistsByName(String name, Pageable pageable, String cursor, boolean includeTotal);
+    
     List<ArtistDTO> getArtistsByGenre(String genre);
 }
\ No newline at end of file
@@ -5,9 +5,13 @@ import com.eventmanager.dto.request.SignupRequest;
 import com.eventmanager.dto.response.JwtResponse;
 import com.eventmanager.dto.response.MessageResponse;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface AuthService {
     
-    JwtResponse authenticateUser(LoginRequest loginRequest);
+    CompletableFuture<JwtResponse> authenticateUser(LoginRequest loginRequest);
+    
+    CompletableFuture<MessageResponse> registerUser(SignupRequest signUpRequest);
     
-    MessageResponse registerUser(SignupRequest signUpRequest);
+    MessageResponse signOutEverywhere();
 }
\ No newline at end of file
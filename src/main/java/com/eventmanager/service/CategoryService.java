@@ -10,6 +10,8 @@ public interface CategoryService {
     
     CategoryDTO getCategoryById(Long id);
     
+    String getCategoryETag(Long id);
+    
     CategoryDTO createCategory(CategoryDTO categoryDTO);
     
     CategoryDTO updateCategory(Long id, CategoryDTO categoryDTO);
@@ -1,6 +1,9 @@
 package com.eventmanager.service;
 
 import com.eventmanager.dto.EventDTO;
+import com.eventmanager.dto.request.DateRangeMatch;
+import com.eventmanager.dto.response.CursorPageResponse;
+import com.eventmanager.model.Event;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -10,8 +13,12 @@ public interface EventService {
     
     Page<EventDTO> getAllEvents(Pageable pageable);
     
+    CursorPageResponse<EventDTO> getAllEvents(Pageable pageable, String cursor, boolean includeTotal);
+    
     EventDTO getEventById(Long id);
     
+    String getEventETag(Long id);
+    
     EventDTO createEvent(EventDTO eventDTO);
     
     EventDTO updateEvent(Long id, EventDTO eventDTO);
@@ -20,12 +27,23 @@ public interface EventService {
     
     Page<EventDTO> searchEventsByName(String name, Pageable pageable);
     
+    CursorPageResponse<EventDTO> searchEventsByName(String name, Pageable pageable, String cursor, boolean includeTotal);
+    
     Page<EventDTO> getEventsByCategory(Long categoryId, Pageable pageable);
     
-    Page<EventDTO> getEventsByDateRange(LocalDateTime startDate, LocalDateTime endDate, Pageable pageable);
+    CursorPageResponse<EventDTO> getEventsByCategory(Long categoryId, Pageable pageable, String cursor, boolean includeTotal);
+    
+    Page<EventDTO> getEventsByDateRange(LocalDateTime startDate, LocalDateTime endDate, DateRangeMatch match,
+                                        Event.EventStatus status, String city, Pageable pageable);
+    
+    CursorPageResponse<EventDTO> getEventsByDateRange(LocalDateTime startDate, LocalDateTime endDate, DateRangeMatch match,
+                                                      Event.EventStatus status, String city,
+                                                      Pageable pageable, String cursor, boolean includeTotal);
     
     Page<EventDTO> getEventsByCity(String city, Pageable pageable);
     
+    CursorPageResponse<EventDTO> getEventsByCity(String city, Pageable pageable, String cursor, boolean includeTotal);
+    
     EventDTO publishEvent(Long id);
     
     EventDTO cancelEvent(Long id);
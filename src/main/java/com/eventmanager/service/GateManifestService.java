@@ -0,0 +1,10 @@
+package com.eventmanager.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+public interface GateManifestService {
+    
+    StreamingResponseBody exportManifest(Long eventId);
+    
+    StreamingResponseBody exportDelta(Long eventId, long sinceVersion);
+}
@@ -0,0 +1,14 @@
+package com.eventmanager.service;
+
+import org.springframework.http.ResponseEntity;
+
+import java.util.function.Supplier;
+
+public interface IdempotencyService {
+    
+    /**
+     * @param request the request payload; a key reused with a different payload is rejected
+     */
+    <T> ResponseEntity<T> execute(String idempotencyKey, String operation, Object request, Class<T> responseType,
+                                  Supplier<ResponseEntity<T>> action);
+}
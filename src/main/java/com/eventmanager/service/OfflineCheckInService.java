@@ -0,0 +1,10 @@
+package com.eventmanager.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
+
+public interface OfflineCheckInService {
+    
+    StreamingResponseBody reconcile(Long eventId, InputStream scanLog);
+}
@@ -0,0 +1,15 @@
+package com.eventmanager.service;
+
+import com.eventmanager.dto.response.JwtResponse;
+import com.eventmanager.security.services.UserDetailsImpl;
+
+public interface RefreshTokenService {
+    
+    JwtResponse issueTokens(UserDetailsImpl userDetails);
+    
+    JwtResponse refresh(String refreshToken);
+    
+    void revoke(String refreshToken);
+    
+    void revokeAllForUser(Long userId);
+}
\ No newline at end of file
@@ -1,23 +1,48 @@
 package com.eventmanager.service;
 
+import com.eventmanager.dto.CheckInResultDTO;
 import com.eventmanager.dto.TicketDTO;
+import com.eventmanager.dto.request.CheckInRequest;
 import com.eventmanager.dto.request.PurchaseTicketRequest;
+import com.eventmanager.dto.response.CursorPageResponse;
+import com.eventmanager.dto.response.KeysetPageResponse;
+import com.eventmanager.model.Ticket;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 public interface TicketService {
     
     Page<TicketDTO> getCurrentUserTickets(Pageable pageable);
     
+    CursorPageResponse<TicketDTO> getCurrentUserTickets(Pageable pageable, String cursor, boolean includeTotal);
+    
     TicketDTO getTicketById(Long id);
     
     TicketDTO purchaseTicket(PurchaseTicketRequest request);
     
+    CompletableFuture<TicketDTO> purchaseTicketSequenced(PurchaseTicketRequest request);
+    
+    TicketDTO holdTickets(PurchaseTicketRequest request);
+    
+    List<TicketDTO> confirmHold(String holdReference);
+    
     TicketDTO cancelTicket(Long id);
     
-    Page<TicketDTO> getTicketsByEvent(Long eventId, Pageable pageable);
+    Page<TicketDTO> getTicketsByEvent(Long eventId, List<Ticket.TicketStatus> statuses, Pageable pageable);
     
-    boolean validateTicket(String ticketNumber);
+    CursorPageResponse<TicketDTO> getTicketsByEvent(Long eventId, List<Ticket.TicketStatus> statuses, Pageable pageable,
+                                                    String cursor, boolean includeTotal);
+    
+    KeysetPageResponse<TicketDTO> getTicketsByEventAfter(Long eventId, List<Ticket.TicketStatus> statuses, Long afterId, int size);
+    
+    boolean validateTicket(String ticketNumber, Long eventId);
     
     TicketDTO markTicketAsUsed(Long id);
+    
+    CheckInResultDTO checkIn(Long eventId, String ticketNumber);
+    
+    List<CheckInResultDTO> checkIn(CheckInRequest request);
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.eventmanager.service;
 
 import com.eventmanager.dto.VenueDTO;
+import com.eventmanager.dto.response.CursorPageResponse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -10,8 +11,12 @@ public interface VenueService {
     
     Page<VenueDTO> getAllVenues(Pageable pageable);
     
+    CursorPageResponse<VenueDTO> getAllVenues(Pageable pageable, String cursor, boolean includeTotal);
+    
     VenueDTO getVenueById(Long id);
     
+    String getVenueETag(Long id);
+    
     VenueDTO createVenue(VenueDTO venueDTO);
     
     VenueDTO updateVenue(Long id, VenueDTO venueDTO);
@@ -20,6 +25,8 @@ public interface VenueService {
     
     Page<VenueDTO> searchVenuesByName(String name, Pageable pageable);
     
+    CursorPageResponse<VenueDTO> searchVenuesByName(String name, Pageable pageable, String cursor, boolean includeTotal);
+    
     List<VenueDTO> getVenuesByCity(String city);
     
     List<VenueDTO> getVenuesByMinimumCapacity(Integer minCapacity);
@@ -0,0 +1,18 @@
+package com.eventmanager.service;
+
+import com.eventmanager.dto.WaitingRoomStatusDTO;
+
+import java.time.LocalDateTime;
+
+public interface WaitingRoomService {
+    
+    void openRoom(Long eventId, LocalDateTime closesAt);
+    
+    void closeRoom(Long eventId);
+    
+    WaitingRoomStatusDTO joinQueue(Long eventId, String queueToken);
+    
+    WaitingRoomStatusDTO getStatus(Long eventId, String queueToken);
+    
+    void verifyAdmission(Long eventId, String admissionToken);
+}
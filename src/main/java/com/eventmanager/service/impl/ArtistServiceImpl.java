@@ -1,10 +1,16 @@
 package com.eventmanager.service.impl;
 
+import com.eventmanager.cache.EventDetailCache;
 import com.eventmanager.dto.ArtistDTO;
+import com.eventmanager.dto.response.CursorPageResponse;
 import com.eventmanager.exception.ResourceNotFoundException;
 import com.eventmanager.model.Artist;
+import com.eventmanager.repository.CommonSpecifications;
 import com.eventmanager.repository.ArtistRepository;
+import com.eventmanager.repository.EventRepository;
 import com.eventmanager.service.ArtistService;
+import com.eventmanager.util.CursorPages;
+import com.eventmanager.util.ETags;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -12,13 +18,23 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 public class ArtistServiceImpl implements ArtistService {
 
+    // Non-null properties a cursor page can seek on
+    private static final Set<String> CURSOR_SORTS = Set.of("id", "name", "createdAt", "updatedAt");
+
     @Autowired
     private ArtistRepository artistRepository;
+    
+    @Autowired
+    private EventRepository eventRepository;
+    
+    @Autowired
+    private EventDetailCache eventDetailCache;
 
     @Override
     public Page<ArtistDTO> getAllArtists(Pageable pageable) {
@@ -26,6 +42,12 @@ public class ArtistServiceImpl implements ArtistService {
                 .map(this::convertToDto);
     }
 
+    @Override
+    public CursorPageResponse<ArtistDTO> getAllArtists(Pageable pageable, String cursor, boolean includeTotal) {
+        return CursorPages.scroll(artistRepository, CommonSpecifications.all(), CURSOR_SORTS, pageable, cursor, includeTotal,
+                this::convertToDto);
+    }
+
     @Override
     public ArtistDTO getArtistById(Long id) {
         Artist artist = artistRepository.findById(id)
@@ -33,6 +55,14 @@ public class ArtistServiceImpl implements ArtistService {
         return convertToDto(artist);
     }
 
+    @Override
+    public String getArtistETag(Long id) {
+        // Served from the second-level cache, without building the response body
+        Artist artist = artistRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Artist", "id", id));
+        return ETags.strong(ETags.revision(artist.getVersion()));
+    }
+
     @Override
     @Transactional
     public ArtistDTO createArtist(ArtistDTO artistDTO) {
@@ -55,6 +85,8 @@ public class ArtistServiceImpl implements ArtistService {
         artist.setImageUrl(artistDTO.getImageUrl());
         
         Artist updatedArtist = artistRepository.save(artist);
+        eventRepository.incrementVersionByArtist(id);
+        eventDetailCache.referenceDataChanged();
         return convertToDto(updatedArtist);
     }
 
@@ -63,7 +95,9 @@ public class ArtistServiceImpl implements ArtistService {
     public void deleteArtist(Long id) {
         Artist artist = artistRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Artist", "id", id));
+        eventRepository.incrementVersionByArtist(id);
         artistRepository.delete(artist);
+        eventDetailCache.referenceDataChanged();
     }
 
     @Override
@@ -72,6 +106,12 @@ public class ArtistServiceImpl implements ArtistService {
                 .map(this::convertToDto);
     }
 
+    @Override
+    public CursorPageResponse<ArtistDTO> searchArtistsByName(String name, Pageable pageable, String cursor, boolean includeTotal) {
+        return CursorPages.scroll(artistRepository, CommonSpecifications.nameContainsIgnoreCase(name), CURSOR_SORTS,
+                pageable, cursor, includeTotal, this::convertToDto);
+    }
+
     @Override
     public List<ArtistDTO> getArtistsByGenre(String genre) {
         return artistRepository.findByGenre(genre)
@@ -89,6 +129,7 @@ public class ArtistServiceImpl implements ArtistService {
         artistDTO.setContactEmail(artist.getContactEmail());
         artistDTO.setContactPhone(artist.getContactPhone());
         artistDTO.setImageUrl(artist.getImageUrl());
+        artistDTO.setVersion(artist.getVersion());
         artistDTO.setCreatedAt(artist.getCreatedAt());
         artistDTO.setUpdatedAt(artist.getUpdatedAt());
         return artistDTO;
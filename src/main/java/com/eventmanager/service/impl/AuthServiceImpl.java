@@ -9,22 +9,24 @@ import com.eventmanager.model.Role;
 import com.eventmanager.model.User;
 import com.eventmanager.repository.RoleRepository;
 import com.eventmanager.repository.UserRepository;
-import com.eventmanager.security.jwt.JwtUtils;
+import com.eventmanager.security.jwt.TokenVersions;
+import com.eventmanager.security.services.PasswordHashExecutor;
 import com.eventmanager.security.services.UserDetailsImpl;
 import com.eventmanager.service.AuthService;
+import com.eventmanager.service.RefreshTokenService;
+import com.eventmanager.util.SecurityUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.HashSet;
-import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 @Service
 public class AuthServiceImpl implements AuthService {
@@ -42,43 +44,48 @@ public class AuthServiceImpl implements AuthService {
     private PasswordEncoder encoder;
     
     @Autowired
-    private JwtUtils jwtUtils;
+    private RefreshTokenService refreshTokenService;
+    
+    @Autowired
+    private TokenVersions tokenVersions;
+    
+    @Autowired
+    private SecurityUtils securityUtils;
+    
+    @Autowired
+    private PasswordHashExecutor passwordHashExecutor;
+    
+    // Token and account writes continue here, so hashing threads never wait on a database connection
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private Executor applicationTaskExecutor;
     
     @Override
-    public JwtResponse authenticateUser(LoginRequest loginRequest) {
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword()));
-        
-        SecurityContextHolder.getContext().setAuthentication(authentication);
-        String jwt = jwtUtils.generateJwtToken(authentication);
-        
-        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
-        List<String> roles = userDetails.getAuthorities().stream()
-                .map(item -> item.getAuthority())
-                .collect(Collectors.toList());
-        
-        return new JwtResponse(
-                jwt,
-                userDetails.getId(),
-                userDetails.getFirstName(),
-                userDetails.getLastName(),
-                userDetails.getEmail(),
-                roles);
+    public CompletableFuture<JwtResponse> authenticateUser(LoginRequest loginRequest) {
+        // BCrypt runs on the hashing pool; a stale hash is re-encoded there too, on success
+        return passwordHashExecutor.submit("verify", () -> authenticationManager.authenticate(
+                        new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword())))
+                .thenApplyAsync(authentication -> refreshTokenService.issueTokens((UserDetailsImpl) authentication.getPrincipal()),
+                        applicationTaskExecutor);
     }
     
     @Override
-    @Transactional
-    public MessageResponse registerUser(SignupRequest signUpRequest) {
+    public CompletableFuture<MessageResponse> registerUser(SignupRequest signUpRequest) {
         if (userRepository.existsByEmail(signUpRequest.getEmail())) {
             throw new ResourceAlreadyExistsException("Error: Email is already in use!");
         }
         
+        return passwordHashExecutor.submit("encode", () -> encoder.encode(signUpRequest.getPassword()))
+                .thenApplyAsync(encodedPassword -> createUser(signUpRequest, encodedPassword), applicationTaskExecutor);
+    }
+    
+    private MessageResponse createUser(SignupRequest signUpRequest, String encodedPassword) {
         // Create new user account
         User user = new User();
         user.setFirstName(signUpRequest.getFirstName());
         user.setLastName(signUpRequest.getLastName());
         user.setEmail(signUpRequest.getEmail());
-        user.setPassword(encoder.encode(signUpRequest.getPassword()));
+        user.setPassword(encodedPassword);
         user.setPhoneNumber(signUpRequest.getPhoneNumber());
         
         Set<String> strRoles = signUpRequest.getRoles();
@@ -114,4 +121,15 @@ public class AuthServiceImpl implements AuthService {
         
         return new MessageResponse("User registered successfully!");
     }
+    
+    @Override
+    @Transactional
+    public MessageResponse signOutEverywhere() {
+        Long userId = securityUtils.getCurrentUserId();
+        userRepository.incrementTokenVersion(userId);
+        refreshTokenService.revokeAllForUser(userId);
+        tokenVersions.versionChanged(userId);
+        
+        return new MessageResponse("Signed out of all sessions");
+    }
 }
\ No newline at end of file
@@ -1,11 +1,14 @@
 package com.eventmanager.service.impl;
 
+import com.eventmanager.cache.EventDetailCache;
 import com.eventmanager.dto.CategoryDTO;
 import com.eventmanager.exception.ResourceAlreadyExistsException;
 import com.eventmanager.exception.ResourceNotFoundException;
 import com.eventmanager.model.Category;
 import com.eventmanager.repository.CategoryRepository;
+import com.eventmanager.repository.EventRepository;
 import com.eventmanager.service.CategoryService;
+import com.eventmanager.util.ETags;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -18,6 +21,12 @@ public class CategoryServiceImpl implements CategoryService {
 
     @Autowired
     private CategoryRepository categoryRepository;
+    
+    @Autowired
+    private EventRepository eventRepository;
+    
+    @Autowired
+    private EventDetailCache eventDetailCache;
 
     @Override
     public List<CategoryDTO> getAllCategories() {
@@ -34,6 +43,14 @@ public class CategoryServiceImpl implements CategoryService {
         return convertToDto(category);
     }
 
+    @Override
+    public String getCategoryETag(Long id) {
+        // Served from the second-level cache, without building the response body
+        Category category = categoryRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Category", "id", id));
+        return ETags.strong(ETags.revision(category.getVersion()));
+    }
+
     @Override
     @Transactional
     public CategoryDTO createCategory(CategoryDTO categoryDTO) {
@@ -62,6 +79,8 @@ public class CategoryServiceImpl implements CategoryService {
         category.setDescription(categoryDTO.getDescription());
         
         Category updatedCategory = categoryRepository.save(category);
+        eventRepository.incrementVersionByCategory(id);
+        eventDetailCache.referenceDataChanged();
         return convertToDto(updatedCategory);
     }
 
@@ -70,7 +89,9 @@ public class CategoryServiceImpl implements CategoryService {
     public void deleteCategory(Long id) {
         Category category = categoryRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Category", "id", id));
+        eventRepository.incrementVersionByCategory(id);
         categoryRepository.delete(category);
+        eventDetailCache.referenceDataChanged();
     }
     
     private CategoryDTO convertToDto(Category category) {
@@ -78,6 +99,7 @@ public class CategoryServiceImpl implements CategoryService {
         categoryDTO.setId(category.getId());
         categoryDTO.setName(category.getName());
         categoryDTO.setDescription(category.getDescription());
+        categoryDTO.setVersion(category.getVersion());
         categoryDTO.setCreatedAt(category.getCreatedAt());
         categoryDTO.setUpdatedAt(category.getUpdatedAt());
         return categoryDTO;
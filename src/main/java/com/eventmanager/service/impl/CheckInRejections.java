@@ -0,0 +1,67 @@
+package com.eventmanager.service.impl;
+
+import com.eventmanager.dto.CheckInResultDTO;
+import com.eventmanager.repository.TicketRepository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects the scans whose check-in update matched no row and explains them with one
+ * projection query per kind of ticket number once the batch has been applied.
+ */
+class CheckInRejections {
+    
+    private final Long eventId;
+    
+    private final Map<Long, List<CheckInResultDTO>> byTicketKey = new HashMap<>();
+    
+    private final Map<String, List<CheckInResultDTO>> byTicketNumber = new HashMap<>();
+    
+    CheckInRejections(Long eventId) {
+        this.eventId = eventId;
+    }
+    
+    void add(Long ticketKey, String ticketNumber, CheckInResultDTO result) {
+        result.setOutcome(CheckInResultDTO.Outcome.UNKNOWN);
+        if (ticketKey != null) {
+            byTicketKey.computeIfAbsent(ticketKey, key -> new ArrayList<>()).add(result);
+        } else {
+            byTicketNumber.computeIfAbsent(ticketNumber, number -> new ArrayList<>()).add(result);
+        }
+    }
+    
+    void classify(TicketRepository ticketRepository) {
+        if (!byTicketKey.isEmpty()) {
+            for (TicketRepository.ScanStatus status : ticketRepository.findScanStatusByTicketKeys(byTicketKey.keySet())) {
+                CheckInResultDTO.Outcome outcome = outcome(status);
+                byTicketKey.get(status.getTicketKey()).forEach(result -> result.setOutcome(outcome));
+            }
+        }
+        if (!byTicketNumber.isEmpty()) {
+            for (TicketRepository.ScanStatus status : ticketRepository.findScanStatusByTicketNumbers(byTicketNumber.keySet())) {
+                CheckInResultDTO.Outcome outcome = outcome(status);
+                byTicketNumber.get(status.getTicketNumber()).forEach(result -> result.setOutcome(outcome));
+            }
+        }
+    }
+    
+    private CheckInResultDTO.Outcome outcome(TicketRepository.ScanStatus status) {
+        if (!status.getEventId().equals(eventId)) {
+            return CheckInResultDTO.Outcome.WRONG_EVENT;
+        }
+        switch (status.getStatus()) {
+            case USED:
+                return CheckInResultDTO.Outcome.ALREADY_USED;
+            case CANCELLED:
+                return CheckInResultDTO.Outcome.CANCELLED;
+            case RESERVED:
+                return CheckInResultDTO.Outcome.NOT_PAID;
+            default:
+                // Still PAID after its update, so the event was not published or already over
+                return CheckInResultDTO.Outcome.EVENT_CLOSED;
+        }
+    }
+}
@@ -1,8 +1,12 @@
 package com.eventmanager.service.impl;
 
+import com.eventmanager.cache.EventDetailCache;
 import com.eventmanager.dto.EventDTO;
+import com.eventmanager.dto.request.DateRangeMatch;
+import com.eventmanager.dto.response.CursorPageResponse;
 import com.eventmanager.exception.BadRequestException;
 import com.eventmanager.exception.ResourceNotFoundException;
+import com.eventmanager.gate.GateValidationIndex;
 import com.eventmanager.model.Artist;
 import com.eventmanager.model.Category;
 import com.eventmanager.dto.CategoryDTO;
@@ -11,24 +15,42 @@ import com.eventmanager.model.Event;
 import com.eventmanager.model.Venue;
 import com.eventmanager.repository.ArtistRepository;
 import com.eventmanager.repository.CategoryRepository;
+import com.eventmanager.repository.CommonSpecifications;
 import com.eventmanager.repository.EventRepository;
+import com.eventmanager.repository.EventSpecifications;
 import com.eventmanager.repository.VenueRepository;
 import com.eventmanager.service.EventService;
+import com.eventmanager.service.WaitingRoomService;
+import com.eventmanager.util.CursorPages;
+import com.eventmanager.util.ETags;
 import com.eventmanager.util.SecurityUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class EventServiceImpl implements EventService {
 
+    // Non-null properties a cursor page can seek on; nullable columns such as ticketPrice would drop rows
+    private static final Set<String> CURSOR_SORTS = Set.of("id", "name", "startDateTime", "endDateTime", "status",
+            "createdAt", "updatedAt");
+
     @Autowired
     private EventRepository eventRepository;
     
@@ -43,18 +65,52 @@ public class EventServiceImpl implements EventService {
     
     @Autowired
     private SecurityUtils securityUtils;
+    
+    @Autowired
+    private WaitingRoomService waitingRoomService;
+    
+    @Autowired
+    private GateValidationIndex gateValidationIndex;
+    
+    @Autowired
+    private EventDetailCache eventDetailCache;
 
     @Override
     public Page<EventDTO> getAllEvents(Pageable pageable) {
-        return eventRepository.findAll(pageable)
-                .map(this::convertToDto);
+        return convertToDtos(eventRepository.findIdPage(pageable));
+    }
+
+    @Override
+    public CursorPageResponse<EventDTO> getAllEvents(Pageable pageable, String cursor, boolean includeTotal) {
+        return CursorPages.scrollAll(eventRepository, CommonSpecifications.all(), CURSOR_SORTS, pageable, cursor,
+                includeTotal, this::convertEventsToDtos);
     }
 
     @Override
     public EventDTO getEventById(Long id) {
-        Event event = eventRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Event", "id", id));
-        return convertToDto(event);
+        EventDTO eventDTO = eventDetailCache.getEvent(id, eventId -> eventRepository.findById(eventId)
+                .map(this::convertToDto)
+                .orElseThrow(() -> new ResourceNotFoundException("Event", "id", eventId)));
+        
+        // The cached body may be minutes old; ticket counts are at most a second old
+        EventRepository.TicketCounts counts = eventDetailCache.getTicketCounts(id, eventRepository::findTicketCountsById);
+        if (counts != null) {
+            eventDTO.setVersion(counts.getVersion());
+            setTicketCounts(eventDTO, counts.getMaxAttendees(), counts.getReservedTickets(), counts.getPaidTickets(),
+                    counts.getUsedTickets(), counts.getCancelledTickets());
+        }
+        return eventDTO;
+    }
+
+    @Override
+    public String getEventETag(Long id) {
+        // Same revision as EventDTO.revision(), read from the counters row without building the body
+        EventRepository.TicketCounts counts = eventDetailCache.getTicketCounts(id, eventRepository::findTicketCountsById);
+        if (counts == null) {
+            throw new ResourceNotFoundException("Event", "id", id);
+        }
+        return ETags.strong(ETags.revision(counts.getVersion(), counts.getReservedTickets(),
+                counts.getPaidTickets() + counts.getUsedTickets(), counts.getUsedTickets(), counts.getCancelledTickets()));
     }
 
     @Override
@@ -102,6 +158,7 @@ public class EventServiceImpl implements EventService {
         }
         
         Event savedEvent = eventRepository.save(event);
+        venueRepository.adjustEventCount(venue.getId(), 1);
         return convertToDto(savedEvent);
     }
 
@@ -125,6 +182,8 @@ public class EventServiceImpl implements EventService {
         if (!event.getVenue().getId().equals(eventDTO.getVenueId())) {
             Venue venue = venueRepository.findById(eventDTO.getVenueId())
                     .orElseThrow(() -> new ResourceNotFoundException("Venue", "id", eventDTO.getVenueId()));
+            venueRepository.adjustEventCount(event.getVenue().getId(), -1);
+            venueRepository.adjustEventCount(venue.getId(), 1);
             event.setVenue(venue);
         }
         
@@ -158,6 +217,7 @@ public class EventServiceImpl implements EventService {
         }
         
         Event updatedEvent = eventRepository.save(event);
+        eventDetailCache.eventChanged(id);
         return convertToDto(updatedEvent);
     }
 
@@ -168,11 +228,16 @@ public class EventServiceImpl implements EventService {
                 .orElseThrow(() -> new ResourceNotFoundException("Event", "id", id));
                 
         // Only allow deletion if no tickets have been sold or it's a draft
-        if (event.getStatus() != Event.EventStatus.DRAFT && !event.getTickets().isEmpty()) {
+        int ticketCount = event.getReservedTickets() + event.getPaidTickets() + event.getUsedTickets() + event.getCancelledTickets();
+        if (event.getStatus() != Event.EventStatus.DRAFT && ticketCount > 0) {
             throw new BadRequestException("Cannot delete an event with sold tickets");
         }
         
         eventRepository.delete(event);
+        eventDetailCache.eventChanged(id);
+        venueRepository.adjustEventCount(event.getVenue().getId(), -1);
+        waitingRoomService.closeRoom(id);
+        gateValidationIndex.evict(id);
     }
 
     @Override
@@ -180,35 +245,68 @@ public class EventServiceImpl implements EventService {
         if (name == null || name.isEmpty()) {
             return getAllEvents(pageable);
         }
-        return eventRepository.findByNameContainingIgnoreCase(name, pageable)
-                .map(this::convertToDto);
+        return convertToDtos(eventRepository.findIdPageByNameContainingIgnoreCase(CommonSpecifications.escapeLike(name), pageable));
+    }
+
+    @Override
+    public CursorPageResponse<EventDTO> searchEventsByName(String name, Pageable pageable, String cursor, boolean includeTotal) {
+        Specification<Event> specification = name == null || name.isEmpty()
+                ? CommonSpecifications.all()
+                : CommonSpecifications.nameContainsIgnoreCase(name);
+        return CursorPages.scrollAll(eventRepository, specification, CURSOR_SORTS, pageable, cursor, includeTotal,
+                this::convertEventsToDtos);
     }
 
     @Override
     public Page<EventDTO> getEventsByCategory(Long categoryId, Pageable pageable) {
-        return eventRepository.findByCategory(categoryId, pageable)
-                .map(this::convertToDto);
+        return convertToDtos(eventRepository.findIdPageByCategory(categoryId, pageable));
+    }
+
+    @Override
+    public CursorPageResponse<EventDTO> getEventsByCategory(Long categoryId, Pageable pageable, String cursor, boolean includeTotal) {
+        return CursorPages.scrollAll(eventRepository, EventSpecifications.inCategory(categoryId), CURSOR_SORTS, pageable,
+                cursor, includeTotal, this::convertEventsToDtos);
+    }
+
+    @Override
+    public Page<EventDTO> getEventsByDateRange(LocalDateTime startDate, LocalDateTime endDate, DateRangeMatch match,
+                                               Event.EventStatus status, String city, Pageable pageable) {
+        Page<Event> events = eventRepository.findAll(dateRangeSearch(startDate, endDate, match, status, city), pageable);
+        return new PageImpl<>(convertEventsToDtos(events.getContent()), events.getPageable(), events.getTotalElements());
     }
 
     @Override
-    public Page<EventDTO> getEventsByDateRange(LocalDateTime startDate, LocalDateTime endDate, Pageable pageable) {
+    public CursorPageResponse<EventDTO> getEventsByDateRange(LocalDateTime startDate, LocalDateTime endDate, DateRangeMatch match,
+                                                             Event.EventStatus status, String city,
+                                                             Pageable pageable, String cursor, boolean includeTotal) {
+        // Seek on (startDateTime, id) unless another order was requested
+        if (pageable.getSort().isUnsorted()) {
+            pageable = PageRequest.of(0, pageable.getPageSize(), Sort.by("startDateTime"));
+        }
+        return CursorPages.scrollAll(eventRepository, dateRangeSearch(startDate, endDate, match, status, city),
+                CURSOR_SORTS, pageable, cursor, includeTotal, this::convertEventsToDtos);
+    }
+    
+    private Specification<Event> dateRangeSearch(LocalDateTime startDate, LocalDateTime endDate, DateRangeMatch match,
+                                                 Event.EventStatus status, String city) {
         if (endDate.isBefore(startDate)) {
             throw new BadRequestException("End date cannot be before start date");
         }
         
-        // Convert the date range query to a paged result
-        return (Page<EventDTO>) eventRepository.findAll(pageable)
-                .map(this::convertToDto)
-                .filter(eventDTO ->
-                        !eventDTO.getStartDateTime().isBefore(startDate) &&
-                                !eventDTO.getEndDateTime().isAfter(endDate));
-
+        return EventSpecifications.inDateRange(startDate, endDate, match)
+                .and(EventSpecifications.hasStatus(status))
+                .and(EventSpecifications.inCity(city));
     }
 
     @Override
     public Page<EventDTO> getEventsByCity(String city, Pageable pageable) {
-        return eventRepository.findByCity(city, pageable)
-                .map(this::convertToDto);
+        return convertToDtos(eventRepository.findIdPageByCity(city, pageable));
+    }
+
+    @Override
+    public CursorPageResponse<EventDTO> getEventsByCity(String city, Pageable pageable, String cursor, boolean includeTotal) {
+        return CursorPages.scrollAll(eventRepository, EventSpecifications.inCity(city), CURSOR_SORTS, pageable, cursor,
+                includeTotal, this::convertEventsToDtos);
     }
 
     @Override
@@ -223,6 +321,8 @@ public class EventServiceImpl implements EventService {
         
         event.setStatus(Event.EventStatus.PUBLISHED);
         Event publishedEvent = eventRepository.save(event);
+        eventDetailCache.eventChanged(id);
+        waitingRoomService.openRoom(id, publishedEvent.getStartDateTime());
         return convertToDto(publishedEvent);
     }
 
@@ -242,9 +342,47 @@ public class EventServiceImpl implements EventService {
         
         event.setStatus(Event.EventStatus.CANCELLED);
         Event cancelledEvent = eventRepository.save(event);
+        eventDetailCache.eventChanged(id);
+        waitingRoomService.closeRoom(id);
+        gateValidationIndex.evict(id);
         return convertToDto(cancelledEvent);
     }
     
+    private Page<EventDTO> convertToDtos(Page<Long> ids) {
+        return new PageImpl<>(convertToDtos(ids.getContent()), ids.getPageable(), ids.getTotalElements());
+    }
+    
+    private List<EventDTO> convertEventsToDtos(List<Event> events) {
+        return convertToDtos(events.stream()
+                .map(Event::getId)
+                .collect(Collectors.toList()));
+    }
+    
+    // A page costs one query whatever its size: the events with venue, categories and artists
+    private List<EventDTO> convertToDtos(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        Map<Long, Event> events = eventRepository.findWithDetailsByIdIn(ids).stream()
+                .collect(Collectors.toMap(Event::getId, Function.identity()));
+        
+        // Keep the page order; an event deleted between the two queries is left out
+        return ids.stream()
+                .map(events::get)
+                .filter(Objects::nonNull)
+                .map(this::convertToDto)
+                .collect(Collectors.toList());
+    }
+    
+    private void setTicketCounts(EventDTO eventDTO, Integer maxAttendees, int reserved, int paid, int used, int cancelled) {
+        eventDTO.setSoldTickets(paid + used);
+        eventDTO.setReservedTickets(reserved);
+        eventDTO.setUsedTickets(used);
+        eventDTO.setCancelledTickets(cancelled);
+        eventDTO.setAvailableTickets(maxAttendees != null ? maxAttendees - reserved - paid - used : null);
+    }
+    
     private EventDTO convertToDto(Event event) {
         EventDTO eventDTO = new EventDTO();
         eventDTO.setId(event.getId());
@@ -260,11 +398,9 @@ public class EventServiceImpl implements EventService {
         eventDTO.setMaxAttendees(event.getMaxAttendees());
         eventDTO.setTicketPrice(event.getTicketPrice());
         
-        // Add available and sold tickets counts
-        eventDTO.setSoldTickets(event.getTickets().size());
-        if (event.getMaxAttendees() != null) {
-            eventDTO.setAvailableTickets(event.getMaxAttendees() - event.getTickets().size());
-        }
+        // Ticket counts are maintained on the event row, so no ticket is loaded here
+        setTicketCounts(eventDTO, event.getMaxAttendees(), event.getReservedTickets(), event.getPaidTickets(),
+                event.getUsedTickets(), event.getCancelledTickets());
         
         // Add categories
         eventDTO.setCategories(
@@ -305,6 +441,7 @@ public class EventServiceImpl implements EventService {
                 .collect(Collectors.toSet())
         );
         
+        eventDTO.setVersion(event.getVersion());
         eventDTO.setCreatedAt(event.getCreatedAt());
         eventDTO.setUpdatedAt(event.getUpdatedAt());
         
@@ -0,0 +1,192 @@
+package com.eventmanager.service.impl;
+
+import com.eventmanager.exception.BadRequestException;
+import com.eventmanager.exception.ResourceNotFoundException;
+import com.eventmanager.model.Ticket;
+import com.eventmanager.repository.EventRepository;
+import com.eventmanager.repository.TicketRepository;
+import com.eventmanager.service.GateManifestService;
+import com.eventmanager.util.TicketCodes;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams gzip-compressed ticket manifests for offline gate scanners straight from
+ * database cursors, so no ticket entity is loaded and heap use does not grow with the
+ * event size.
+ * <p>
+ * Manifest: magic "TKM2", event id, version (epoch millis), the PAID ticket keys in
+ * ascending order as unsigned varint gaps, each followed by the key's 5-byte check
+ * segment and ended by a zero gap, then legacy UUID ticket numbers as UTF strings ended
+ * by an empty string. Scanners compare the check segment of a scanned code with the
+ * manifest, so a code with a valid key but a forged check is refused offline too.
+ * <p>
+ * Delta: magic "TKD2", event id, the requested version, the new version, then records
+ * of (kind, state, key and check segment or ticket number) ended by a zero kind. Kind 1
+ * carries a ticket key and kind 2 a legacy ticket number; state 0 is valid, 1 checked in
+ * and 2 void. Records are full ticket states, so applying one twice is harmless.
+ */
+@Service
+public class GateManifestServiceImpl implements GateManifestService {
+    
+    private static final int MANIFEST_MAGIC = 0x544B4D32;
+    
+    private static final int DELTA_MAGIC = 0x544B4432;
+    
+    private static final int BUFFER_SIZE = 64 * 1024;
+    
+    @Value("${tickets.manifest.delta-overlap-seconds}")
+    private long deltaOverlapSeconds;
+    
+    @Autowired
+    private EventRepository eventRepository;
+    
+    @Autowired
+    private TicketRepository ticketRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private TicketCodes ticketCodes;
+    
+    @Override
+    public StreamingResponseBody exportManifest(Long eventId) {
+        requireEvent(eventId);
+        long version = System.currentTimeMillis();
+        
+        return output -> inReadOnlyTransaction(() -> {
+            GZIPOutputStream gzip = new GZIPOutputStream(output, BUFFER_SIZE);
+            DataOutputStream data = new DataOutputStream(new BufferedOutputStream(gzip, BUFFER_SIZE));
+            data.writeInt(MANIFEST_MAGIC);
+            data.writeLong(eventId);
+            data.writeLong(version);
+            
+            try (Stream<Long> keys = ticketRepository.streamTicketKeysByEventAndStatus(eventId, Ticket.TicketStatus.PAID)) {
+                long previous = 0;
+                for (Iterator<Long> it = keys.iterator(); it.hasNext(); ) {
+                    long key = it.next();
+                    writeVarLong(data, key - previous);
+                    writeCheck(data, ticketCodes.check(key));
+                    previous = key;
+                }
+            }
+            writeVarLong(data, 0);
+            
+            try (Stream<String> numbers = ticketRepository.streamLegacyTicketNumbersByEventAndStatus(eventId, Ticket.TicketStatus.PAID)) {
+                for (Iterator<String> it = numbers.iterator(); it.hasNext(); ) {
+                    data.writeUTF(it.next());
+                }
+            }
+            data.writeUTF("");
+            // Write the gzip trailer without closing the response stream
+            data.flush();
+            gzip.finish();
+        });
+    }
+    
+    @Override
+    public StreamingResponseBody exportDelta(Long eventId, long sinceVersion) {
+        if (sinceVersion <= 0) {
+            throw new BadRequestException("A manifest version is required");
+        }
+        requireEvent(eventId);
+        long version = System.currentTimeMillis();
+        
+        // Rows flushed before a slow transaction committed can carry an older timestamp, so re-send a margin
+        LocalDateTime since = LocalDateTime.ofInstant(Instant.ofEpochMilli(sinceVersion), ZoneId.systemDefault())
+                .minusSeconds(deltaOverlapSeconds);
+        
+        return output -> inReadOnlyTransaction(() -> {
+            GZIPOutputStream gzip = new GZIPOutputStream(output, BUFFER_SIZE);
+            DataOutputStream data = new DataOutputStream(new BufferedOutputStream(gzip, BUFFER_SIZE));
+            data.writeInt(DELTA_MAGIC);
+            data.writeLong(eventId);
+            data.writeLong(sinceVersion);
+            data.writeLong(version);
+            
+            try (Stream<TicketRepository.ScanStatus> changes = ticketRepository.streamScanStatusChangedSince(eventId, since)) {
+                for (Iterator<TicketRepository.ScanStatus> it = changes.iterator(); it.hasNext(); ) {
+                    TicketRepository.ScanStatus change = it.next();
+                    if (change.getTicketKey() != null) {
+                        data.writeByte(1);
+                        data.writeByte(state(change.getStatus()));
+                        data.writeLong(change.getTicketKey());
+                        writeCheck(data, ticketCodes.check(change.getTicketKey()));
+                    } else {
+                        data.writeByte(2);
+                        data.writeByte(state(change.getStatus()));
+                        data.writeUTF(change.getTicketNumber());
+                    }
+                }
+            }
+            data.writeByte(0);
+            // Write the gzip trailer without closing the response stream
+            data.flush();
+            gzip.finish();
+        });
+    }
+    
+    private void requireEvent(Long eventId) {
+        if (!eventRepository.existsById(eventId)) {
+            throw new ResourceNotFoundException("Event", "id", eventId);
+        }
+    }
+    
+    private void inReadOnlyTransaction(ManifestWriter writer) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        transactionTemplate.executeWithoutResult(status -> {
+            try {
+                writer.write();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+    
+    private static int state(Ticket.TicketStatus status) {
+        switch (status) {
+            case PAID:
+                return 0;
+            case USED:
+                return 1;
+            default:
+                return 2;
+        }
+    }
+    
+    private static void writeVarLong(DataOutputStream data, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            data.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        data.writeByte((int) value);
+    }
+    
+    private static void writeCheck(DataOutputStream data, long check) throws IOException {
+        data.writeByte((int) (check >>> 32));
+        data.writeInt((int) check);
+    }
+    
+    @FunctionalInterface
+    private interface ManifestWriter {
+        
+        void write() throws IOException;
+    }
+}
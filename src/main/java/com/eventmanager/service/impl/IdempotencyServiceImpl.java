@@ -0,0 +1,245 @@
+package com.eventmanager.service.impl;
+
+import com.eventmanager.exception.TooManyRequestsException;
+import com.eventmanager.exception.UnprocessableEntityException;
+import com.eventmanager.model.IdempotencyRecord;
+import com.eventmanager.repository.IdempotencyRecordRepository;
+import com.eventmanager.service.IdempotencyService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Replays the stored response of a request whose Idempotency-Key was already seen. The
+ * first request for a key runs the action; concurrent duplicates wait on its result.
+ * Each key remembers a hash of its request payload, and a key reused with a different
+ * payload is rejected instead of replayed. Responses live in a bounded in-memory cache
+ * that evicts completed entries when full, so a new key is never turned away, and, when
+ * durable mode is on, in the idempotency_records table so retries survive a restart or
+ * land on another node.
+ */
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyServiceImpl.class);
+
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    @Value("${idempotency.ttl-seconds}")
+    private long ttlSeconds;
+
+    @Value("${idempotency.max-entries}")
+    private int maxEntries;
+
+    @Value("${idempotency.wait-timeout-ms}")
+    private long waitTimeoutMs;
+
+    @Value("${idempotency.durable}")
+    private boolean durable;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private ConcurrentMap<String, Entry> entries;
+
+    @PostConstruct
+    public void init() {
+        // In-flight entries weigh nothing, so only completed responses are ever evicted
+        entries = Caffeine.newBuilder()
+                .maximumWeight(maxEntries)
+                .<String, Entry>weigher((key, entry) -> entry.result.isDone() ? 1 : 0)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build()
+                .asMap();
+    }
+
+    @Override
+    public <T> ResponseEntity<T> execute(String idempotencyKey, String operation, Object request, Class<T> responseType,
+                                         Supplier<ResponseEntity<T>> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.get();
+        }
+
+        String key = currentPrincipal() + ":" + operation + ":" + idempotencyKey;
+        String requestHash = hash(request);
+        while (true) {
+            Entry existing = entries.get(key);
+            if (existing != null) {
+                checkSameRequest(existing.requestHash, requestHash);
+                StoredResponse stored = await(existing);
+                if (stored != null) {
+                    return replay(stored, responseType);
+                }
+                // The first attempt failed and was not recorded, so this request takes over
+            }
+
+            Entry mine = new Entry(requestHash);
+            boolean claimed = existing == null
+                    ? entries.putIfAbsent(key, mine) == null
+                    : entries.replace(key, existing, mine);
+            if (claimed) {
+                return run(key, mine, responseType, action);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void purgeExpired() {
+        if (durable) {
+            idempotencyRecordRepository.deleteExpired(LocalDateTime.now());
+        }
+    }
+
+    private <T> ResponseEntity<T> run(String key, Entry entry, Class<T> responseType,
+                                      Supplier<ResponseEntity<T>> action) {
+        if (durable) {
+            IdempotencyRecord record = idempotencyRecordRepository.findById(key)
+                    .filter(r -> r.getExpiresAt().isAfter(LocalDateTime.now()))
+                    .orElse(null);
+            if (record != null) {
+                if (!record.getRequestHash().equals(entry.requestHash)) {
+                    entries.remove(key, entry);
+                    entry.result.complete(null);
+                    checkSameRequest(record.getRequestHash(), entry.requestHash);
+                }
+                StoredResponse stored = new StoredResponse(record.getResponseStatus(), record.getResponseBody());
+                complete(key, entry, stored);
+                return replay(stored, responseType);
+            }
+        }
+
+        ResponseEntity<T> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            entries.remove(key, entry);
+            entry.result.complete(null);
+            throw e;
+        }
+
+        StoredResponse stored = new StoredResponse(response.getStatusCode().value(), toJson(response.getBody()));
+        complete(key, entry, stored);
+        if (durable) {
+            persist(key, entry.requestHash, stored);
+        }
+        return response;
+    }
+
+    private void complete(String key, Entry entry, StoredResponse stored) {
+        entry.result.complete(stored);
+        // Replacing the entry with itself makes the cache weigh it again, now that it may be evicted
+        entries.replace(key, entry, entry);
+    }
+
+    private void checkSameRequest(String storedHash, String requestHash) {
+        if (!storedHash.equals(requestHash)) {
+            throw new UnprocessableEntityException("This Idempotency-Key was already used with a different request");
+        }
+    }
+
+    private StoredResponse await(Entry entry) {
+        try {
+            return entry.result.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new TooManyRequestsException("A request with this Idempotency-Key is still being processed", 1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TooManyRequestsException("A request with this Idempotency-Key is still being processed", 1);
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    private <T> ResponseEntity<T> replay(StoredResponse stored, Class<T> responseType) {
+        try {
+            T body = stored.body == null ? null : objectMapper.readValue(stored.body, responseType);
+            return ResponseEntity.status(stored.status).header(REPLAYED_HEADER, "true").body(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot read stored idempotent response", e);
+        }
+    }
+
+    private void persist(String key, String requestHash, StoredResponse stored) {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            idempotencyRecordRepository.save(new IdempotencyRecord(key, requestHash, stored.status, stored.body,
+                    now, now.plusSeconds(ttlSeconds)));
+        } catch (DataIntegrityViolationException e) {
+            // Another node recorded the same key first; its response is equivalent
+            logger.debug("Idempotency record {} already stored", key);
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(objectMapper.writeValueAsBytes(request)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot hash idempotent request", e);
+        }
+    }
+
+    private String toJson(Object body) {
+        try {
+            return body == null ? null : objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot store idempotent response", e);
+        }
+    }
+
+    private String currentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null ? "anonymous" : authentication.getName();
+    }
+
+    private static class Entry {
+
+        private final CompletableFuture<StoredResponse> result = new CompletableFuture<>();
+
+        private final String requestHash;
+
+        private Entry(String requestHash) {
+            this.requestHash = requestHash;
+        }
+    }
+
+    private static class StoredResponse {
+
+        private final int status;
+
+        private final String body;
+
+        private StoredResponse(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+}
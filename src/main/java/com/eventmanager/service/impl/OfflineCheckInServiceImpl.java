@@ -0,0 +1,247 @@
+package com.eventmanager.service.impl;
+
+import com.eventmanager.dto.CheckInResultDTO;
+import com.eventmanager.dto.request.OfflineCheckInRecord;
+import com.eventmanager.exception.BadRequestException;
+import com.eventmanager.exception.ResourceNotFoundException;
+import com.eventmanager.gate.GateValidationIndex;
+import com.eventmanager.inventory.TicketCounters;
+import com.eventmanager.model.Event;
+import com.eventmanager.model.Ticket;
+import com.eventmanager.repository.EventRepository;
+import com.eventmanager.repository.TicketRepository;
+import com.eventmanager.service.OfflineCheckInService;
+import com.eventmanager.util.TicketCodes;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Applies scan logs uploaded by gate handhelds that were offline. The log is read as a
+ * JSON array and applied in chunks, each in its own transaction and as a few batched
+ * updates rather than one per record, while the per-record report is streamed back in
+ * upload order, so memory stays bounded by the chunk size.
+ * When a ticket was scanned more than once, the earliest scan is the one recorded.
+ */
+@Service
+public class OfflineCheckInServiceImpl implements OfflineCheckInService {
+    
+    private static final int MAX_GATE_ID_LENGTH = 64;
+    
+    // Offline scans are applied with their own time and gate. An earlier scan also replaces a later
+    // check-in of the same ticket, through the backdate statements, so the first gate to see it is recorded.
+    private static final String RECONCILE_BY_TICKET_KEY =
+            "UPDATE tickets SET status = ?, checked_in_at = ?, checked_in_gate = ?, updated_at = ? " +
+            "WHERE ticket_key = ? AND event_id = ? AND status = ?";
+    
+    private static final String RECONCILE_BY_TICKET_NUMBER =
+            "UPDATE tickets SET status = ?, checked_in_at = ?, checked_in_gate = ?, updated_at = ? " +
+            "WHERE ticket_number = ? AND event_id = ? AND status = ?";
+    
+    private static final String BACKDATE_BY_TICKET_KEY =
+            "UPDATE tickets SET checked_in_at = ?, checked_in_gate = ?, updated_at = ? " +
+            "WHERE ticket_key = ? AND event_id = ? AND status = ? AND checked_in_at > ?";
+    
+    private static final String BACKDATE_BY_TICKET_NUMBER =
+            "UPDATE tickets SET checked_in_at = ?, checked_in_gate = ?, updated_at = ? " +
+            "WHERE ticket_number = ? AND event_id = ? AND status = ? AND checked_in_at > ?";
+    
+    @Value("${tickets.check-in.offline-chunk-size}")
+    private int chunkSize;
+    
+    @Autowired
+    private EventRepository eventRepository;
+    
+    @Autowired
+    private TicketRepository ticketRepository;
+    
+    @Autowired
+    private GateValidationIndex gateValidationIndex;
+    
+    @Autowired
+    private TicketCodes ticketCodes;
+    
+    @Autowired
+    private TicketCounters ticketCounters;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Override
+    public StreamingResponseBody reconcile(Long eventId, InputStream scanLog) {
+        Event event = eventRepository.findById(eventId)
+                .orElseThrow(() -> new ResourceNotFoundException("Event", "id", eventId));
+        if (event.getStatus() != Event.EventStatus.PUBLISHED && event.getStatus() != Event.EventStatus.COMPLETED) {
+            throw new BadRequestException("Offline check-ins can only be reconciled for published or completed events");
+        }
+        
+        return report -> {
+            TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+            JsonGenerator generator = objectMapper.createGenerator(report);
+            generator.writeStartArray();
+            
+            try (MappingIterator<OfflineCheckInRecord> records =
+                         objectMapper.readerFor(OfflineCheckInRecord.class).readValues(scanLog)) {
+                List<OfflineCheckInRecord> chunk = new ArrayList<>(chunkSize);
+                while (records.hasNextValue()) {
+                    chunk.add(records.nextValue());
+                    if (chunk.size() == chunkSize) {
+                        writeResults(generator, transactionTemplate.execute(status -> applyChunk(eventId, chunk)));
+                        chunk.clear();
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    writeResults(generator, transactionTemplate.execute(status -> applyChunk(eventId, chunk)));
+                }
+            }
+            
+            generator.writeEndArray();
+            generator.flush();
+        };
+    }
+    
+    private List<CheckInResultDTO> applyChunk(Long eventId, List<OfflineCheckInRecord> chunk) {
+        List<CheckInResultDTO> results = new ArrayList<>(chunk.size());
+        for (OfflineCheckInRecord record : chunk) {
+            results.add(new CheckInResultDTO(record.getTicketNumber(), CheckInResultDTO.Outcome.ADMITTED));
+        }
+        
+        // Earliest scans go first so a later duplicate in the same chunk is the one rejected
+        Integer[] order = new Integer[chunk.size()];
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, Comparator.comparing(i -> chunk.get(i).getScannedAt(),
+                Comparator.nullsFirst(Comparator.naturalOrder())));
+        
+        CheckInRejections rejections = new CheckInRejections(eventId);
+        List<Scan> keyScans = new ArrayList<>();
+        List<Scan> numberScans = new ArrayList<>();
+        Set<Object> seen = new HashSet<>();
+        for (int index : order) {
+            OfflineCheckInRecord record = chunk.get(index);
+            CheckInResultDTO result = results.get(index);
+            if (!isWellFormed(record)) {
+                result.setOutcome(CheckInResultDTO.Outcome.INVALID);
+                continue;
+            }
+            
+            Long ticketKey = ticketCodes.parseKey(record.getTicketNumber());
+            if (ticketKey == null && !ticketCodes.isLegacy(record.getTicketNumber())) {
+                result.setOutcome(CheckInResultDTO.Outcome.INVALID);
+                continue;
+            }
+            // Only the earliest scan of a ticket is applied; later ones in the chunk are explained with the rejections
+            if (!seen.add(ticketKey != null ? ticketKey : record.getTicketNumber())) {
+                rejections.add(ticketKey, record.getTicketNumber(), result);
+                continue;
+            }
+            Scan scan = new Scan(ticketKey, record, result);
+            (ticketKey != null ? keyScans : numberScans).add(scan);
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        int admitted = apply(eventId, keyScans, RECONCILE_BY_TICKET_KEY, BACKDATE_BY_TICKET_KEY, now, rejections)
+                + apply(eventId, numberScans, RECONCILE_BY_TICKET_NUMBER, BACKDATE_BY_TICKET_NUMBER, now, rejections);
+        ticketCounters.moved(eventId, Ticket.TicketStatus.PAID, Ticket.TicketStatus.USED, admitted);
+        rejections.classify(ticketRepository);
+        return results;
+    }
+    
+    // One batched statement checks in every scan; those that matched no PAID ticket go to a second one that backdates
+    private int apply(Long eventId, List<Scan> scans, String reconcileSql, String backdateSql, LocalDateTime now,
+                      CheckInRejections rejections) {
+        if (scans.isEmpty()) {
+            return 0;
+        }
+        
+        int[] reconciled = jdbcTemplate.batchUpdate(reconcileSql, scans.stream()
+                .map(scan -> new Object[] {Ticket.TicketStatus.USED.name(), scan.record.getScannedAt(),
+                        scan.record.getGateId(), now, scan.ticketId(), eventId, Ticket.TicketStatus.PAID.name()})
+                .collect(Collectors.toList()));
+        int admitted = 0;
+        List<Scan> notAdmitted = new ArrayList<>();
+        for (int i = 0; i < scans.size(); i++) {
+            Scan scan = scans.get(i);
+            if (reconciled[i] > 0) {
+                admitted++;
+                gateValidationIndex.ticketRevoked(eventId, scan.ticketKey);
+            } else {
+                notAdmitted.add(scan);
+            }
+        }
+        if (notAdmitted.isEmpty()) {
+            return admitted;
+        }
+        
+        // Already checked in later than this scan: keep the earlier scan, the counts do not change
+        int[] backdated = jdbcTemplate.batchUpdate(backdateSql, notAdmitted.stream()
+                .map(scan -> new Object[] {scan.record.getScannedAt(), scan.record.getGateId(), now,
+                        scan.ticketId(), eventId, Ticket.TicketStatus.USED.name(), scan.record.getScannedAt()})
+                .collect(Collectors.toList()));
+        for (int i = 0; i < notAdmitted.size(); i++) {
+            if (backdated[i] == 0) {
+                Scan scan = notAdmitted.get(i);
+                rejections.add(scan.ticketKey, scan.record.getTicketNumber(), scan.result);
+            }
+        }
+        return admitted;
+    }
+    
+    private boolean isWellFormed(OfflineCheckInRecord record) {
+        return record.getTicketNumber() != null && !record.getTicketNumber().isBlank() &&
+               record.getScannedAt() != null &&
+               (record.getGateId() == null || record.getGateId().length() <= MAX_GATE_ID_LENGTH);
+    }
+    
+    private void writeResults(JsonGenerator generator, List<CheckInResultDTO> results) throws IOException {
+        for (CheckInResultDTO result : results) {
+            generator.writeStartObject();
+            generator.writeStringField("ticketNumber", result.getTicketNumber());
+            generator.writeStringField("outcome", result.getOutcome().name());
+            generator.writeEndObject();
+        }
+        generator.flush();
+    }
+    
+    private static class Scan {
+        
+        private final Long ticketKey;
+        
+        private final OfflineCheckInRecord record;
+        
+        private final CheckInResultDTO result;
+        
+        private Scan(Long ticketKey, OfflineCheckInRecord record, CheckInResultDTO result) {
+            this.ticketKey = ticketKey;
+            this.record = record;
+            this.result = result;
+        }
+        
+        private Object ticketId() {
+            return ticketKey != null ? ticketKey : record.getTicketNumber();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.eventmanager.service.impl;
+
+import com.eventmanager.dto.response.JwtResponse;
+import com.eventmanager.exception.BadRequestException;
+import com.eventmanager.model.RefreshToken;
+import com.eventmanager.repository.RefreshTokenRepository;
+import com.eventmanager.repository.UserRepository;
+import com.eventmanager.security.jwt.JwtUtils;
+import com.eventmanager.security.jwt.RevokedTokens;
+import com.eventmanager.security.services.UserDetailsImpl;
+import com.eventmanager.service.RefreshTokenService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+public class RefreshTokenServiceImpl implements RefreshTokenService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenServiceImpl.class);
+    
+    private static final int REFRESH_TOKEN_BYTES = 32;
+    
+    @Value("${jwt.refresh-expiration}")
+    private long refreshExpirationMs;
+    
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private JwtUtils jwtUtils;
+    
+    @Autowired
+    private RevokedTokens revokedTokens;
+    
+    private final SecureRandom random = new SecureRandom();
+    
+    @Override
+    @Transactional
+    public JwtResponse issueTokens(UserDetailsImpl userDetails) {
+        return issue(userDetails, random.nextLong());
+    }
+    
+    @Override
+    @Transactional(noRollbackFor = BadRequestException.class)
+    public JwtResponse refresh(String refreshToken) {
+        LocalDateTime now = LocalDateTime.now();
+        RefreshToken current = refreshTokenRepository.findByTokenHash(digest(refreshToken))
+                .orElseThrow(() -> new BadRequestException("Invalid refresh token"));
+        
+        if (refreshTokenRepository.rotate(current.getId(), now) == 0) {
+            // An already exchanged token came back: assume it leaked and end the whole session
+            if (current.getRotatedAt() != null && current.getRevokedAt() == null) {
+                logger.warn("Refresh token reuse detected for user {}, revoking session", current.getUser().getId());
+                revokeFamily(current.getFamilyId(), now);
+            }
+            throw new BadRequestException("Invalid refresh token");
+        }
+        
+        return issue(UserDetailsImpl.build(current.getUser()), current.getFamilyId());
+    }
+    
+    @Override
+    @Transactional
+    public void revoke(String refreshToken) {
+        refreshTokenRepository.findByTokenHash(digest(refreshToken))
+                .ifPresent(token -> revokeFamily(token.getFamilyId(), LocalDateTime.now()));
+    }
+    
+    // Access tokens are covered by the token version bump that comes with this
+    @Override
+    @Transactional
+    public void revokeAllForUser(Long userId) {
+        refreshTokenRepository.revokeAllForUser(userId, LocalDateTime.now());
+    }
+    
+    @Scheduled(cron = "${jwt.refresh-token.purge-cron}")
+    public void purgeExpired() {
+        int purged = refreshTokenRepository.deleteExpired(LocalDateTime.now());
+        logger.info("Purged {} expired refresh tokens", purged);
+    }
+    
+    private void revokeFamily(Long familyId, LocalDateTime now) {
+        List<RefreshTokenRepository.RevokedAccessToken> accessTokens =
+                refreshTokenRepository.findLiveAccessTokensByFamily(familyId, now);
+        refreshTokenRepository.revokeFamily(familyId, now);
+        revokedTokens.revoke(accessTokens);
+    }
+    
+    private JwtResponse issue(UserDetailsImpl userDetails, Long familyId) {
+        long accessTokenId = random.nextLong();
+        Date issuedAt = new Date();
+        Date accessExpiresAt = new Date(issuedAt.getTime() + jwtUtils.getJwtExpirationMs());
+        String jwt = jwtUtils.generateJwtToken(userDetails, accessTokenId, issuedAt, accessExpiresAt);
+        
+        byte[] secret = new byte[REFRESH_TOKEN_BYTES];
+        random.nextBytes(secret);
+        String refreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(secret);
+        
+        LocalDateTime now = LocalDateTime.ofInstant(issuedAt.toInstant(), ZoneId.systemDefault());
+        RefreshToken token = new RefreshToken();
+        token.setTokenHash(digest(refreshToken));
+        token.setFamilyId(familyId);
+        token.setUser(userRepository.getReferenceById(userDetails.getId()));
+        token.setAccessTokenId(accessTokenId);
+        token.setAccessExpiresAt(LocalDateTime.ofInstant(accessExpiresAt.toInstant(), ZoneId.systemDefault()));
+        token.setCreatedAt(now);
+        token.setExpiresAt(now.plus(refreshExpirationMs, ChronoUnit.MILLIS));
+        refreshTokenRepository.save(token);
+        
+        List<String> roles = userDetails.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toList());
+        
+        return new JwtResponse(
+                jwt,
+                refreshToken,
+                userDetails.getId(),
+                userDetails.getFirstName(),
+                userDetails.getLastName(),
+                userDetails.getEmail(),
+                roles);
+    }
+    
+    private static String digest(String refreshToken) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(refreshToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
\ No newline at end of file
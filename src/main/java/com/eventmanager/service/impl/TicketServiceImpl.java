@@ -1,18 +1,34 @@
 package com.eventmanager.service.impl;
 
+import com.eventmanager.dto.CheckInResultDTO;
 import com.eventmanager.dto.TicketDTO;
+import com.eventmanager.dto.request.CheckInRequest;
 import com.eventmanager.dto.request.PurchaseTicketRequest;
+import com.eventmanager.dto.response.CursorPageResponse;
+import com.eventmanager.dto.response.KeysetPageResponse;
 import com.eventmanager.exception.BadRequestException;
 import com.eventmanager.exception.ResourceNotFoundException;
+import com.eventmanager.gate.GateValidationIndex;
+import com.eventmanager.inventory.HoldExpiryWheel;
+import com.eventmanager.inventory.InventoryLedger;
+import com.eventmanager.inventory.PendingTicket;
+import com.eventmanager.inventory.PurchaseSequencer;
+import com.eventmanager.inventory.TicketCounters;
 import com.eventmanager.model.Event;
 import com.eventmanager.model.Ticket;
 import com.eventmanager.model.User;
 import com.eventmanager.repository.EventRepository;
 import com.eventmanager.repository.TicketRepository;
+import com.eventmanager.repository.TicketSpecifications;
 import com.eventmanager.service.TicketService;
+import com.eventmanager.util.CursorPages;
 import com.eventmanager.util.SecurityUtils;
+import com.eventmanager.util.TicketCodes;
+import com.eventmanager.util.TicketNumberGenerator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -21,6 +37,10 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 @Service
 public class TicketServiceImpl implements TicketService {
@@ -33,22 +53,55 @@ public class TicketServiceImpl implements TicketService {
     
     @Autowired
     private SecurityUtils securityUtils;
+    
+    @Autowired
+    private InventoryLedger inventoryLedger;
+    
+    @Autowired
+    private HoldExpiryWheel holdExpiryWheel;
+    
+    @Autowired
+    private PurchaseSequencer purchaseSequencer;
+    
+    @Autowired
+    private TicketNumberGenerator ticketNumberGenerator;
+    
+    @Autowired
+    private TicketCodes ticketCodes;
+    
+    @Autowired
+    private GateValidationIndex gateValidationIndex;
+    
+    @Autowired
+    private TicketCounters ticketCounters;
+    
+    private static final int MAX_KEYSET_PAGE_SIZE = 1000;
+    
+    // Non-null properties a cursor page can seek on; price and purchaseDate are unset on some tickets
+    private static final Set<String> CURSOR_SORTS = Set.of("id", "status", "createdAt", "updatedAt");
+    
+    @Value("${tickets.hold.ttl-seconds}")
+    private long holdTtlSeconds;
 
     @Override
     public Page<TicketDTO> getCurrentUserTickets(Pageable pageable) {
-        User currentUser = securityUtils.getCurrentUser();
-        return ticketRepository.findByUser(currentUser, pageable)
+        return ticketRepository.findByUserId(securityUtils.getCurrentUserId(), pageable)
                 .map(this::convertToDto);
     }
 
+    @Override
+    public CursorPageResponse<TicketDTO> getCurrentUserTickets(Pageable pageable, String cursor, boolean includeTotal) {
+        return CursorPages.scroll(ticketRepository, TicketSpecifications.ownedBy(securityUtils.getCurrentUserId()), CURSOR_SORTS,
+                pageable, cursor, includeTotal, this::convertToDto, "event", "user");
+    }
+
     @Override
     public TicketDTO getTicketById(Long id) {
         Ticket ticket = ticketRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Ticket", "id", id));
         
         // Check if the current user is authorized to view this ticket
-        User currentUser = securityUtils.getCurrentUser();
-        if (!ticket.getUser().getId().equals(currentUser.getId()) && 
+        if (!ticket.getUser().getId().equals(securityUtils.getCurrentUserId()) && 
             !securityUtils.isAdmin() && 
             !securityUtils.isOrganizer()) {
             throw new BadRequestException("Not authorized to view this ticket");
@@ -60,54 +113,116 @@ public class TicketServiceImpl implements TicketService {
     @Override
     @Transactional
     public TicketDTO purchaseTicket(PurchaseTicketRequest request) {
-        User currentUser = securityUtils.getCurrentUser();
-        
-        Event event = eventRepository.findById(request.getEventId())
-                .orElseThrow(() -> new ResourceNotFoundException("Event", "id", request.getEventId()));
+        Long currentUserId = securityUtils.getCurrentUserId();
+        Event event = getPurchasableEvent(request.getEventId());
         
-        // Check if event is published
-        if (event.getStatus() != Event.EventStatus.PUBLISHED) {
-            throw new BadRequestException("Cannot purchase tickets for a non-published event");
+        // Hot events are sold from the in-memory ledger and written behind in batches
+        inventoryLedger.recordPurchaseAttempt(event);
+        Optional<List<PendingTicket>> ledgerTickets = inventoryLedger.tryAllocate(
+                event.getId(), currentUserId, request.getQuantity(), event.getTicketPrice());
+        if (ledgerTickets.isPresent()) {
+            return convertToDto(ledgerTickets.get().get(0), event, securityUtils.getCurrentUser());
         }
         
-        // Check if event date is in the past
-        if (event.getStartDateTime().isBefore(LocalDateTime.now())) {
-            throw new BadRequestException("Cannot purchase tickets for past events");
-        }
-        
-        // Check if there are enough tickets available
-        int soldTickets = event.getTickets().size();
-        if (event.getMaxAttendees() != null && 
-            soldTickets + request.getQuantity() > event.getMaxAttendees()) {
+        // Claim capacity with a single guarded update so concurrent buyers cannot oversell
+        if (eventRepository.allocateTickets(event.getId(), request.getQuantity()) == 0) {
             throw new BadRequestException("Not enough tickets available");
         }
         
-        // Create ticket(s)
+        // Create ticket(s); the user is only needed as a foreign key until the response is built
+        User currentUser = securityUtils.getCurrentUserReference();
         List<Ticket> purchasedTickets = new ArrayList<>();
         for (int i = 0; i < request.getQuantity(); i++) {
             Ticket ticket = new Ticket();
+            ticket.setTicketKey(ticketNumberGenerator.nextKey());
             ticket.setEvent(event);
             ticket.setUser(currentUser);
             ticket.setStatus(Ticket.TicketStatus.PAID); // In a real app, this would be RESERVED until payment is processed
             ticket.setPrice(event.getTicketPrice());
             ticket.setPurchaseDate(LocalDateTime.now());
-            purchasedTickets.add(ticketRepository.save(ticket));
+            purchasedTickets.add(ticket);
         }
+        purchasedTickets = ticketRepository.saveAll(purchasedTickets);
+        ticketCounters.issued(event.getId(), Ticket.TicketStatus.PAID, purchasedTickets.size());
+        gateValidationIndex.ticketsIssued(event.getId(), purchasedTickets.stream()
+                .map(Ticket::getTicketKey)
+                .collect(Collectors.toList()));
         
         // Return the first ticket's details
         return convertToDto(purchasedTickets.get(0));
     }
 
+    @Override
+    public CompletableFuture<TicketDTO> purchaseTicketSequenced(PurchaseTicketRequest request) {
+        if (!purchaseSequencer.isEnabled()) {
+            throw new BadRequestException("Sequenced purchases are not enabled");
+        }
+        
+        return purchaseSequencer.submit(request.getEventId(), securityUtils.getCurrentUserId(), request.getQuantity())
+                .thenApply(this::convertToDto);
+    }
+
+    @Override
+    @Transactional
+    public TicketDTO holdTickets(PurchaseTicketRequest request) {
+        User currentUser = securityUtils.getCurrentUserReference();
+        Event event = getPurchasableEvent(request.getEventId());
+        
+        if (eventRepository.allocateTickets(event.getId(), request.getQuantity()) == 0) {
+            throw new BadRequestException("Not enough tickets available");
+        }
+        
+        String holdReference = UUID.randomUUID().toString();
+        LocalDateTime expiresAt = LocalDateTime.now().plusSeconds(holdTtlSeconds);
+        List<Ticket> heldTickets = new ArrayList<>();
+        for (int i = 0; i < request.getQuantity(); i++) {
+            Ticket ticket = new Ticket();
+            ticket.setTicketKey(ticketNumberGenerator.nextKey());
+            ticket.setEvent(event);
+            ticket.setUser(currentUser);
+            ticket.setStatus(Ticket.TicketStatus.RESERVED);
+            ticket.setPrice(event.getTicketPrice());
+            ticket.setHoldReference(holdReference);
+            ticket.setExpiresAt(expiresAt);
+            heldTickets.add(ticket);
+        }
+        heldTickets = ticketRepository.saveAll(heldTickets);
+        ticketCounters.issued(event.getId(), Ticket.TicketStatus.RESERVED, heldTickets.size());
+        holdExpiryWheel.schedule(holdReference, event.getId(), expiresAt);
+        
+        return convertToDto(heldTickets.get(0));
+    }
+
+    @Override
+    @Transactional
+    public List<TicketDTO> confirmHold(String holdReference) {
+        LocalDateTime now = LocalDateTime.now();
+        
+        int confirmed = ticketRepository.confirmHold(holdReference, securityUtils.getCurrentUserId(), now,
+                Ticket.TicketStatus.RESERVED, Ticket.TicketStatus.PAID);
+        if (confirmed == 0) {
+            throw new BadRequestException("Hold not found or already expired");
+        }
+        
+        List<Ticket> confirmedTickets = ticketRepository.findByHoldReference(holdReference);
+        Long eventId = confirmedTickets.get(0).getEvent().getId();
+        ticketCounters.moved(eventId, Ticket.TicketStatus.RESERVED, Ticket.TicketStatus.PAID, confirmed);
+        gateValidationIndex.ticketsIssued(eventId, confirmedTickets.stream()
+                .map(Ticket::getTicketKey)
+                .collect(Collectors.toList()));
+        return confirmedTickets.stream()
+                .map(this::convertToDto)
+                .collect(Collectors.toList());
+    }
+
     @Override
     @Transactional
     public TicketDTO cancelTicket(Long id) {
         Ticket ticket = ticketRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Ticket", "id", id));
         
-        User currentUser = securityUtils.getCurrentUser();
-        
         // Check if user is authorized to cancel this ticket
-        if (!ticket.getUser().getId().equals(currentUser.getId()) && 
+        if (!ticket.getUser().getId().equals(securityUtils.getCurrentUserId()) && 
             !securityUtils.isAdmin() && 
             !securityUtils.isOrganizer()) {
             throw new BadRequestException("Not authorized to cancel this ticket");
@@ -127,31 +242,102 @@ public class TicketServiceImpl implements TicketService {
             throw new BadRequestException("Cannot cancel ticket for an event that has already started");
         }
         
-        ticket.setStatus(Ticket.TicketStatus.CANCELLED);
-        Ticket cancelledTicket = ticketRepository.save(ticket);
-        return convertToDto(cancelledTicket);
+        // Guarded on the status read above, so a concurrent cancel, hold expiry or check-in that
+        // got there first leaves this update with no row and the seat is released only once
+        Ticket.TicketStatus previousStatus = ticket.getStatus();
+        LocalDateTime now = LocalDateTime.now();
+        if (ticketRepository.cancel(id, now, previousStatus, Ticket.TicketStatus.CANCELLED) == 0) {
+            throw new BadRequestException("Ticket was cancelled, expired or used in the meantime");
+        }
+        eventRepository.releaseTickets(ticket.getEvent().getId(), 1);
+        ticketCounters.moved(ticket.getEvent().getId(), previousStatus, Ticket.TicketStatus.CANCELLED, 1);
+        gateValidationIndex.ticketRevoked(ticket.getEvent().getId(), ticket.getTicketKey());
+        
+        TicketDTO cancelledTicket = convertToDto(ticket);
+        cancelledTicket.setStatus(Ticket.TicketStatus.CANCELLED);
+        cancelledTicket.setUpdatedAt(now);
+        return cancelledTicket;
     }
 
     @Override
-    public Page<TicketDTO> getTicketsByEvent(Long eventId, Pageable pageable) {
-        Event event = eventRepository.findById(eventId)
-                .orElseThrow(() -> new ResourceNotFoundException("Event", "id", eventId));
+    public Page<TicketDTO> getTicketsByEvent(Long eventId, List<Ticket.TicketStatus> statuses, Pageable pageable) {
+        if (!eventRepository.existsById(eventId)) {
+            throw new ResourceNotFoundException("Event", "id", eventId);
+        }
+        
+        Page<Ticket> tickets = statuses == null || statuses.isEmpty()
+                ? ticketRepository.findByEventId(eventId, pageable)
+                : ticketRepository.findByEventIdAndStatusIn(eventId, statuses, pageable);
+        return tickets.map(this::convertToDto);
+    }
+
+    @Override
+    public CursorPageResponse<TicketDTO> getTicketsByEvent(Long eventId, List<Ticket.TicketStatus> statuses, Pageable pageable,
+                                                           String cursor, boolean includeTotal) {
+        if (!eventRepository.existsById(eventId)) {
+            throw new ResourceNotFoundException("Event", "id", eventId);
+        }
+        
+        return CursorPages.scroll(ticketRepository,
+                TicketSpecifications.forEvent(eventId).and(TicketSpecifications.hasStatusIn(statuses)),
+                CURSOR_SORTS, pageable, cursor, includeTotal, this::convertToDto, "event", "user");
+    }
+
+    @Override
+    public KeysetPageResponse<TicketDTO> getTicketsByEventAfter(Long eventId, List<Ticket.TicketStatus> statuses,
+                                                                Long afterId, int size) {
+        if (size < 1 || size > MAX_KEYSET_PAGE_SIZE) {
+            throw new BadRequestException("Page size must be between 1 and " + MAX_KEYSET_PAGE_SIZE);
+        }
+        if (!eventRepository.existsById(eventId)) {
+            throw new ResourceNotFoundException("Event", "id", eventId);
+        }
+        
+        // Fetch one extra row to learn whether another page follows
+        long after = afterId == null ? 0L : afterId;
+        PageRequest limit = PageRequest.of(0, size + 1);
+        List<Ticket> tickets = statuses == null || statuses.isEmpty()
+                ? ticketRepository.findByEventIdAfter(eventId, after, limit)
+                : ticketRepository.findByEventIdAndStatusInAfter(eventId, statuses, after, limit);
         
-        // Filter tickets by event in memory since there's no direct repository method
-        return (Page<TicketDTO>) ticketRepository.findAll(pageable)
+        boolean hasNext = tickets.size() > size;
+        if (hasNext) {
+            tickets = tickets.subList(0, size);
+        }
+        List<TicketDTO> content = tickets.stream()
                 .map(this::convertToDto)
-                .filter(ticketDTO -> ticketDTO.getEventId().equals(eventId));
+                .collect(Collectors.toList());
+        Long nextAfterId = hasNext ? tickets.get(tickets.size() - 1).getId() : null;
+        return new KeysetPageResponse<>(content, hasNext, nextAfterId);
     }
 
     @Override
-    public boolean validateTicket(String ticketNumber) {
-        Optional<Ticket> ticketOpt = ticketRepository.findByTicketNumber(ticketNumber);
+    public boolean validateTicket(String ticketNumber, Long eventId) {
+        // Compact codes of events whose doors are open are answered from memory
+        Long ticketKey = ticketCodes.parseKey(ticketNumber);
+        if (ticketKey == null && !ticketCodes.isLegacy(ticketNumber)) {
+            // Not a code this server issued, so there is nothing to look up
+            return false;
+        }
+        if (ticketKey != null) {
+            Boolean indexed = gateValidationIndex.validate(ticketKey, eventId, LocalDateTime.now());
+            if (indexed != null) {
+                return indexed;
+            }
+        }
+        
+        Optional<Ticket> ticketOpt = ticketKey != null
+                ? ticketRepository.findByTicketKey(ticketKey)
+                : ticketRepository.findByTicketNumber(ticketNumber);
         
         if (!ticketOpt.isPresent()) {
             return false;
         }
         
         Ticket ticket = ticketOpt.get();
+        if (eventId != null && !ticket.getEvent().getId().equals(eventId)) {
+            return false;
+        }
         
         // Check if ticket is valid (paid and not cancelled or used)
         return ticket.getStatus() == Ticket.TicketStatus.PAID &&
@@ -176,15 +362,111 @@ public class TicketServiceImpl implements TicketService {
             throw new BadRequestException("Only paid tickets can be marked as used");
         }
         
-        ticket.setStatus(Ticket.TicketStatus.USED);
-        Ticket usedTicket = ticketRepository.save(ticket);
-        return convertToDto(usedTicket);
+        // Same compare-and-set as a gate scan, so a concurrent cancel cannot be overwritten with USED
+        LocalDateTime now = LocalDateTime.now();
+        if (ticketRepository.checkInById(id, now, Ticket.TicketStatus.PAID, Ticket.TicketStatus.USED) == 0) {
+            throw new BadRequestException("Only paid tickets can be marked as used");
+        }
+        ticketCounters.moved(ticket.getEvent().getId(), Ticket.TicketStatus.PAID, Ticket.TicketStatus.USED, 1);
+        gateValidationIndex.ticketRevoked(ticket.getEvent().getId(), ticket.getTicketKey());
+        
+        TicketDTO usedTicket = convertToDto(ticket);
+        usedTicket.setStatus(Ticket.TicketStatus.USED);
+        usedTicket.setCheckedInAt(now);
+        usedTicket.setUpdatedAt(now);
+        return usedTicket;
+    }
+    
+    @Override
+    @Transactional
+    public CheckInResultDTO checkIn(Long eventId, String ticketNumber) {
+        return checkInAll(eventId, List.of(ticketNumber)).get(0);
+    }
+    
+    @Override
+    @Transactional
+    public List<CheckInResultDTO> checkIn(CheckInRequest request) {
+        return checkInAll(request.getEventId(), request.getTicketNumbers());
+    }
+    
+    /**
+     * Admits each ticket with one compare-and-set update from PAID to USED, so two gates
+     * scanning the same ticket cannot both admit it. The same update checks that the event
+     * is published and not over, so no entity is loaded per scan. Only the rejected scans
+     * are looked up afterwards, in one query, to report why they were refused.
+     */
+    private List<CheckInResultDTO> checkInAll(Long eventId, List<String> ticketNumbers) {
+        // Only organizers and admins can check tickets in
+        if (!securityUtils.isAdmin() && !securityUtils.isOrganizer()) {
+            throw new BadRequestException("Not authorized to check tickets in");
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        List<CheckInResultDTO> results = new ArrayList<>(ticketNumbers.size());
+        CheckInRejections rejections = new CheckInRejections(eventId);
+        int admitted = 0;
+        for (String ticketNumber : ticketNumbers) {
+            CheckInResultDTO result = new CheckInResultDTO(ticketNumber, CheckInResultDTO.Outcome.ADMITTED);
+            results.add(result);
+            
+            Long ticketKey = ticketCodes.parseKey(ticketNumber);
+            if (ticketKey == null && !ticketCodes.isLegacy(ticketNumber)) {
+                result.setOutcome(CheckInResultDTO.Outcome.INVALID);
+                continue;
+            }
+            int updated = ticketKey != null
+                    ? ticketRepository.checkInByTicketKey(ticketKey, eventId, now, Event.EventStatus.PUBLISHED,
+                            Ticket.TicketStatus.PAID, Ticket.TicketStatus.USED)
+                    : ticketRepository.checkInByTicketNumber(ticketNumber, eventId, now, Event.EventStatus.PUBLISHED,
+                            Ticket.TicketStatus.PAID, Ticket.TicketStatus.USED);
+            if (updated == 1) {
+                admitted++;
+                gateValidationIndex.ticketRevoked(eventId, ticketKey);
+            } else {
+                rejections.add(ticketKey, ticketNumber, result);
+            }
+        }
+        ticketCounters.moved(eventId, Ticket.TicketStatus.PAID, Ticket.TicketStatus.USED, admitted);
+        rejections.classify(ticketRepository);
+        return results;
+    }
+    
+    private Event getPurchasableEvent(Long eventId) {
+        Event event = eventRepository.findById(eventId)
+                .orElseThrow(() -> new ResourceNotFoundException("Event", "id", eventId));
+        
+        // Check if event is published
+        if (event.getStatus() != Event.EventStatus.PUBLISHED) {
+            throw new BadRequestException("Cannot purchase tickets for a non-published event");
+        }
+        
+        // Check if event date is in the past
+        if (event.getStartDateTime().isBefore(LocalDateTime.now())) {
+            throw new BadRequestException("Cannot purchase tickets for past events");
+        }
+        
+        return event;
+    }
+    
+    private TicketDTO convertToDto(PendingTicket ticket, Event event, User user) {
+        TicketDTO ticketDTO = new TicketDTO();
+        ticketDTO.setTicketNumber(ticketCodes.format(ticket.getTicketKey()));
+        ticketDTO.setEventId(event.getId());
+        ticketDTO.setEventName(event.getName());
+        ticketDTO.setEventStartDateTime(event.getStartDateTime());
+        ticketDTO.setUserId(user.getId());
+        ticketDTO.setUserEmail(user.getEmail());
+        ticketDTO.setUserName(user.getFirstName() + " " + user.getLastName());
+        ticketDTO.setStatus(Ticket.TicketStatus.PAID);
+        ticketDTO.setPrice(ticket.getPrice());
+        ticketDTO.setPurchaseDate(ticket.getPurchaseDate());
+        return ticketDTO;
     }
     
     private TicketDTO convertToDto(Ticket ticket) {
         TicketDTO ticketDTO = new TicketDTO();
         ticketDTO.setId(ticket.getId());
-        ticketDTO.setTicketNumber(ticket.getTicketNumber());
+        ticketDTO.setTicketNumber(ticketCodes.display(ticket));
         ticketDTO.setEventId(ticket.getEvent().getId());
         ticketDTO.setEventName(ticket.getEvent().getName());
         ticketDTO.setEventStartDateTime(ticket.getEvent().getStartDateTime());
@@ -194,6 +476,10 @@ public class TicketServiceImpl implements TicketService {
         ticketDTO.setStatus(ticket.getStatus());
         ticketDTO.setPrice(ticket.getPrice());
         ticketDTO.setPurchaseDate(ticket.getPurchaseDate());
+        ticketDTO.setHoldReference(ticket.getHoldReference());
+        ticketDTO.setExpiresAt(ticket.getExpiresAt());
+        ticketDTO.setCheckedInAt(ticket.getCheckedInAt());
+        ticketDTO.setCheckedInGate(ticket.getCheckedInGate());
         ticketDTO.setCreatedAt(ticket.getCreatedAt());
         ticketDTO.setUpdatedAt(ticket.getUpdatedAt());
         return ticketDTO;
@@ -1,10 +1,16 @@
 package com.eventmanager.service.impl;
 
+import com.eventmanager.cache.EventDetailCache;
 import com.eventmanager.dto.VenueDTO;
+import com.eventmanager.dto.response.CursorPageResponse;
 import com.eventmanager.exception.ResourceNotFoundException;
 import com.eventmanager.model.Venue;
+import com.eventmanager.repository.CommonSpecifications;
+import com.eventmanager.repository.EventRepository;
 import com.eventmanager.repository.VenueRepository;
 import com.eventmanager.service.VenueService;
+import com.eventmanager.util.CursorPages;
+import com.eventmanager.util.ETags;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -12,13 +18,23 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 public class VenueServiceImpl implements VenueService {
 
+    // Non-null properties a cursor page can seek on
+    private static final Set<String> CURSOR_SORTS = Set.of("id", "name", "address", "capacity", "createdAt", "updatedAt");
+
     @Autowired
     private VenueRepository venueRepository;
+    
+    @Autowired
+    private EventRepository eventRepository;
+    
+    @Autowired
+    private EventDetailCache eventDetailCache;
 
     @Override
     public Page<VenueDTO> getAllVenues(Pageable pageable) {
@@ -26,6 +42,12 @@ public class VenueServiceImpl implements VenueService {
                 .map(this::convertToDto);
     }
 
+    @Override
+    public CursorPageResponse<VenueDTO> getAllVenues(Pageable pageable, String cursor, boolean includeTotal) {
+        return CursorPages.scroll(venueRepository, CommonSpecifications.all(), CURSOR_SORTS, pageable, cursor, includeTotal,
+                this::convertToDto);
+    }
+
     @Override
     public VenueDTO getVenueById(Long id) {
         Venue venue = venueRepository.findById(id)
@@ -33,6 +55,14 @@ public class VenueServiceImpl implements VenueService {
         return convertToDto(venue);
     }
 
+    @Override
+    public String getVenueETag(Long id) {
+        // Served from the second-level cache, without building the response body
+        Venue venue = venueRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Venue", "id", id));
+        return ETags.strong(ETags.revision(venue.getVersion(), venue.getEventCount()));
+    }
+
     @Override
     @Transactional
     public VenueDTO createVenue(VenueDTO venueDTO) {
@@ -57,6 +87,8 @@ public class VenueServiceImpl implements VenueService {
         venue.setCapacity(venueDTO.getCapacity());
         
         Venue updatedVenue = venueRepository.save(venue);
+        eventRepository.incrementVersionByVenue(id);
+        eventDetailCache.referenceDataChanged();
         return convertToDto(updatedVenue);
     }
 
@@ -66,6 +98,7 @@ public class VenueServiceImpl implements VenueService {
         Venue venue = venueRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Venue", "id", id));
         venueRepository.delete(venue);
+        eventDetailCache.referenceDataChanged();
     }
 
     @Override
@@ -74,6 +107,12 @@ public class VenueServiceImpl implements VenueService {
                 .map(this::convertToDto);
     }
 
+    @Override
+    public CursorPageResponse<VenueDTO> searchVenuesByName(String name, Pageable pageable, String cursor, boolean includeTotal) {
+        return CursorPages.scroll(venueRepository, CommonSpecifications.nameContainsIgnoreCase(name), CURSOR_SORTS,
+                pageable, cursor, includeTotal, this::convertToDto);
+    }
+
     @Override
     public List<VenueDTO> getVenuesByCity(String city) {
         return venueRepository.findByCity(city)
@@ -101,7 +140,8 @@ public class VenueServiceImpl implements VenueService {
         venueDTO.setZipCode(venue.getZipCode());
         venueDTO.setCountry(venue.getCountry());
         venueDTO.setCapacity(venue.getCapacity());
-        venueDTO.setEventCount(venue.getEvents().size());
+        venueDTO.setEventCount(venue.getEventCount());
+        venueDTO.setVersion(venue.getVersion());
         venueDTO.setCreatedAt(venue.getCreatedAt());
         venueDTO.setUpdatedAt(venue.getUpdatedAt());
         return venueDTO;
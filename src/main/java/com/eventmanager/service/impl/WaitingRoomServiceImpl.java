@@ -0,0 +1,315 @@
+package com.eventmanager.service.impl;
+
+import com.eventmanager.dto.WaitingRoomStatusDTO;
+import com.eventmanager.exception.BadRequestException;
+import com.eventmanager.model.Event;
+import com.eventmanager.repository.EventRepository;
+import com.eventmanager.service.WaitingRoomService;
+import com.eventmanager.util.SecurityUtils;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * FIFO waiting room per event. A room keeps only the last sequence number handed out,
+ * the highest sequence admitted so far and one bit per sequence whose admission was
+ * used, so a million waiters cost a few hundred kilobytes. Clients carry their sequence
+ * in a queue token signed with their user id and the room's id, and exchange it for a
+ * signed admission token once the admission window reaches it; rejoining with the queue
+ * token keeps the place. An admission token is good for one purchase or hold, after
+ * which the user has to rejoin at the back. Rooms are opened for every event on sale at
+ * startup and on first use, so a published event that has not started is never sold
+ * without an admission.
+ */
+@Service
+public class WaitingRoomServiceImpl implements WaitingRoomService {
+
+    private static final String QUEUE_TOKEN = "Q";
+
+    private static final String ADMISSION_TOKEN = "A";
+
+    @Value("${waiting-room.enabled}")
+    private boolean enabled;
+
+    @Value("${waiting-room.secret}")
+    private String secret;
+
+    @Value("${waiting-room.admission-rate-per-second}")
+    private long admissionRatePerSecond;
+
+    @Value("${waiting-room.admission-ttl-seconds}")
+    private long admissionTtlSeconds;
+
+    @Autowired
+    private SecurityUtils securityUtils;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    private final Map<Long, Room> rooms = new ConcurrentHashMap<>();
+
+    private final ThreadLocal<Mac> macs = ThreadLocal.withInitial(this::createMac);
+
+    @PostConstruct
+    public void restoreRooms() {
+        if (!enabled) {
+            return;
+        }
+        for (Event event : eventRepository.findEventsOnSale(Event.EventStatus.PUBLISHED, LocalDateTime.now())) {
+            rooms.putIfAbsent(event.getId(), new Room(event.getStartDateTime()));
+        }
+    }
+
+    @Override
+    public void openRoom(Long eventId, LocalDateTime closesAt) {
+        if (!enabled) {
+            return;
+        }
+        // Opened once the publish commits, so a rolled-back publish leaves no room behind
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    rooms.putIfAbsent(eventId, new Room(closesAt));
+                }
+            });
+        } else {
+            rooms.putIfAbsent(eventId, new Room(closesAt));
+        }
+    }
+
+    @Override
+    public void closeRoom(Long eventId) {
+        rooms.remove(eventId);
+    }
+
+    @Override
+    public WaitingRoomStatusDTO joinQueue(Long eventId, String queueToken) {
+        Room room = roomFor(eventId);
+        if (room == null) {
+            throw new BadRequestException("There is no waiting room for this event");
+        }
+
+        Long userId = securityUtils.getCurrentUserId();
+        if (queueToken != null && !queueToken.isEmpty()) {
+            // Rejoining with a live queue token keeps its place; anything else goes to the back
+            long[] queued = verifyQuietly(queueToken, QUEUE_TOKEN, eventId, userId);
+            if (queued != null && queued[0] == room.id && !room.isConsumed(queued[1])) {
+                return buildStatus(eventId, userId, room, queued[1], queueToken);
+            }
+        }
+        long sequence = room.tail.incrementAndGet();
+        return buildStatus(eventId, userId, room, sequence, sign(QUEUE_TOKEN, eventId, userId, room.id, sequence));
+    }
+
+    @Override
+    public WaitingRoomStatusDTO getStatus(Long eventId, String queueToken) {
+        Room room = roomFor(eventId);
+        if (room == null) {
+            throw new BadRequestException("There is no waiting room for this event");
+        }
+
+        Long userId = securityUtils.getCurrentUserId();
+        long sequence = verify(queueToken, QUEUE_TOKEN, eventId, userId, room)[0];
+        // A queue token whose admission was already used no longer admits
+        if (room.isConsumed(sequence)) {
+            throw new BadRequestException("This queue token is no longer valid, please rejoin the waiting room");
+        }
+        return buildStatus(eventId, userId, room, sequence, queueToken);
+    }
+
+    @Override
+    public void verifyAdmission(Long eventId, String admissionToken) {
+        if (!enabled) {
+            return;
+        }
+        Room room = roomFor(eventId);
+        if (room == null) {
+            return;
+        }
+        if (admissionToken == null || admissionToken.isEmpty()) {
+            throw new BadRequestException("An admission token from the waiting room is required for this event");
+        }
+
+        Long userId = securityUtils.getCurrentUserId();
+        long[] admission = verify(admissionToken, ADMISSION_TOKEN, eventId, userId, room);
+        if (admission[1] < Instant.now().getEpochSecond()) {
+            throw new BadRequestException("Admission token has expired, please rejoin the waiting room");
+        }
+        if (!room.consume(admission[0])) {
+            throw new BadRequestException("Admission token has already been used, please rejoin the waiting room");
+        }
+    }
+
+    @Scheduled(fixedRate = 1000)
+    public void admitNextClients() {
+        LocalDateTime now = LocalDateTime.now();
+        rooms.entrySet().removeIf(entry -> !now.isBefore(entry.getValue().closesAt));
+        rooms.values().forEach(room ->
+                room.admittedThrough = Math.min(room.tail.get(), room.admittedThrough + admissionRatePerSecond));
+    }
+
+    /**
+     * Returns the event's room, opening it first when the event is on sale but this node has
+     * none: the publish happened on another node, or before a restart. Returns null when the
+     * event is not on sale.
+     */
+    private Room roomFor(Long eventId) {
+        Room room = rooms.get(eventId);
+        if (room != null || !enabled) {
+            return room;
+        }
+        return eventRepository.findById(eventId)
+                .filter(event -> event.getStatus() == Event.EventStatus.PUBLISHED)
+                .filter(event -> event.getStartDateTime().isAfter(LocalDateTime.now()))
+                .map(event -> rooms.computeIfAbsent(eventId, id -> new Room(event.getStartDateTime())))
+                .orElse(null);
+    }
+
+    private WaitingRoomStatusDTO buildStatus(Long eventId, Long userId, Room room, long sequence, String queueToken) {
+        WaitingRoomStatusDTO status = new WaitingRoomStatusDTO();
+        status.setEventId(eventId);
+        status.setQueueToken(queueToken);
+
+        long position = sequence - room.admittedThrough;
+        if (position > 0) {
+            status.setPosition(position);
+            status.setEstimatedWaitSeconds((position + admissionRatePerSecond - 1) / admissionRatePerSecond);
+            return status;
+        }
+
+        long expiresAt = Instant.now().getEpochSecond() + admissionTtlSeconds;
+        status.setPosition(0L);
+        status.setEstimatedWaitSeconds(0L);
+        status.setAdmitted(true);
+        status.setAdmissionToken(sign(ADMISSION_TOKEN, eventId, userId, room.id, sequence, expiresAt));
+        status.setAdmissionExpiresAt(LocalDateTime.ofInstant(Instant.ofEpochSecond(expiresAt), ZoneId.systemDefault()));
+        return status;
+    }
+
+    private String sign(String type, Long eventId, Long userId, long... values) {
+        StringBuilder payload = new StringBuilder(type).append(':').append(eventId).append(':').append(userId);
+        for (long value : values) {
+            payload.append(':').append(value);
+        }
+        return sign(payload.toString());
+    }
+
+    private String sign(String payload) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + "." + encoder.encodeToString(hmac(payload));
+    }
+
+    // Returns the fields signed after the room id: the sequence, then for admissions the expiry
+    private long[] verify(String token, String type, Long eventId, Long userId, Room room) {
+        long[] values = verifyQuietly(token, type, eventId, userId);
+        if (values == null) {
+            throw new BadRequestException("Invalid waiting room token");
+        }
+        if (values[0] != room.id) {
+            throw new BadRequestException("This token is from an earlier waiting room, please rejoin the waiting room");
+        }
+        return Arrays.copyOfRange(values, 1, values.length);
+    }
+
+    // Returns the numeric fields signed after the user id, or null when the token is not genuine
+    private long[] verifyQuietly(String token, String type, Long eventId, Long userId) {
+        try {
+            int separator = token.indexOf('.');
+            String payload = new String(Base64.getUrlDecoder().decode(token.substring(0, separator)), StandardCharsets.UTF_8);
+            byte[] signature = Base64.getUrlDecoder().decode(token.substring(separator + 1));
+            String[] parts = payload.split(":");
+            if (MessageDigest.isEqual(signature, hmac(payload)) &&
+                parts.length == (type.equals(ADMISSION_TOKEN) ? 6 : 5) &&
+                parts[0].equals(type) &&
+                parts[1].equals(String.valueOf(eventId)) &&
+                parts[2].equals(String.valueOf(userId))) {
+                long[] values = new long[parts.length - 3];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = Long.parseLong(parts[i + 3]);
+                }
+                return values;
+            }
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            // Not a token this server signed
+        }
+        return null;
+    }
+
+    private byte[] hmac(String payload) {
+        return macs.get().doFinal(payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Mac createMac() {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot initialise waiting room token signer", e);
+        }
+    }
+
+    private static class Room {
+
+        // Random, so tokens from a room that existed before a restart or on another node are told apart
+        private final long id = ThreadLocalRandom.current().nextLong();
+
+        private final AtomicLong tail = new AtomicLong();
+
+        // One bit per sequence whose admission was used; an admission cannot be replayed after its room closes
+        private final BitSet consumed = new BitSet();
+
+        private final LocalDateTime closesAt;
+
+        private volatile long admittedThrough;
+
+        private Room(LocalDateTime closesAt) {
+            this.closesAt = closesAt;
+        }
+
+        private boolean isConsumed(long sequence) {
+            synchronized (consumed) {
+                return consumed.get(index(sequence));
+            }
+        }
+
+        private boolean consume(long sequence) {
+            synchronized (consumed) {
+                int index = index(sequence);
+                if (consumed.get(index)) {
+                    return false;
+                }
+                consumed.set(index);
+                return true;
+            }
+        }
+
+        private int index(long sequence) {
+            if (sequence < 1 || sequence > tail.get()) {
+                throw new BadRequestException("Invalid waiting room token");
+            }
+            return Math.toIntExact(sequence);
+        }
+    }
+}
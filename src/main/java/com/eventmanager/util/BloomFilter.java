@@ -0,0 +1,58 @@
+package com.eventmanager.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free Bloom filter over long keys. A negative answer is definite; a positive one
+ * is wrong with roughly the false positive rate it was sized for. Keys cannot be
+ * removed, so callers pair it with an exact structure when membership can be revoked.
+ */
+public class BloomFilter {
+    
+    private final AtomicLongArray bits;
+    
+    private final long bitCount;
+    
+    private final int hashCount;
+    
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(expectedInsertions, 1);
+        long optimalBits = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Math.max((optimalBits + 63) / 64, 1), Integer.MAX_VALUE - 8);
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = (long) words * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+    }
+    
+    public void put(long key) {
+        long hash1 = mix(key);
+        long hash2 = mix(hash1) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = bits.get(word);
+            while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+                current = bits.get(word);
+            }
+        }
+    }
+    
+    public boolean mightContain(long key) {
+        long hash1 = mix(key);
+        long hash2 = mix(hash1) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xFF51AFD7ED558CCDL;
+        value = (value ^ (value >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return value ^ (value >>> 33);
+    }
+}
@@ -0,0 +1,131 @@
+package com.eventmanager.util;
+
+import com.eventmanager.exception.BadRequestException;
+import com.eventmanager.model.Event;
+import com.eventmanager.model.Ticket;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+
+import java.math.BigDecimal;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Turns keyset scroll positions into opaque URL-safe cursor tokens and back. Each sort
+ * key keeps a type tag so the decoded values bind to query parameters with their
+ * original types.
+ */
+public final class CursorCodec {
+    
+    // The only enums listings sort by; cursors name them by tag so decoding never resolves a class from client text
+    private static final Map<String, Class<? extends Enum<?>>> ENUM_TYPES = Map.of(
+            "ES", Event.EventStatus.class,
+            "TS", Ticket.TicketStatus.class);
+    
+    private CursorCodec() {
+    }
+    
+    public static String encode(ScrollPosition position) {
+        if (!(position instanceof KeysetScrollPosition keyset)) {
+            throw new IllegalArgumentException("Only keyset positions can be encoded as cursors");
+        }
+        
+        StringBuilder token = new StringBuilder();
+        for (Map.Entry<String, Object> key : keyset.getKeys().entrySet()) {
+            if (token.length() > 0) {
+                token.append('&');
+            }
+            token.append(key.getKey()).append('=').append(tag(key.getValue())).append(':')
+                    .append(key.getValue() == null ? "" : URLEncoder.encode(stringValue(key.getValue()), StandardCharsets.UTF_8));
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.toString().getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Returns the position a cursor points at, or the start of the listing when the
+     * cursor is empty.
+     */
+    public static KeysetScrollPosition decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        
+        try {
+            String token = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            Map<String, Object> keys = new LinkedHashMap<>();
+            for (String part : token.split("&")) {
+                int equals = part.indexOf('=');
+                int colon = part.indexOf(':', equals);
+                if (equals <= 0 || colon < 0) {
+                    throw new IllegalArgumentException("Malformed cursor key");
+                }
+                String value = URLDecoder.decode(part.substring(colon + 1), StandardCharsets.UTF_8);
+                keys.put(part.substring(0, equals), parse(part.substring(equals + 1, colon), value));
+            }
+            return ScrollPosition.forward(keys);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+    
+    private static String tag(Object value) {
+        if (value == null) {
+            return "N";
+        } else if (value instanceof Long) {
+            return "L";
+        } else if (value instanceof Integer) {
+            return "I";
+        } else if (value instanceof String) {
+            return "S";
+        } else if (value instanceof LocalDateTime) {
+            return "T";
+        } else if (value instanceof BigDecimal) {
+            return "D";
+        } else if (value instanceof Boolean) {
+            return "B";
+        } else if (value instanceof Enum<?> constant) {
+            for (Map.Entry<String, Class<? extends Enum<?>>> type : ENUM_TYPES.entrySet()) {
+                if (type.getValue() == constant.getDeclaringClass()) {
+                    return type.getKey();
+                }
+            }
+        }
+        throw new IllegalArgumentException("Unsupported cursor key type " + value.getClass().getName());
+    }
+    
+    private static String stringValue(Object value) {
+        return value instanceof Enum<?> constant ? constant.name() : value.toString();
+    }
+    
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object parse(String tag, String value) {
+        switch (tag) {
+            case "N":
+                return null;
+            case "L":
+                return Long.valueOf(value);
+            case "I":
+                return Integer.valueOf(value);
+            case "S":
+                return value;
+            case "T":
+                return LocalDateTime.parse(value);
+            case "D":
+                return new BigDecimal(value);
+            case "B":
+                return Boolean.valueOf(value);
+            default:
+                Class type = ENUM_TYPES.get(tag);
+                if (type == null) {
+                    throw new IllegalArgumentException("Unsupported cursor key type");
+                }
+                return Enum.valueOf(type, value);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.eventmanager.util;
+
+import com.eventmanager.dto.response.CursorPageResponse;
+import com.eventmanager.exception.BadRequestException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Cursor mode for listing endpoints. Pages are read by keyset on the requested sort,
+ * with the id appended as a tie-breaker, so neither OFFSET nor COUNT is needed; the
+ * total is only counted when the client asks for it. Each endpoint passes the properties
+ * it can sort by; they must not be null, because a keyset seek never matches a null key.
+ */
+public final class CursorPages {
+    
+    public static final int MAX_PAGE_SIZE = 100;
+    
+    private CursorPages() {
+    }
+    
+    public static <T, D> CursorPageResponse<D> scroll(JpaSpecificationExecutor<T> repository, Specification<T> specification,
+                                                      Set<String> sortable, Pageable pageable, String cursor, boolean includeTotal,
+                                                      Function<? super T, D> mapper, String... fetchedAssociations) {
+        return scrollAll(repository, specification, sortable, pageable, cursor, includeTotal,
+                entities -> entities.stream().map(mapper).collect(Collectors.toList()), fetchedAssociations);
+    }
+    
+    /**
+     * Like {@link #scroll} but hands the whole page to the mapper, so associations can be
+     * loaded for all rows in one query instead of one per row.
+     */
+    public static <T, D> CursorPageResponse<D> scrollAll(JpaSpecificationExecutor<T> repository, Specification<T> specification,
+                                                         Set<String> sortable, Pageable pageable, String cursor, boolean includeTotal,
+                                                         Function<List<T>, List<D>> mapper, String... fetchedAssociations) {
+        int size = pageable.getPageSize();
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        for (Sort.Order order : pageable.getSort()) {
+            if (!sortable.contains(order.getProperty())) {
+                throw new BadRequestException("Cannot sort by '" + order.getProperty() + "'; sortable properties are "
+                        + sortable.stream().sorted().collect(Collectors.joining(", ")));
+            }
+        }
+        
+        Sort sort = pageable.getSort().getOrderFor("id") == null
+                ? pageable.getSort().and(Sort.by("id"))
+                : pageable.getSort();
+        KeysetScrollPosition position = CursorCodec.decode(cursor);
+        if (!position.isInitial() && !position.getKeys().keySet().equals(
+                sort.stream().map(Sort.Order::getProperty).collect(Collectors.toSet()))) {
+            throw new BadRequestException("Cursor does not match the requested sort");
+        }
+        
+        Window<T> window = repository.findBy(specification, query -> {
+            var limited = query.sortBy(sort).limit(size);
+            return (fetchedAssociations.length == 0 ? limited : limited.project(fetchedAssociations)).scroll(position);
+        });
+        
+        List<D> content = mapper.apply(window.getContent());
+        String nextCursor = window.hasNext() && !window.isEmpty()
+                ? CursorCodec.encode(window.positionAt(window.size() - 1))
+                : null;
+        Long totalElements = includeTotal ? repository.count(specification) : null;
+        return new CursorPageResponse<>(content, window.hasNext(), nextCursor, totalElements);
+    }
+}
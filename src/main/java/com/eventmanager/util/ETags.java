@@ -0,0 +1,74 @@
+package com.eventmanager.util;
+
+import com.eventmanager.dto.Versioned;
+import com.eventmanager.dto.response.CursorPageResponse;
+import org.springframework.data.domain.Page;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Entity tags for conditional GETs. Single resources get a strong tag built from their
+ * revision; pages get a weak tag from the highest version on the page plus a checksum of
+ * every row's id and revision, so adding, removing or reordering rows also changes it.
+ */
+public final class ETags {
+    
+    private ETags() {
+    }
+    
+    public static String revision(Long version, Object... counters) {
+        StringBuilder revision = new StringBuilder(String.valueOf(version));
+        for (Object counter : counters) {
+            revision.append('.').append(counter);
+        }
+        return revision.toString();
+    }
+    
+    public static String strong(String revision) {
+        return "\"" + revision + "\"";
+    }
+    
+    public static String weak(Page<? extends Versioned> page) {
+        return weak(page.getContent(), page.getNumber() + "/" + page.getTotalElements());
+    }
+    
+    public static String weak(CursorPageResponse<? extends Versioned> page) {
+        return weak(page.getContent(), page.getNextCursor() + "/" + page.getTotalElements());
+    }
+    
+    /**
+     * True when an If-None-Match header lists the tag, compared weakly as RFC 9110 requires.
+     */
+    public static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        String opaque = stripWeak(eTag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || stripWeak(tag).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static String weak(List<? extends Versioned> items, String position) {
+        long maxVersion = 0;
+        CRC32 checksum = new CRC32();
+        checksum.update(position.getBytes(StandardCharsets.UTF_8));
+        for (Versioned item : items) {
+            if (item.getVersion() != null) {
+                maxVersion = Math.max(maxVersion, item.getVersion());
+            }
+            checksum.update((";" + item.getId() + ":" + item.revision()).getBytes(StandardCharsets.UTF_8));
+        }
+        return "W/\"" + maxVersion + "-" + Long.toHexString(checksum.getValue()) + "\"";
+    }
+    
+    private static String stripWeak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+}
@@ -0,0 +1,135 @@
+package com.eventmanager.util;
+
+/**
+ * Open-addressing set of primitive longs with linear probing, so large key sets cost
+ * eight bytes per slot instead of a boxed Long and a map node per entry. Not thread-safe.
+ */
+public class LongHashSet {
+    
+    private static final long EMPTY = 0L;
+    
+    private long[] slots;
+    
+    private int mask;
+    
+    private int size;
+    
+    private boolean containsEmptyKey;
+    
+    public LongHashSet(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+    
+    public boolean add(long key) {
+        if (key == EMPTY) {
+            if (containsEmptyKey) {
+                return false;
+            }
+            containsEmptyKey = true;
+            size++;
+            return true;
+        }
+        
+        int index = indexOf(key);
+        while (slots[index] != EMPTY) {
+            if (slots[index] == key) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        slots[index] = key;
+        if (++size * 2 > slots.length) {
+            rehash(slots.length * 2);
+        }
+        return true;
+    }
+    
+    public boolean contains(long key) {
+        if (key == EMPTY) {
+            return containsEmptyKey;
+        }
+        
+        int index = indexOf(key);
+        while (slots[index] != EMPTY) {
+            if (slots[index] == key) {
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+    
+    public boolean remove(long key) {
+        if (key == EMPTY) {
+            if (!containsEmptyKey) {
+                return false;
+            }
+            containsEmptyKey = false;
+            size--;
+            return true;
+        }
+        
+        int index = indexOf(key);
+        while (slots[index] != key) {
+            if (slots[index] == EMPTY) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        
+        // Shift later keys of the same probe run back so lookups never stop at the hole
+        int gap = index;
+        int next = index;
+        while (true) {
+            next = (next + 1) & mask;
+            long candidate = slots[next];
+            if (candidate == EMPTY) {
+                break;
+            }
+            int home = indexOf(candidate);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                slots[gap] = candidate;
+                gap = next;
+            }
+        }
+        slots[gap] = EMPTY;
+        size--;
+        return true;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    private int indexOf(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+    
+    private void rehash(int capacity) {
+        long[] previous = slots;
+        allocate(capacity);
+        for (long key : previous) {
+            if (key != EMPTY) {
+                int index = indexOf(key);
+                while (slots[index] != EMPTY) {
+                    index = (index + 1) & mask;
+                }
+                slots[index] = key;
+            }
+        }
+    }
+    
+    private void allocate(int capacity) {
+        slots = new long[capacity];
+        mask = capacity - 1;
+    }
+    
+    private static int capacityFor(int expectedSize) {
+        int capacity = 16;
+        while (capacity < expectedSize * 2 && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
@@ -3,26 +3,66 @@ package com.eventmanager.util;
 import com.eventmanager.exception.BadRequestException;
 import com.eventmanager.model.User;
 import com.eventmanager.repository.UserRepository;
+import com.eventmanager.security.services.UserDetailsImpl;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 @Component
 public class SecurityUtils {
     
+    private static final String CURRENT_USER_ATTRIBUTE = SecurityUtils.class.getName() + ".CURRENT_USER";
+    
     @Autowired
     private UserRepository userRepository;
     
-    public User getCurrentUser() {
+    /**
+     * The id is taken from the authenticated principal, so no query is run.
+     */
+    public Long getCurrentUserId() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !authentication.isAuthenticated()) {
+        if (authentication == null || !authentication.isAuthenticated()
+                || !(authentication.getPrincipal() instanceof UserDetailsImpl)) {
             throw new BadRequestException("No authenticated user found");
         }
         
-        String email = authentication.getName();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new BadRequestException("Current user not found in database"));
+        return ((UserDetailsImpl) authentication.getPrincipal()).getId();
+    }
+    
+    /**
+     * Loads the current user, at most once per request.
+     */
+    public User getCurrentUser() {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        User user = request != null
+                ? (User) request.getAttribute(CURRENT_USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST)
+                : null;
+        if (user == null) {
+            user = userRepository.findById(getCurrentUserId())
+                    .orElseThrow(() -> new BadRequestException("Current user not found in database"));
+            if (request != null) {
+                request.setAttribute(CURRENT_USER_ATTRIBUTE, user, RequestAttributes.SCOPE_REQUEST);
+            }
+        }
+        return user;
+    }
+    
+    /**
+     * The current user when this request already loaded it, otherwise an uninitialized reference
+     * that is enough to set a foreign key.
+     */
+    public User getCurrentUserReference() {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null) {
+            User user = (User) request.getAttribute(CURRENT_USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            if (user != null) {
+                return user;
+            }
+        }
+        return userRepository.getReferenceById(getCurrentUserId());
     }
     
     public boolean isAdmin() {
@@ -0,0 +1,136 @@
+package com.eventmanager.util;
+
+import com.eventmanager.model.Ticket;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.regex.Pattern;
+
+/**
+ * Renders ticket keys as fixed-width Crockford base32 codes and parses them back. The
+ * time-ordered key only identifies the ticket internally; a code is the key followed by
+ * a check segment, an HMAC of the key under a server secret, so codes cannot be guessed
+ * from the ones around them and a forged code is refused before any lookup.
+ * Tickets issued before compact keys keep their random UUID ticket number, which is still
+ * accepted everywhere a ticket number is.
+ */
+@Component
+public class TicketCodes {
+    
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    
+    private static final int KEY_LENGTH = 13;
+    
+    private static final int CHECK_LENGTH = 8;
+    
+    private static final int CODE_LENGTH = KEY_LENGTH + CHECK_LENGTH;
+    
+    private static final Pattern LEGACY_NUMBER =
+            Pattern.compile("[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}");
+    
+    @Value("${tickets.number.secret}")
+    private String secret;
+    
+    private final ThreadLocal<Mac> macs = ThreadLocal.withInitial(this::createMac);
+    
+    public String format(long key) {
+        char[] code = new char[CODE_LENGTH];
+        encode(key, code, 0, KEY_LENGTH);
+        encode(check(key), code, KEY_LENGTH, CHECK_LENGTH);
+        return new String(code);
+    }
+    
+    public String display(Ticket ticket) {
+        return ticket.getTicketKey() != null ? format(ticket.getTicketKey()) : ticket.getTicketNumber();
+    }
+    
+    /**
+     * Returns the key encoded in a ticket code, or null when the value is not a compact
+     * code or its check segment does not match the key.
+     */
+    public Long parseKey(String ticketNumber) {
+        if (ticketNumber == null || ticketNumber.length() != CODE_LENGTH) {
+            return null;
+        }
+        long key = decode(ticketNumber, 0, KEY_LENGTH);
+        long check = decode(ticketNumber, KEY_LENGTH, CHECK_LENGTH);
+        // The leading character only carries the top three bits of a 63-bit key
+        if (key < 0 || check < 0 || decode(ticketNumber.charAt(0)) > 7) {
+            return null;
+        }
+        return check == check(key) ? key : null;
+    }
+    
+    /**
+     * Whether the value has the shape of a ticket number issued before compact keys.
+     * Anything that is neither a legacy number nor a valid code can be rejected unseen.
+     */
+    public boolean isLegacy(String ticketNumber) {
+        return ticketNumber != null && LEGACY_NUMBER.matcher(ticketNumber).matches();
+    }
+    
+    /**
+     * The 40-bit check segment of a key, as carried in gate manifests so offline scanners
+     * can verify codes without holding the secret.
+     */
+    public long check(long key) {
+        byte[] digest = macs.get().doFinal(ByteBuffer.allocate(Long.BYTES).putLong(key).array());
+        long check = 0;
+        for (int i = 0; i < 5; i++) {
+            check = (check << 8) | (digest[i] & 0xFF);
+        }
+        return check;
+    }
+    
+    private static void encode(long value, char[] code, int offset, int length) {
+        for (int i = offset + length - 1; i >= offset; i--) {
+            code[i] = ALPHABET[(int) (value & 31)];
+            value >>>= 5;
+        }
+    }
+    
+    private static long decode(String code, int offset, int length) {
+        long value = 0;
+        for (int i = offset; i < offset + length; i++) {
+            int digit = decode(code.charAt(i));
+            if (digit < 0) {
+                return -1;
+            }
+            value = (value << 5) | digit;
+        }
+        return value;
+    }
+    
+    private static int decode(char c) {
+        char upper = Character.toUpperCase(c);
+        switch (upper) {
+            case 'O':
+                return 0;
+            case 'I':
+            case 'L':
+                return 1;
+            default:
+                for (int i = 0; i < ALPHABET.length; i++) {
+                    if (ALPHABET[i] == upper) {
+                        return i;
+                    }
+                }
+                return -1;
+        }
+    }
+    
+    private Mac createMac() {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot initialise ticket code signer", e);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.eventmanager.util;
+
+/**
+ * Source of compact ticket keys. Keys are internal identifiers; they are rendered for
+ * display and QR codes, with an unguessable check segment, by {@link TicketCodes#format(long)}.
+ */
+public interface TicketNumberGenerator {
+    
+    long nextKey();
+}
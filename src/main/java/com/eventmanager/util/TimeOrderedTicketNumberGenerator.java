@@ -0,0 +1,51 @@
+package com.eventmanager.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 63-bit time-ordered keys: 41 bits of milliseconds since 2024-01-01, 10 bits of node
+ * id and a 12-bit per-millisecond sequence. New tickets therefore land at the right
+ * edge of the unique index instead of at random positions. The keys are predictable, so
+ * they never leave the server without the check segment added by {@link TicketCodes}.
+ */
+@Component
+public class TimeOrderedTicketNumberGenerator implements TicketNumberGenerator {
+    
+    private static final long EPOCH_MILLIS = 1704067200000L;
+    
+    private static final int NODE_BITS = 10;
+    
+    private static final int SEQUENCE_BITS = 12;
+    
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    
+    private final long nodeId;
+    
+    private long lastMillis = -1;
+    
+    private long sequence;
+    
+    public TimeOrderedTicketNumberGenerator(@Value("${tickets.number.node-id}") long nodeId) {
+        if (nodeId < 0 || nodeId >= (1L << NODE_BITS)) {
+            throw new IllegalArgumentException("tickets.number.node-id must be between 0 and " + ((1L << NODE_BITS) - 1));
+        }
+        this.nodeId = nodeId;
+    }
+    
+    @Override
+    public synchronized long nextKey() {
+        // Never step backwards if the wall clock does
+        long now = Math.max(System.currentTimeMillis(), lastMillis);
+        if (now == lastMillis) {
+            sequence = (sequence + 1) & SEQUENCE_MASK;
+            if (sequence == 0) {
+                now = ++lastMillis;
+            }
+        } else {
+            sequence = 0;
+        }
+        lastMillis = now;
+        return ((now - EPOCH_MILLIS) << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+    }
+}
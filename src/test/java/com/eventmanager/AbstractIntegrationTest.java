@@ -0,0 +1,132 @@
+package com.eventmanager;
+
+import com.eventmanager.dto.request.PurchaseTicketRequest;
+import com.eventmanager.model.Event;
+import com.eventmanager.model.Role;
+import com.eventmanager.model.User;
+import com.eventmanager.model.Venue;
+import com.eventmanager.repository.EventRepository;
+import com.eventmanager.repository.RoleRepository;
+import com.eventmanager.repository.UserRepository;
+import com.eventmanager.repository.VenueRepository;
+import com.eventmanager.security.jwt.JwtUtils;
+import com.eventmanager.security.services.UserDetailsImpl;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Boots the whole application on the in-memory H2 database, shared by every integration
+ * test through Spring's context cache. Each test creates its own rows with unique names
+ * instead of rolling back, so code that commits and acts after commit runs as in production.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public abstract class AbstractIntegrationTest {
+
+    @Autowired
+    protected MockMvc mockMvc;
+
+    @Autowired
+    protected UserRepository userRepository;
+
+    @Autowired
+    protected RoleRepository roleRepository;
+
+    @Autowired
+    protected VenueRepository venueRepository;
+
+    @Autowired
+    protected EventRepository eventRepository;
+
+    @Autowired
+    protected JwtUtils jwtUtils;
+
+    @Autowired
+    protected TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    protected User createUser(Role.ERole role) {
+        User user = new User();
+        user.setFirstName("Test");
+        user.setLastName("User");
+        user.setEmail(UUID.randomUUID().toString().substring(0, 18) + "@example.com");
+        user.setPassword("not-a-real-hash");
+        user.setRoles(Set.of(roleRepository.findByName(role).orElseThrow()));
+        return userRepository.save(user);
+    }
+
+    protected Venue createVenue() {
+        Venue venue = new Venue();
+        venue.setName("Hall " + UUID.randomUUID().toString().substring(0, 8));
+        venue.setAddress("1 Main Street");
+        venue.setCity("Springfield");
+        venue.setCapacity(1000);
+        return venueRepository.save(venue);
+    }
+
+    protected Event createEvent(Venue venue, Integer maxAttendees) {
+        Event event = new Event();
+        event.setName("Show " + UUID.randomUUID().toString().substring(0, 8));
+        event.setStartDateTime(LocalDateTime.now().plusDays(7));
+        event.setEndDateTime(LocalDateTime.now().plusDays(7).plusHours(3));
+        event.setVenue(venue);
+        event.setStatus(Event.EventStatus.PUBLISHED);
+        event.setMaxAttendees(maxAttendees);
+        event.setTicketPrice(BigDecimal.TEN);
+        return eventRepository.save(event);
+    }
+
+    protected static PurchaseTicketRequest purchaseRequest(Long eventId, int quantity) {
+        PurchaseTicketRequest request = new PurchaseTicketRequest();
+        request.setEventId(eventId);
+        request.setQuantity(quantity);
+        return request;
+    }
+
+    /**
+     * Authenticates the calling thread as the user, as AuthTokenFilter does for a request.
+     */
+    protected void authenticate(User user) {
+        UserDetailsImpl principal = UserDetailsImpl.build(user);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    protected String bearerToken(User user) {
+        Date issuedAt = new Date();
+        Date expiresAt = new Date(issuedAt.getTime() + jwtUtils.getJwtExpirationMs());
+        return "Bearer " + jwtUtils.generateJwtToken(UserDetailsImpl.build(user),
+                ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE), issuedAt, expiresAt);
+    }
+
+    protected Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    protected void evictSecondLevelCache() {
+        entityManagerFactory.getCache().evictAll();
+    }
+}
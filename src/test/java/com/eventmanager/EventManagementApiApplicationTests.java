@@ -0,0 +1,12 @@
+package com.eventmanager;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+class EventManagementApiApplicationTests {
+
+    @Test
+    void contextLoads() {
+    }
+}
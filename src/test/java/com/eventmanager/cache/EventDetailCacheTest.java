@@ -0,0 +1,93 @@
+package com.eventmanager.cache;
+
+import com.eventmanager.AbstractIntegrationTest;
+import com.eventmanager.dto.EventDTO;
+import com.eventmanager.model.Event;
+import com.eventmanager.model.Role;
+import com.eventmanager.service.EventService;
+import com.eventmanager.service.TicketService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventDetailCacheTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private EventDetailCache eventDetailCache;
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private TicketService ticketService;
+
+    private Event event;
+
+    @BeforeEach
+    void setUp() {
+        event = createEvent(createVenue(), 100);
+    }
+
+    @Test
+    void eventIsDroppedOnlyOnceTheWritingTransactionCommits() {
+        eventDetailCache.getEvent(event.getId(), named("before"));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            eventDetailCache.eventChanged(event.getId());
+            // A reader during the write still sees the committed body and cannot re-cache the old row
+            assertThat(eventDetailCache.getEvent(event.getId(), named("during")).getName()).isEqualTo("before");
+        });
+
+        assertThat(eventDetailCache.getEvent(event.getId(), named("after")).getName()).isEqualTo("after");
+    }
+
+    @Test
+    void rolledBackWriteKeepsTheCachedEvent() {
+        eventDetailCache.getEvent(event.getId(), named("before"));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            eventDetailCache.eventChanged(event.getId());
+            status.setRollbackOnly();
+        });
+
+        assertThat(eventDetailCache.getEvent(event.getId(), named("after")).getName()).isEqualTo("before");
+    }
+
+    @Test
+    void freshTicketCountsAreLaidOverACopyOfTheCachedBody() {
+        assertThat(getEvent().getSoldTickets()).isZero();
+        authenticate(createUser(Role.ERole.ROLE_USER));
+        ticketService.purchaseTicket(purchaseRequest(event.getId(), 3));
+        ticketService.holdTickets(purchaseRequest(event.getId(), 2));
+
+        EventDTO detail = getEvent();
+
+        assertThat(detail.getSoldTickets()).isEqualTo(3);
+        assertThat(detail.getReservedTickets()).isEqualTo(2);
+        assertThat(detail.getAvailableTickets()).isEqualTo(95);
+        // The body is still the cached one, and the overlay never wrote into it
+        EventDTO cached = eventDetailCache.getEvent(event.getId(), named("reloaded"));
+        assertThat(cached.getName()).isEqualTo(event.getName());
+        assertThat(cached.getSoldTickets()).isZero();
+        cached.setName("edited by a caller");
+        assertThat(eventDetailCache.getEvent(event.getId(), named("reloaded")).getName()).isEqualTo(event.getName());
+    }
+
+    // Requests read the lazy associations through open-in-view; tests need their own session
+    private EventDTO getEvent() {
+        return transactionTemplate.execute(status -> eventService.getEventById(event.getId()));
+    }
+
+    private static Function<Long, EventDTO> named(String name) {
+        return id -> {
+            EventDTO dto = new EventDTO();
+            dto.setId(id);
+            dto.setName(name);
+            return dto;
+        };
+    }
+}
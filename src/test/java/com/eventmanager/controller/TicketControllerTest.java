@@ -0,0 +1,81 @@
+package com.eventmanager.controller;
+
+import com.eventmanager.AbstractIntegrationTest;
+import com.eventmanager.model.Event;
+import com.eventmanager.model.Role;
+import com.eventmanager.model.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class TicketControllerTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Event event;
+
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        event = createEvent(createVenue(), 100);
+        User user = createUser(Role.ERole.ROLE_USER);
+        token = bearerToken(user);
+    }
+
+    @Test
+    void listingOwnTicketsCostsTheSameQueriesWhateverTheirNumber() throws Exception {
+        mockMvc.perform(purchase(1)).andExpect(status().isCreated());
+        long oneTicket = countQueries(get("/tickets/user").header("Authorization", token), 1);
+
+        mockMvc.perform(purchase(4)).andExpect(status().isCreated());
+        long fiveTickets = countQueries(get("/tickets/user").header("Authorization", token), 5);
+
+        assertThat(fiveTickets).isEqualTo(oneTicket);
+    }
+
+    @Test
+    void purchasingCostsTheSameQueriesWhateverTheQuantity() throws Exception {
+        // The first request also warms the token version and event caches
+        mockMvc.perform(purchase(1)).andExpect(status().isCreated());
+
+        long oneTicket = countPurchaseQueries(1);
+        long threeTickets = countPurchaseQueries(3);
+
+        assertThat(threeTickets).isEqualTo(oneTicket).isLessThanOrEqualTo(6);
+    }
+
+    private long countQueries(RequestBuilder request, int expectedTickets) throws Exception {
+        statistics().clear();
+        mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(expectedTickets));
+        // The owner's name and email are rendered once, not looked up per ticket or by the filter
+        assertThat(statistics().getEntityStatistics(User.class.getName()).getLoadCount()).isLessThanOrEqualTo(1);
+        return statistics().getPrepareStatementCount();
+    }
+
+    private long countPurchaseQueries(int quantity) throws Exception {
+        statistics().clear();
+        mockMvc.perform(purchase(quantity)).andExpect(status().isCreated());
+        assertThat(statistics().getEntityStatistics(User.class.getName()).getLoadCount()).isLessThanOrEqualTo(1);
+        return statistics().getPrepareStatementCount();
+    }
+
+    private RequestBuilder purchase(int quantity) throws Exception {
+        return post("/tickets/purchase")
+                .header("Authorization", token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(purchaseRequest(event.getId(), quantity)));
+    }
+}
@@ -0,0 +1,55 @@
+package com.eventmanager.controller;
+
+import com.eventmanager.AbstractIntegrationTest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class VenueControllerTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void cursorPagesRefuseToSortByANullableColumn() throws Exception {
+        // Test venues leave state empty; seeking past a null key would silently end the listing
+        createVenue();
+
+        mockMvc.perform(get("/venues").param("cursor", "").param("sort", "state"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", startsWith("Cannot sort by 'state'")));
+        mockMvc.perform(get("/venues").param("cursor", "").param("sort", "name").param("sort", "password"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void cursorPagesOnAWhitelistedSortVisitEveryVenueOnce() throws Exception {
+        createVenue();
+        createVenue();
+        createVenue();
+
+        List<Long> seen = new ArrayList<>();
+        String cursor = "";
+        do {
+            String body = mockMvc.perform(get("/venues").param("cursor", cursor)
+                            .param("sort", "capacity,desc").param("size", "2"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            JsonNode page = objectMapper.readTree(body);
+            page.get("content").forEach(venue -> seen.add(venue.get("id").asLong()));
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+        } while (cursor != null);
+
+        assertThat(seen).doesNotHaveDuplicates().hasSize((int) venueRepository.count());
+    }
+}
@@ -0,0 +1,116 @@
+package com.eventmanager.gate;
+
+import com.eventmanager.model.Event;
+import com.eventmanager.model.Ticket;
+import com.eventmanager.repository.EventRepository;
+import com.eventmanager.repository.TicketRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class GateValidationIndexTest {
+
+    private static final long EVENT_ID = 7L;
+
+    private GateValidationIndex gateValidationIndex;
+
+    private TicketRepository ticketRepository;
+
+    @BeforeEach
+    void setUp() {
+        Event event = new Event();
+        event.setId(EVENT_ID);
+        event.setStartDateTime(LocalDateTime.now().minusMinutes(30));
+        event.setEndDateTime(LocalDateTime.now().plusHours(3));
+        event.setMaxAttendees(100);
+
+        EventRepository eventRepository = mock(EventRepository.class);
+        when(eventRepository.findEventsWithOpenDoors(eq(Event.EventStatus.PUBLISHED), any(), any()))
+                .thenReturn(List.of(event));
+        ticketRepository = mock(TicketRepository.class);
+
+        gateValidationIndex = new GateValidationIndex();
+        ReflectionTestUtils.setField(gateValidationIndex, "enabled", true);
+        ReflectionTestUtils.setField(gateValidationIndex, "preloadMinutes", 120L);
+        ReflectionTestUtils.setField(gateValidationIndex, "rebuildMs", 300000L);
+        ReflectionTestUtils.setField(gateValidationIndex, "bloomFalsePositiveRate", 0.01);
+        ReflectionTestUtils.setField(gateValidationIndex, "eventRepository", eventRepository);
+        ReflectionTestUtils.setField(gateValidationIndex, "ticketRepository", ticketRepository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void answersIndexedTicketsAndLeavesMissesToTheDatabase() {
+        givenPaidTickets(1L, 2L);
+        gateValidationIndex.refresh();
+
+        assertThat(gateValidationIndex.validate(1L, EVENT_ID, LocalDateTime.now())).isTrue();
+        // Possibly sold on another node since the load
+        assertThat(gateValidationIndex.validate(3L, EVENT_ID, LocalDateTime.now())).isNull();
+    }
+
+    @Test
+    void rejectsRevokedTicketsFromMemory() {
+        givenPaidTickets(1L);
+        gateValidationIndex.refresh();
+
+        gateValidationIndex.ticketRevoked(EVENT_ID, 1L);
+
+        assertThat(gateValidationIndex.validate(1L, EVENT_ID, LocalDateTime.now())).isFalse();
+    }
+
+    @Test
+    void keepsTicketsIssuedByATransactionThatCommitsAfterTheLoad() {
+        TransactionSynchronizationManager.initSynchronization();
+        gateValidationIndex.ticketsIssued(EVENT_ID, List.of(5L));
+
+        // The index appears while the purchase is still uncommitted, so the load cannot see it
+        givenPaidTickets();
+        gateValidationIndex.refresh();
+        commit();
+
+        assertThat(gateValidationIndex.validate(5L, EVENT_ID, LocalDateTime.now())).isTrue();
+    }
+
+    @Test
+    void rebuildPicksUpChangesMadeOnOtherNodes() {
+        givenPaidTickets(1L);
+        gateValidationIndex.refresh();
+
+        ReflectionTestUtils.setField(gateValidationIndex, "rebuildMs", 0L);
+        givenPaidTickets(2L);
+        gateValidationIndex.refresh();
+
+        assertThat(gateValidationIndex.validate(2L, EVENT_ID, LocalDateTime.now())).isTrue();
+        assertThat(gateValidationIndex.validate(1L, EVENT_ID, LocalDateTime.now())).isNull();
+    }
+
+    private void givenPaidTickets(Long... ticketKeys) {
+        when(ticketRepository.findTicketKeysByEventAndStatus(EVENT_ID, Ticket.TicketStatus.PAID))
+                .thenReturn(List.of(ticketKeys));
+    }
+
+    private static void commit() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+    }
+}
@@ -0,0 +1,161 @@
+package com.eventmanager.inventory;
+
+import com.eventmanager.AbstractIntegrationTest;
+import com.eventmanager.dto.TicketDTO;
+import com.eventmanager.exception.BadRequestException;
+import com.eventmanager.model.Event;
+import com.eventmanager.model.Role;
+import com.eventmanager.model.Ticket;
+import com.eventmanager.repository.TicketRepository;
+import com.eventmanager.service.TicketService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+class HoldExpiryWheelTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private HoldExpiryWheel holdExpiryWheel;
+
+    @BeforeEach
+    void setUp() {
+        authenticate(createUser(Role.ERole.ROLE_USER));
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField(ticketService, "holdTtlSeconds", 600L);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void confirmedHoldBecomesPaid() {
+        Event event = createEvent(createVenue(), 10);
+
+        TicketDTO held = ticketService.holdTickets(purchaseRequest(event.getId(), 2));
+        List<TicketDTO> confirmed = ticketService.confirmHold(held.getHoldReference());
+
+        assertThat(confirmed).hasSize(2).allMatch(ticket -> ticket.getStatus() == Ticket.TicketStatus.PAID);
+        Event reloaded = eventRepository.findById(event.getId()).orElseThrow();
+        assertThat(reloaded.getAllocatedTickets()).isEqualTo(2);
+        assertThat(reloaded.getReservedTickets()).isZero();
+        assertThat(reloaded.getPaidTickets()).isEqualTo(2);
+    }
+
+    @Test
+    void wheelExpiresHoldsAndReturnsTheirCapacity() throws Exception {
+        ReflectionTestUtils.setField(ticketService, "holdTtlSeconds", 1L);
+        Event event = createEvent(createVenue(), 10);
+
+        TicketDTO held = ticketService.holdTickets(purchaseRequest(event.getId(), 3));
+        assertThat(eventRepository.findById(event.getId()).orElseThrow().getAllocatedTickets()).isEqualTo(3);
+
+        // The scheduled tick runs every second
+        awaitStatus(held.getHoldReference(), Ticket.TicketStatus.CANCELLED);
+
+        Event reloaded = eventRepository.findById(event.getId()).orElseThrow();
+        assertThat(reloaded.getAllocatedTickets()).isZero();
+        assertThat(reloaded.getReservedTickets()).isZero();
+        assertThat(reloaded.getCancelledTickets()).isEqualTo(3);
+        assertThatThrownBy(() -> ticketService.confirmHold(held.getHoldReference()))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void recoverySweepExpiresHoldsTheWheelDoesNotKnow() {
+        Event event = createEvent(createVenue(), 10);
+        TicketDTO held = ticketService.holdTickets(purchaseRequest(event.getId(), 2));
+
+        // As if the hold had been scheduled before a restart and its deadline had passed since
+        for (Ticket ticket : ticketRepository.findByHoldReference(held.getHoldReference())) {
+            ticket.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+            ticketRepository.save(ticket);
+        }
+        holdExpiryWheel.sweepOverdueHolds();
+
+        assertThat(ticketRepository.findByHoldReference(held.getHoldReference()))
+                .allMatch(ticket -> ticket.getStatus() == Ticket.TicketStatus.CANCELLED);
+        assertThat(eventRepository.findById(event.getId()).orElseThrow().getAllocatedTickets()).isZero();
+    }
+
+    @Test
+    void holdIsOnlyTrackedOnceItsTransactionCommits() {
+        TicketBatchWriter ticketBatchWriter = mock(TicketBatchWriter.class);
+        HoldExpiryWheel wheel = newWheel(ticketBatchWriter);
+
+        TransactionSynchronizationManager.initSynchronization();
+        wheel.schedule("rolled-back", 1L, LocalDateTime.now().minusSeconds(1));
+        tick(wheel);
+        verifyNoInteractions(ticketBatchWriter);
+
+        wheel.schedule("committed", 1L, LocalDateTime.now().minusSeconds(1));
+        TransactionSynchronizationManager.getSynchronizations().get(1).afterCommit();
+        TransactionSynchronizationManager.clearSynchronization();
+        tick(wheel);
+
+        verify(ticketBatchWriter).expireHolds(1L, List.of("committed"));
+        verifyNoMoreInteractions(ticketBatchWriter);
+    }
+
+    @Test
+    void holdWhoseSlotWasAlreadySweptExpiresOnTheNextTick() {
+        TicketBatchWriter ticketBatchWriter = mock(TicketBatchWriter.class);
+        HoldExpiryWheel wheel = newWheel(ticketBatchWriter);
+        tick(wheel);
+
+        // Its deadline falls in a tick the wheel has already swept
+        wheel.schedule("late", 2L, LocalDateTime.now().minusSeconds(30));
+        tick(wheel);
+
+        verify(ticketBatchWriter).expireHolds(2L, List.of("late"));
+    }
+
+    private static HoldExpiryWheel newWheel(TicketBatchWriter ticketBatchWriter) {
+        HoldExpiryWheel wheel = new HoldExpiryWheel();
+        ReflectionTestUtils.setField(wheel, "tickMs", 1000L);
+        ReflectionTestUtils.setField(wheel, "wheelSize", 64);
+        ReflectionTestUtils.setField(wheel, "ticketBatchWriter", ticketBatchWriter);
+        wheel.init();
+        return wheel;
+    }
+
+    // Moves the wheel's clock one tick on and runs the tick, instead of waiting a second
+    private static void tick(HoldExpiryWheel wheel) {
+        long startMillis = (long) ReflectionTestUtils.getField(wheel, "startMillis");
+        ReflectionTestUtils.setField(wheel, "startMillis", startMillis - 1000L);
+        wheel.advance();
+    }
+
+    private void awaitStatus(String holdReference, Ticket.TicketStatus status) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (System.currentTimeMillis() < deadline) {
+            if (ticketRepository.findByHoldReference(holdReference).stream().allMatch(ticket -> ticket.getStatus() == status)) {
+                return;
+            }
+            Thread.sleep(100);
+        }
+        assertThat(ticketRepository.findByHoldReference(holdReference))
+                .allMatch(ticket -> ticket.getStatus() == status);
+    }
+}
@@ -0,0 +1,106 @@
+package com.eventmanager.inventory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares claiming one ticket of a hot event on the database path with taking it from the
+ * ledger. "databaseRow" runs the guarded allocated-ticket update every purchase commits, on
+ * one H2 events row shared by all buyer threads; "stripedLedger" takes the unit from a
+ * {@link StripedInventory}. Not run by the test suite; start it with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.eventmanager.inventory.InventoryLedgerBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class InventoryLedgerBenchmark {
+
+    private static final String URL = "jdbc:h2:mem:ledger-benchmark;DB_CLOSE_DELAY=-1";
+
+    private static final String ALLOCATE = "UPDATE events SET allocated_tickets = allocated_tickets + ? " +
+            "WHERE id = 1 AND allocated_tickets + ? <= max_attendees";
+
+    private Connection schema;
+
+    private StripedInventory inventory;
+
+    @Setup
+    public void setUp() throws SQLException {
+        schema = DriverManager.getConnection(URL);
+        try (Statement statement = schema.createStatement()) {
+            statement.execute("CREATE TABLE events (id BIGINT PRIMARY KEY, max_attendees INT, allocated_tickets INT)");
+            statement.execute("INSERT INTO events VALUES (1, " + Integer.MAX_VALUE + ", 0)");
+        }
+        inventory = new StripedInventory(16, Long.MAX_VALUE / 2);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Statement statement = schema.createStatement()) {
+            statement.execute("DROP TABLE events");
+        }
+        schema.close();
+    }
+
+    @Benchmark
+    public boolean databaseRow(Buyer buyer) throws SQLException {
+        buyer.allocate.setInt(1, 1);
+        buyer.allocate.setInt(2, 1);
+        return buyer.allocate.executeUpdate() == 1;
+    }
+
+    @Benchmark
+    public boolean stripedLedger(Buyer buyer) {
+        return inventory.tryTake(buyer.userHash, 1);
+    }
+
+    @State(Scope.Thread)
+    public static class Buyer {
+
+        private final long userHash = ThreadLocalRandom.current().nextLong();
+
+        private Connection connection;
+
+        private PreparedStatement allocate;
+
+        @Setup
+        public void setUp() throws SQLException {
+            connection = DriverManager.getConnection(URL);
+            allocate = connection.prepareStatement(ALLOCATE);
+        }
+
+        @TearDown
+        public void tearDown() throws SQLException {
+            connection.close();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(InventoryLedgerBenchmark.class.getSimpleName()).build()).run();
+    }
+}
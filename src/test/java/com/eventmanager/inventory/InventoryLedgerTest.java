@@ -0,0 +1,181 @@
+package com.eventmanager.inventory;
+
+import com.eventmanager.AbstractIntegrationTest;
+import com.eventmanager.exception.BadRequestException;
+import com.eventmanager.job.CounterReconciliationJob;
+import com.eventmanager.model.Event;
+import com.eventmanager.model.Role;
+import com.eventmanager.model.Ticket;
+import com.eventmanager.model.User;
+import com.eventmanager.repository.TicketRepository;
+import com.eventmanager.service.TicketService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InventoryLedgerTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private InventoryLedger inventoryLedger;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private TicketBatchWriter ticketBatchWriter;
+
+    @Autowired
+    private CounterReconciliationJob counterReconciliationJob;
+
+    @BeforeEach
+    void enableLedger() {
+        // Every event is hot from its first purchase
+        ReflectionTestUtils.setField(inventoryLedger, "enabled", true);
+        ReflectionTestUtils.setField(inventoryLedger, "activationRate", 1L);
+    }
+
+    @AfterEach
+    void disableLedger() {
+        inventoryLedger.shutdown();
+        ReflectionTestUtils.setField(inventoryLedger, "enabled", false);
+        ReflectionTestUtils.setField(inventoryLedger, "activationRate", 200L);
+        ReflectionTestUtils.setField(inventoryLedger, "leaseBlock", 500);
+    }
+
+    @Test
+    void sellsExactlyTheCapacityAndWritesEveryTicket() throws Exception {
+        sellOut(50);
+    }
+
+    @Test
+    void sellsExactlyTheCapacityWhenLeasingInSmallBlocks() throws Exception {
+        ReflectionTestUtils.setField(inventoryLedger, "leaseBlock", 7);
+        sellOut(50);
+    }
+
+    @Test
+    void leasesOneBlockAtATimeAndTopsUpWhenLow() {
+        ReflectionTestUtils.setField(inventoryLedger, "leaseBlock", 10);
+        Event event = createEvent(createVenue(), 50);
+
+        // The first purchase only marks the event hot; the flush thread takes the lease
+        purchase(event, 1);
+        inventoryLedger.flush();
+        assertThat(eventRepository.findById(event.getId()).orElseThrow().getLeasedTickets()).isEqualTo(10);
+
+        purchase(event, 6);
+        inventoryLedger.flush();
+        // Four left is under half a block, so the flush leased a second one
+        Event topped = eventRepository.findById(event.getId()).orElseThrow();
+        assertThat(topped.getAllocatedTickets()).isEqualTo(21);
+        assertThat(topped.getLeasedTickets()).isEqualTo(14);
+
+        purchase(event, 10);
+        inventoryLedger.shutdown();
+
+        assertThat(ticketRepository.findTicketKeysByEventAndStatus(event.getId(), Ticket.TicketStatus.PAID)).hasSize(17);
+        Event reloaded = eventRepository.findById(event.getId()).orElseThrow();
+        assertThat(reloaded.getAllocatedTickets()).isEqualTo(17);
+        assertThat(reloaded.getLeasedTickets()).isZero();
+    }
+
+    @Test
+    void reconciliationKeepsCapacityLeasedByAnotherNode() {
+        Event event = createEvent(createVenue(), 50);
+        ReflectionTestUtils.setField(inventoryLedger, "enabled", false);
+        purchase(event, 3);
+        // Leased as another node's ledger would, so this JVM holds no ledger for the event
+        assertThat(ticketBatchWriter.leaseCapacity(event.getId(), 10)).isEqualTo(10);
+
+        counterReconciliationJob.reconcileCounters();
+
+        Event reconciled = eventRepository.findById(event.getId()).orElseThrow();
+        assertThat(reconciled.getAllocatedTickets()).isEqualTo(13);
+        assertThat(reconciled.getLeasedTickets()).isEqualTo(10);
+        ticketBatchWriter.releaseLease(event.getId(), 10);
+        assertThat(eventRepository.findById(event.getId()).orElseThrow().getAllocatedTickets()).isEqualTo(3);
+    }
+
+    private void purchase(Event event, int buyers) {
+        for (int i = 0; i < buyers; i++) {
+            authenticate(createUser(Role.ERole.ROLE_USER));
+            ticketService.purchaseTicket(purchaseRequest(event.getId(), 1));
+        }
+    }
+
+    private void sellOut(int capacity) throws Exception {
+        Event event = createEvent(createVenue(), capacity);
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            users.add(createUser(Role.ERole.ROLE_USER));
+        }
+
+        AtomicInteger sold = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<?>> purchases = new ArrayList<>();
+            for (User user : users) {
+                purchases.add(executor.submit(() -> {
+                    start.await();
+                    authenticate(user);
+                    try {
+                        ticketService.purchaseTicket(purchaseRequest(event.getId(), 1));
+                        sold.incrementAndGet();
+                    } catch (BadRequestException e) {
+                        // Sold out
+                    } finally {
+                        SecurityContextHolder.clearContext();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> purchase : purchases) {
+                purchase.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        inventoryLedger.shutdown();
+
+        assertThat(sold).hasValue(capacity);
+        assertThat(ticketRepository.findTicketKeysByEventAndStatus(event.getId(), Ticket.TicketStatus.PAID)).hasSize(capacity);
+        Event reloaded = eventRepository.findById(event.getId()).orElseThrow();
+        assertThat(reloaded.getAllocatedTickets()).isEqualTo(capacity);
+        assertThat(reloaded.getPaidTickets()).isEqualTo(capacity);
+        assertThat(reloaded.getLeasedTickets()).isZero();
+    }
+
+    @Test
+    void returnsUnsoldUnitsWhenTheLedgerCloses() {
+        Event event = createEvent(createVenue(), 50);
+        purchase(event, 1);
+        inventoryLedger.flush();
+        purchase(event, 9);
+        assertThat(inventoryLedger.isActive(event.getId())).isTrue();
+
+        inventoryLedger.shutdown();
+
+        assertThat(inventoryLedger.isActive(event.getId())).isFalse();
+        assertThat(ticketRepository.findTicketKeysByEventAndStatus(event.getId(), Ticket.TicketStatus.PAID)).hasSize(10);
+        assertThat(eventRepository.findById(event.getId()).orElseThrow().getAllocatedTickets()).isEqualTo(10);
+    }
+}
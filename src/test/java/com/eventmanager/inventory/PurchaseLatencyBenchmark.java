@@ -0,0 +1,293 @@
+package com.eventmanager.inventory;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load test comparing purchase latency on one hot event. "transactional" runs
+ * the statements of the @Transactional purchase path (guarded allocated-ticket update,
+ * ticket insert, counter update, commit) on a pool of ten connections, as Hikari would;
+ * "sequenced" queues the purchases for a single writer that commits them in batches of
+ * up to 256 like {@link TicketBatchWriter#commitSequencedPurchases}. Requests arrive at a
+ * fixed rate and latency is measured from each request's scheduled arrival, so a backlog
+ * shows up in the percentiles instead of slowing the generator down. Not run by the test
+ * suite; start it with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.eventmanager.inventory.PurchaseLatencyBenchmark}
+ * and optionally pass the seconds per run and the request rates as arguments.
+ */
+public class PurchaseLatencyBenchmark {
+
+    private static final String URL = "jdbc:h2:mem:purchase-latency;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=60000";
+
+    private static final int POOL_SIZE = 10;
+
+    private static final int BATCH_SIZE = 256;
+
+    private static final int QUEUE_CAPACITY = 10_000;
+
+    private static final String ALLOCATE = "UPDATE events SET allocated_tickets = allocated_tickets + ? " +
+            "WHERE id = 1 AND allocated_tickets + ? <= max_attendees";
+
+    private static final String INSERT = "INSERT INTO tickets (event_id, user_id, status, price, purchase_date) " +
+            "VALUES (1, ?, 'PAID', 49.90, ?)";
+
+    private static final String COUNT = "UPDATE events SET paid_tickets = paid_tickets + ? WHERE id = 1";
+
+    public static void main(String[] args) throws Exception {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        int[] rates = args.length > 1
+                ? Arrays.stream(args).skip(1).mapToInt(Integer::parseInt).toArray()
+                : new int[]{1_000, 5_000, 20_000};
+
+        try (Connection schema = DriverManager.getConnection(URL)) {
+            try (Statement statement = schema.createStatement()) {
+                statement.execute("CREATE TABLE events (id BIGINT PRIMARY KEY, max_attendees INT, " +
+                        "allocated_tickets INT, paid_tickets INT)");
+                statement.execute("INSERT INTO events VALUES (1, " + Integer.MAX_VALUE + ", 0, 0)");
+                statement.execute("CREATE TABLE tickets (id BIGINT AUTO_INCREMENT PRIMARY KEY, event_id BIGINT, " +
+                        "user_id BIGINT, status VARCHAR(16), price DECIMAL(10, 2), purchase_date TIMESTAMP)");
+                statement.execute("CREATE INDEX idx_ticket_event ON tickets (event_id, id)");
+            }
+
+            // Warm both paths up before measuring
+            new Transactional().run(1_000, 3);
+            new Sequenced().run(1_000, 3);
+
+            System.out.printf("%-14s %8s %10s %10s %10s %10s %10s%n",
+                    "mode", "rate/s", "served/s", "p50 ms", "p99 ms", "max ms", "shed");
+            for (int rate : rates) {
+                new Transactional().run(rate, seconds).print("transactional", rate, seconds);
+                new Sequenced().run(rate, seconds).print("sequenced", rate, seconds);
+            }
+        }
+    }
+
+    private abstract static class LoadRun {
+
+        long[] latencies;
+
+        final AtomicInteger shed = new AtomicInteger();
+
+        long start;
+
+        Result run(int rate, int seconds) throws Exception {
+            int requests = rate * seconds;
+            latencies = new long[requests];
+            Arrays.fill(latencies, -1);
+            double interval = 1e9 / rate;
+            begin();
+            start = System.nanoTime();
+            int sent = 0;
+            while (sent < requests) {
+                long due = Math.min(requests, (long) ((System.nanoTime() - start) / interval) + 1);
+                for (; sent < due; sent++) {
+                    submit(sent, start + (long) (sent * interval));
+                }
+                LockSupport.parkNanos(50_000);
+            }
+            end();
+            return new Result(latencies, shed.get());
+        }
+
+        void complete(int request, long scheduledAt) {
+            latencies[request] = System.nanoTime() - scheduledAt;
+        }
+
+        abstract void begin() throws SQLException;
+
+        abstract void submit(int request, long scheduledAt);
+
+        abstract void end() throws Exception;
+    }
+
+    private static class Transactional extends LoadRun {
+
+        private final ThreadLocal<Buyer> buyers = ThreadLocal.withInitial(Buyer::open);
+
+        private final List<Buyer> opened = new ArrayList<>();
+
+        private ExecutorService pool;
+
+        @Override
+        void begin() {
+            pool = Executors.newFixedThreadPool(POOL_SIZE);
+        }
+
+        @Override
+        void submit(int request, long scheduledAt) {
+            pool.execute(() -> {
+                Buyer buyer = buyers.get();
+                synchronized (opened) {
+                    if (!opened.contains(buyer)) {
+                        opened.add(buyer);
+                    }
+                }
+                buyer.purchase(request);
+                complete(request, scheduledAt);
+            });
+        }
+
+        @Override
+        void end() throws Exception {
+            pool.shutdown();
+            pool.awaitTermination(10, TimeUnit.MINUTES);
+            for (Buyer buyer : opened) {
+                buyer.connection.close();
+            }
+        }
+    }
+
+    private static class Buyer {
+
+        private final Connection connection;
+
+        private final PreparedStatement allocate;
+
+        private final PreparedStatement insert;
+
+        private final PreparedStatement count;
+
+        private Buyer() throws SQLException {
+            connection = DriverManager.getConnection(URL);
+            connection.setAutoCommit(false);
+            allocate = connection.prepareStatement(ALLOCATE);
+            insert = connection.prepareStatement(INSERT);
+            count = connection.prepareStatement(COUNT);
+        }
+
+        private static Buyer open() {
+            try {
+                return new Buyer();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private void purchase(int request) {
+            try {
+                allocate.setInt(1, 1);
+                allocate.setInt(2, 1);
+                if (allocate.executeUpdate() == 1) {
+                    insert.setLong(1, request);
+                    insert.setTimestamp(2, new Timestamp(System.currentTimeMillis()));
+                    insert.executeUpdate();
+                    count.setInt(1, 1);
+                    count.executeUpdate();
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private static class Sequenced extends LoadRun {
+
+        private final BlockingQueue<long[]> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+        private volatile boolean draining;
+
+        private Thread writer;
+
+        private Connection connection;
+
+        @Override
+        void begin() throws SQLException {
+            connection = DriverManager.getConnection(URL);
+            connection.setAutoCommit(false);
+            draining = true;
+            writer = new Thread(this::drain, "purchase-latency-writer");
+            writer.start();
+        }
+
+        @Override
+        void submit(int request, long scheduledAt) {
+            if (!queue.offer(new long[]{request, scheduledAt})) {
+                // The controller answers 429 right away; counted apart from the latencies
+                shed.incrementAndGet();
+                latencies[request] = 0;
+            }
+        }
+
+        private void drain() {
+            List<long[]> batch = new ArrayList<>(BATCH_SIZE);
+            try (PreparedStatement allocate = connection.prepareStatement(ALLOCATE);
+                 PreparedStatement insert = connection.prepareStatement(INSERT);
+                 PreparedStatement count = connection.prepareStatement(COUNT)) {
+                while (draining || !queue.isEmpty()) {
+                    long[] first = queue.poll(10, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, BATCH_SIZE - 1);
+
+                    allocate.setInt(1, batch.size());
+                    allocate.setInt(2, batch.size());
+                    if (allocate.executeUpdate() == 1) {
+                        Timestamp now = new Timestamp(System.currentTimeMillis());
+                        for (long[] purchase : batch) {
+                            insert.setLong(1, purchase[0]);
+                            insert.setTimestamp(2, now);
+                            insert.addBatch();
+                        }
+                        insert.executeBatch();
+                        count.setInt(1, batch.size());
+                        count.executeUpdate();
+                    }
+                    connection.commit();
+                    for (long[] purchase : batch) {
+                        complete((int) purchase[0], purchase[1]);
+                    }
+                    batch.clear();
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        void end() throws Exception {
+            draining = false;
+            writer.join();
+            connection.close();
+        }
+    }
+
+    private static class Result {
+
+        private final long[] sorted;
+
+        private final int shed;
+
+        private Result(long[] latencies, int shed) {
+            this.sorted = Arrays.stream(latencies).filter(latency -> latency > 0).sorted().toArray();
+            this.shed = shed;
+        }
+
+        private void print(String mode, int rate, int seconds) {
+            System.out.printf("%-14s %8d %10d %10.2f %10.2f %10.2f %10d%n", mode, rate, sorted.length / seconds,
+                    percentile(0.50), percentile(0.99), sorted[sorted.length - 1] / 1e6, shed);
+        }
+
+        private double percentile(double quantile) {
+            return sorted[(int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1)] / 1e6;
+        }
+    }
+}
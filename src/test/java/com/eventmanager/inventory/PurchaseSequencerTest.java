@@ -0,0 +1,130 @@
+package com.eventmanager.inventory;
+
+import com.eventmanager.AbstractIntegrationTest;
+import com.eventmanager.exception.BadRequestException;
+import com.eventmanager.exception.ResourceNotFoundException;
+import com.eventmanager.exception.TooManyRequestsException;
+import com.eventmanager.model.Event;
+import com.eventmanager.model.Role;
+import com.eventmanager.model.Ticket;
+import com.eventmanager.model.User;
+import com.eventmanager.repository.TicketRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PurchaseSequencerTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private PurchaseSequencer purchaseSequencer;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private TicketBatchWriter ticketBatchWriter;
+
+    @Test
+    void acceptsPurchasesInArrivalOrderUntilTheEventIsFull() throws Exception {
+        int capacity = 40;
+        Event event = createEvent(createVenue(), capacity);
+        List<CompletableFuture<Ticket>> results = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            User user = createUser(Role.ERole.ROLE_USER);
+            results.add(purchaseSequencer.submit(event.getId(), user.getId(), 1));
+        }
+
+        int sold = 0;
+        for (int i = 0; i < results.size(); i++) {
+            try {
+                Ticket ticket = results.get(i).get(30, TimeUnit.SECONDS);
+                assertThat(ticket.getId()).isNotNull();
+                // One writer decides in queue order, so the first buyers are the ones served
+                assertThat(i).isLessThan(capacity);
+                sold++;
+            } catch (ExecutionException e) {
+                assertThat(e.getCause()).isInstanceOf(BadRequestException.class);
+            }
+        }
+
+        assertThat(sold).isEqualTo(capacity);
+        assertThat(ticketRepository.findTicketKeysByEventAndStatus(event.getId(), Ticket.TicketStatus.PAID)).hasSize(capacity);
+        Event reloaded = eventRepository.findById(event.getId()).orElseThrow();
+        assertThat(reloaded.getAllocatedTickets()).isEqualTo(capacity);
+        assertThat(reloaded.getPaidTickets()).isEqualTo(capacity);
+    }
+
+    @Test
+    void skipsPurchasesThatDoNotFitAndServesSmallerOnesBehindThem() throws Exception {
+        Event event = createEvent(createVenue(), 3);
+        Long userId = createUser(Role.ERole.ROLE_USER).getId();
+
+        CompletableFuture<Ticket> first = purchaseSequencer.submit(event.getId(), userId, 2);
+        CompletableFuture<Ticket> tooLarge = purchaseSequencer.submit(event.getId(), userId, 2);
+        CompletableFuture<Ticket> last = purchaseSequencer.submit(event.getId(), userId, 1);
+
+        assertThat(first.get(30, TimeUnit.SECONDS)).isNotNull();
+        assertThatThrownBy(() -> tooLarge.get(30, TimeUnit.SECONDS)).hasCauseInstanceOf(BadRequestException.class);
+        assertThat(last.get(30, TimeUnit.SECONDS)).isNotNull();
+        assertThat(eventRepository.findById(event.getId()).orElseThrow().getAllocatedTickets()).isEqualTo(3);
+    }
+
+    @Test
+    void shedsLoadWhenNoLaneCanBeStarted() {
+        Event event = createEvent(createVenue(), 10);
+        Long userId = createUser(Role.ERole.ROLE_USER).getId();
+        int maxLanes = (int) ReflectionTestUtils.getField(purchaseSequencer, "maxLanes");
+        ReflectionTestUtils.setField(purchaseSequencer, "maxLanes", 0);
+        try {
+            assertThatThrownBy(() -> purchaseSequencer.submit(event.getId(), userId, 1))
+                    .isInstanceOf(TooManyRequestsException.class);
+        } finally {
+            ReflectionTestUtils.setField(purchaseSequencer, "maxLanes", maxLanes);
+        }
+    }
+
+    @Test
+    void rejectsAnUnknownBuyerWithoutFailingTheRestOfTheBatch() {
+        Event event = createEvent(createVenue(), 10);
+        Long userId = createUser(Role.ERole.ROLE_USER).getId();
+        List<SequencedPurchase> batch = List.of(
+                new SequencedPurchase(userId, 1), new SequencedPurchase(-1L, 1), new SequencedPurchase(userId, 2));
+
+        List<Ticket> results = ticketBatchWriter.commitSequencedPurchases(event.getId(), batch);
+
+        assertThat(results.get(0)).isNotNull();
+        assertThat(results.get(1)).isNull();
+        assertThat(batch.get(1).getRejection()).isInstanceOf(ResourceNotFoundException.class);
+        assertThat(results.get(2)).isNotNull();
+        assertThat(eventRepository.findById(event.getId()).orElseThrow().getAllocatedTickets()).isEqualTo(3);
+    }
+
+    @Test
+    void sharesOutCapacityAnotherWriterTookInArrivalOrder() {
+        Event event = createEvent(createVenue(), 5);
+        Long userId = createUser(Role.ERole.ROLE_USER).getId();
+        // Another node or the transactional purchase path claims seats without going through this lane
+        transactionTemplate.executeWithoutResult(status -> eventRepository.allocateTickets(event.getId(), 2));
+        List<SequencedPurchase> batch = List.of(
+                new SequencedPurchase(userId, 2), new SequencedPurchase(userId, 2), new SequencedPurchase(userId, 1));
+
+        List<Ticket> results = ticketBatchWriter.commitSequencedPurchases(event.getId(), batch);
+
+        assertThat(results.get(0)).isNotNull();
+        assertThat(results.get(1)).isNull();
+        assertThat(batch.get(1).getRejection()).isInstanceOf(BadRequestException.class)
+                .hasMessage("Not enough tickets available");
+        assertThat(results.get(2)).isNotNull();
+        assertThat(eventRepository.findById(event.getId()).orElseThrow().getAllocatedTickets()).isEqualTo(5);
+        assertThat(ticketRepository.findTicketKeysByEventAndStatus(event.getId(), Ticket.TicketStatus.PAID)).hasSize(3);
+    }
+}
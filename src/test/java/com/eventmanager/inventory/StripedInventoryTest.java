@@ -0,0 +1,68 @@
+package com.eventmanager.inventory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StripedInventoryTest {
+
+    @Test
+    void concurrentTakesNeverExceedTheUnits() throws Exception {
+        StripedInventory inventory = new StripedInventory(16, 1000);
+        AtomicLong taken = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> buyers = new ArrayList<>();
+            for (int buyer = 0; buyer < 8; buyer++) {
+                long hash = buyer * 0x9E3779B97F4A7C15L;
+                buyers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 1000; i++) {
+                        int quantity = 1 + i % 3;
+                        if (inventory.tryTake(hash, quantity)) {
+                            taken.addAndGet(quantity);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> buyer : buyers) {
+                buyer.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(taken.get() + inventory.remaining()).isEqualTo(1000);
+        assertThat(inventory.remaining()).isLessThan(3);
+    }
+
+    @Test
+    void borrowsFromOtherShardsWhenItsOwnRunsDry() {
+        StripedInventory inventory = new StripedInventory(4, 4);
+
+        assertThat(inventory.tryTake(0, 3)).isTrue();
+        assertThat(inventory.remaining()).isEqualTo(1);
+    }
+
+    @Test
+    void handsBackPartialTakes() {
+        StripedInventory inventory = new StripedInventory(4, 2);
+
+        assertThat(inventory.tryTake(0, 3)).isFalse();
+        assertThat(inventory.remaining()).isEqualTo(2);
+        assertThat(inventory.drain()).isEqualTo(2);
+        assertThat(inventory.remaining()).isZero();
+    }
+}
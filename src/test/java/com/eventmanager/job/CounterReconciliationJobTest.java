@@ -0,0 +1,48 @@
+package com.eventmanager.job;
+
+import com.eventmanager.AbstractIntegrationTest;
+import com.eventmanager.model.Event;
+import com.eventmanager.model.Role;
+import com.eventmanager.model.Venue;
+import com.eventmanager.service.TicketService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CounterReconciliationJobTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private CounterReconciliationJob counterReconciliationJob;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Test
+    void driftedCountersAreRecountedFromTheTicketRows() {
+        Venue venue = createVenue();
+        Event drifted = createEvent(venue, 100);
+        Event intact = createEvent(createVenue(), 100);
+        authenticate(createUser(Role.ERole.ROLE_USER));
+        ticketService.purchaseTicket(purchaseRequest(drifted.getId(), 3));
+        ticketService.cancelTicket(ticketService.purchaseTicket(purchaseRequest(drifted.getId(), 1)).getId());
+        ticketService.holdTickets(purchaseRequest(drifted.getId(), 2));
+        ticketService.purchaseTicket(purchaseRequest(intact.getId(), 2));
+        // A lost update, as a crash between the ticket write and the counter write would leave it
+        transactionTemplate.executeWithoutResult(status -> eventRepository.setTicketCounts(drifted.getId(), 9, 0, 7, 1, 0));
+
+        counterReconciliationJob.reconcileCounters();
+
+        Event repaired = eventRepository.findById(drifted.getId()).orElseThrow();
+        assertThat(repaired.getAllocatedTickets()).isEqualTo(5);
+        assertThat(repaired.getReservedTickets()).isEqualTo(2);
+        assertThat(repaired.getPaidTickets()).isEqualTo(3);
+        assertThat(repaired.getUsedTickets()).isZero();
+        assertThat(repaired.getCancelledTickets()).isEqualTo(1);
+        Event untouched = eventRepository.findById(intact.getId()).orElseThrow();
+        assertThat(untouched.getAllocatedTickets()).isEqualTo(2);
+        assertThat(untouched.getPaidTickets()).isEqualTo(2);
+        // The fixture inserts events without bumping the venue's count, which drifts it too
+        assertThat(venueRepository.findById(venue.getId()).orElseThrow().getEventCount()).isEqualTo(1);
+    }
+}
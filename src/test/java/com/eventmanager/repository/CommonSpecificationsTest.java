@@ -0,0 +1,46 @@
+package com.eventmanager.repository;
+
+import com.eventmanager.AbstractIntegrationTest;
+import com.eventmanager.model.Event;
+import com.eventmanager.model.Venue;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CommonSpecificationsTest extends AbstractIntegrationTest {
+
+    @Test
+    void wildcardsInTheSearchTermMatchLiterally() {
+        String tag = UUID.randomUUID().toString().substring(0, 8);
+        Venue venue = createVenue();
+        Event percent = named(venue, tag + " 100% Live");
+        Event digits = named(venue, tag + " 1000 Live");
+        Event underscore = named(venue, tag + " A_B");
+        named(venue, tag + " AxB");
+        Event backslash = named(venue, tag + " C\\D");
+
+        assertThat(search(tag + " 100%")).containsExactly(percent.getId());
+        assertThat(search(tag + " 10")).containsExactlyInAnyOrder(percent.getId(), digits.getId());
+        assertThat(search(tag + " a_b")).containsExactly(underscore.getId());
+        assertThat(search(tag + " c\\d")).containsExactly(backslash.getId());
+        assertThat(eventRepository.findIdPageByNameContainingIgnoreCase(
+                CommonSpecifications.escapeLike(tag + " 100%"), PageRequest.of(0, 10)))
+                .containsExactly(percent.getId());
+    }
+
+    private Event named(Venue venue, String name) {
+        Event event = createEvent(venue, 100);
+        event.setName(name);
+        return eventRepository.save(event);
+    }
+
+    private List<Long> search(String name) {
+        return eventRepository.findAll(CommonSpecifications.<Event>nameContainsIgnoreCase(name)).stream()
+                .map(Event::getId)
+                .toList();
+    }
+}
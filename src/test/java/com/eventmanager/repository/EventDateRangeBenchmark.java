@@ -0,0 +1,181 @@
+package com.eventmanager.repository;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures one keyset page of the date-range search as the events table grows. The
+ * table carries the same indexes as {@link com.eventmanager.model.Event}; events are
+ * spread one every few minutes into the past, so a larger "history" only adds rows
+ * before the searched week. Each benchmark reads the first page and a page after a
+ * cursor for "contained in" and "overlaps". Not run by the test suite; start it with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.eventmanager.repository.EventDateRangeBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventDateRangeBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 1, 0, 0);
+
+    // Mirrors EventSpecifications.inDateRange; pages after the first add the cursor seek CursorPages builds
+    private static final String CONTAINED = "start_date_time >= ? AND end_date_time <= ?";
+
+    private static final String OVERLAPS = "start_date_time <= ? AND end_date_time >= ?";
+
+    private static final String SEEK = " AND (start_date_time > ? OR (start_date_time = ? AND id > ?))";
+
+    @Param({"100000", "1000000"})
+    public int history;
+
+    private Connection connection;
+
+    private PreparedStatement containedFirst;
+
+    private PreparedStatement containedNext;
+
+    private PreparedStatement overlapsFirst;
+
+    private PreparedStatement overlapsNext;
+
+    private Timestamp from;
+
+    private Timestamp to;
+
+    private Timestamp cursorStart;
+
+    private long cursorId;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:date-range-benchmark-" + history);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE events (id BIGINT PRIMARY KEY, name VARCHAR(255), " +
+                    "start_date_time TIMESTAMP NOT NULL, end_date_time TIMESTAMP NOT NULL)");
+        }
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO events VALUES (?, ?, ?, ?)")) {
+            for (int i = 0; i < history; i++) {
+                // Oldest first, five minutes apart, ending at NOW plus a week of upcoming events
+                LocalDateTime start = NOW.plusDays(7).minusMinutes(5L * (history - i));
+                insert.setLong(1, i + 1);
+                insert.setString(2, "Event " + i);
+                insert.setTimestamp(3, Timestamp.valueOf(start));
+                insert.setTimestamp(4, Timestamp.valueOf(start.plusHours(3)));
+                insert.addBatch();
+                if (i % 10_000 == 9_999) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE INDEX idx_event_start_date_time ON events (start_date_time, id)");
+            statement.execute("CREATE INDEX idx_event_end_date_time ON events (end_date_time)");
+            statement.execute("ANALYZE");
+        }
+
+        containedFirst = connection.prepareStatement(query(CONTAINED));
+        containedNext = connection.prepareStatement(query(CONTAINED + SEEK));
+        overlapsFirst = connection.prepareStatement(query(OVERLAPS));
+        overlapsNext = connection.prepareStatement(query(OVERLAPS + SEEK));
+        from = Timestamp.valueOf(NOW);
+        to = Timestamp.valueOf(NOW.plusDays(7));
+
+        // The cursor of the third page, as a client scrolling the week would send it
+        try (Statement statement = connection.createStatement();
+             ResultSet row = statement.executeQuery("SELECT start_date_time, id FROM events " +
+                     "WHERE start_date_time >= TIMESTAMP '" + from + "' ORDER BY start_date_time, id " +
+                     "LIMIT 1 OFFSET " + (2 * PAGE_SIZE - 1))) {
+            row.next();
+            cursorStart = row.getTimestamp(1);
+            cursorId = row.getLong(2);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE events");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public int containedFirstPage() throws SQLException {
+        return page(containedFirst, from, to);
+    }
+
+    @Benchmark
+    public int containedAfterCursor() throws SQLException {
+        return page(seek(containedNext), from, to);
+    }
+
+    @Benchmark
+    public int overlapsFirstPage() throws SQLException {
+        return page(overlapsFirst, to, from);
+    }
+
+    @Benchmark
+    public int overlapsAfterCursor() throws SQLException {
+        return page(seek(overlapsNext), to, from);
+    }
+
+    private PreparedStatement seek(PreparedStatement query) throws SQLException {
+        query.setTimestamp(3, cursorStart);
+        query.setTimestamp(4, cursorStart);
+        query.setLong(5, cursorId);
+        return query;
+    }
+
+    private static String query(String where) {
+        return "SELECT id, name, start_date_time FROM events WHERE " + where +
+                " ORDER BY start_date_time, id LIMIT " + (PAGE_SIZE + 1);
+    }
+
+    private static int page(PreparedStatement query, Timestamp first, Timestamp second) throws SQLException {
+        query.setTimestamp(1, first);
+        query.setTimestamp(2, second);
+        int rows = 0;
+        try (ResultSet result = query.executeQuery()) {
+            while (result.next()) {
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(EventDateRangeBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,138 @@
+package com.eventmanager.repository;
+
+import org.h2.tools.Server;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Orders per second for writing one order's tickets. "identityPerRow" is the old path:
+ * an IDENTITY id forces one insert and one generated-key read per ticket. "pooledBatch"
+ * is the current one: ids come from ticket_seq 50 at a time, as the pooled optimizer
+ * hands them out, and the order's rows go in one JDBC batch. Each order commits on its
+ * own. The database runs behind H2's TCP server on loopback, so every statement pays a
+ * round trip as it would against a real server. Not run by the test suite; start it with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.eventmanager.repository.TicketInsertBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TicketInsertBenchmark {
+
+    private static final int ALLOCATION_SIZE = 50;
+
+    @Param({"1", "10", "50"})
+    public int quantity;
+
+    private Server server;
+
+    private Connection connection;
+
+    private PreparedStatement identityInsert;
+
+    private PreparedStatement sequenceInsert;
+
+    private PreparedStatement nextBlock;
+
+    private long nextId;
+
+    private long blockEnd;
+
+    @Setup
+    public void setUp() throws SQLException {
+        server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+        connection = DriverManager.getConnection("jdbc:h2:tcp://localhost:" + server.getPort() + "/mem:ticket-insert-benchmark");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE identity_tickets (id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                    "event_id BIGINT, user_id BIGINT, status VARCHAR(16), price DECIMAL(10, 2), purchase_date TIMESTAMP)");
+            statement.execute("CREATE TABLE tickets (id BIGINT PRIMARY KEY, " +
+                    "event_id BIGINT, user_id BIGINT, status VARCHAR(16), price DECIMAL(10, 2), purchase_date TIMESTAMP)");
+            statement.execute("CREATE SEQUENCE ticket_seq START WITH 1 INCREMENT BY " + ALLOCATION_SIZE);
+        }
+        connection.setAutoCommit(false);
+        identityInsert = connection.prepareStatement("INSERT INTO identity_tickets " +
+                "(event_id, user_id, status, price, purchase_date) VALUES (1, 1, 'PAID', 49.90, ?)", Statement.RETURN_GENERATED_KEYS);
+        sequenceInsert = connection.prepareStatement("INSERT INTO tickets " +
+                "(id, event_id, user_id, status, price, purchase_date) VALUES (?, 1, 1, 'PAID', 49.90, ?)");
+        nextBlock = connection.prepareStatement("SELECT NEXT VALUE FOR ticket_seq");
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE identity_tickets");
+            statement.execute("DROP TABLE tickets");
+            statement.execute("DROP SEQUENCE ticket_seq");
+        }
+        connection.close();
+        server.stop();
+    }
+
+    @Benchmark
+    public long identityPerRow() throws SQLException {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        long lastId = 0;
+        for (int i = 0; i < quantity; i++) {
+            identityInsert.setTimestamp(1, now);
+            identityInsert.executeUpdate();
+            try (ResultSet keys = identityInsert.getGeneratedKeys()) {
+                keys.next();
+                lastId = keys.getLong(1);
+            }
+        }
+        connection.commit();
+        return lastId;
+    }
+
+    @Benchmark
+    public long pooledBatch() throws SQLException {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        for (int i = 0; i < quantity; i++) {
+            sequenceInsert.setLong(1, nextId());
+            sequenceInsert.setTimestamp(2, now);
+            sequenceInsert.addBatch();
+        }
+        sequenceInsert.executeBatch();
+        connection.commit();
+        return nextId;
+    }
+
+    private long nextId() throws SQLException {
+        if (nextId == blockEnd) {
+            try (ResultSet block = nextBlock.executeQuery()) {
+                block.next();
+                nextId = block.getLong(1);
+                blockEnd = nextId + ALLOCATION_SIZE;
+            }
+        }
+        return nextId++;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(TicketInsertBenchmark.class.getSimpleName()).build()).run();
+    }
+}
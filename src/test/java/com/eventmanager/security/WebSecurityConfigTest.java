@@ -0,0 +1,35 @@
+package com.eventmanager.security;
+
+import com.eventmanager.AbstractIntegrationTest;
+import com.eventmanager.model.Role;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Requests carry the /api context path, as they do behind the real server
+class WebSecurityConfigTest extends AbstractIntegrationTest {
+
+    @Test
+    void actuatorIsForAdminsOnly() throws Exception {
+        mockMvc.perform(api("/actuator/metrics")).andExpect(status().isUnauthorized());
+        mockMvc.perform(api("/actuator/metrics")
+                        .header("Authorization", bearerToken(createUser(Role.ERole.ROLE_USER))))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(api("/actuator/metrics")
+                        .header("Authorization", bearerToken(createUser(Role.ERole.ROLE_ADMIN))))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void publicListingsNeedNoToken() throws Exception {
+        mockMvc.perform(api("/events")).andExpect(status().isOk());
+        mockMvc.perform(api("/venues")).andExpect(status().isOk());
+        mockMvc.perform(api("/tickets/user")).andExpect(status().isUnauthorized());
+    }
+
+    private static MockHttpServletRequestBuilder api(String path) {
+        return get("/api" + path).contextPath("/api");
+    }
+}
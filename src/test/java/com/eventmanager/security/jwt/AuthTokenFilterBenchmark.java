@@ -0,0 +1,114 @@
+package com.eventmanager.security.jwt;
+
+import com.eventmanager.repository.UserRepository;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import jakarta.servlet.FilterChain;
+import java.security.Key;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures one pass of a bearer request through AuthTokenFilter. "before" repeats the JWT work
+ * the filter did originally: a key decoded and a parser built for each of two parses. The
+ * other two run the current filter with the verified-token cache hit and missed. Not run by
+ * the test suite; start it with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.eventmanager.security.jwt.AuthTokenFilterBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthTokenFilterBenchmark {
+
+    private static final FilterChain CHAIN = (request, response) -> { };
+
+    private AuthTokenFilter cachingFilter;
+
+    private AuthTokenFilter verifyingFilter;
+
+    private MockHttpServletRequest request;
+
+    private String token;
+
+    private MockHttpServletRequest[] distinctRequests;
+
+    private int next;
+
+    @Setup
+    public void setUp() {
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findTokenVersionById(1L)).thenReturn(0L);
+
+        JwtUtils caching = AuthTokenFilterTest.jwtUtils(new SimpleMeterRegistry(), 100);
+        cachingFilter = AuthTokenFilterTest.filter(caching, userRepository, new SimpleMeterRegistry());
+        // Cycling through far more tokens than the cache holds makes every request verify the signature
+        JwtUtils verifying = AuthTokenFilterTest.jwtUtils(new SimpleMeterRegistry(), 16);
+        verifyingFilter = AuthTokenFilterTest.filter(verifying, userRepository, new SimpleMeterRegistry());
+
+        token = AuthTokenFilterTest.token(caching, 0L);
+        request = request(token);
+        distinctRequests = new MockHttpServletRequest[4096];
+        for (int i = 0; i < distinctRequests.length; i++) {
+            distinctRequests[i] = request(AuthTokenFilterTest.token(verifying, 0L));
+        }
+    }
+
+    @Benchmark
+    public Object before() {
+        Key validateKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(AuthTokenFilterTest.SECRET));
+        Jwts.parserBuilder().setSigningKey(validateKey).build().parse(token);
+        Key subjectKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(AuthTokenFilterTest.SECRET));
+        return Jwts.parserBuilder().setSigningKey(subjectKey).build().parseClaimsJws(token).getBody().getSubject();
+    }
+
+    @Benchmark
+    public Object afterVerified() throws Exception {
+        next = (next + 1) % distinctRequests.length;
+        return filter(verifyingFilter, distinctRequests[next]);
+    }
+
+    @Benchmark
+    public Object afterCached() throws Exception {
+        return filter(cachingFilter, request);
+    }
+
+    private static MockHttpServletRequest request(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/tickets/user");
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+
+    private static Object filter(AuthTokenFilter filter, MockHttpServletRequest request) throws Exception {
+        SecurityContextHolder.clearContext();
+        filter.doFilter(request, new MockHttpServletResponse(), CHAIN);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(AuthTokenFilterBenchmark.class.getSimpleName()).build()).run();
+    }
+}
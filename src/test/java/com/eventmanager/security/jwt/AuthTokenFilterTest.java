@@ -0,0 +1,132 @@
+package com.eventmanager.security.jwt;
+
+import com.eventmanager.repository.RefreshTokenRepository;
+import com.eventmanager.repository.UserRepository;
+import com.eventmanager.security.services.UserDetailsImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AuthTokenFilterTest {
+
+    static final String SECRET = "evenManagerSecretKey2025SecureTokenSigningKeyLongEnoughForSecurity";
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    private JwtUtils jwtUtils;
+
+    private AuthTokenFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        when(userRepository.findTokenVersionById(1L)).thenReturn(0L);
+        jwtUtils = jwtUtils(meterRegistry, 100);
+        filter = filter(jwtUtils, userRepository, meterRegistry);
+    }
+
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void repeatedTokenIsVerifiedOnceAndAuthenticatesFromItsClaims() throws Exception {
+        String token = token(jwtUtils, 0L);
+
+        Authentication first = authenticate(token);
+        Authentication second = authenticate(token);
+
+        assertThat(first.getName()).isEqualTo("fan@example.com");
+        assertThat(((UserDetailsImpl) first.getPrincipal()).getId()).isEqualTo(1L);
+        assertThat(first.getAuthorities()).extracting(Object::toString).containsExactly("ROLE_USER");
+        assertThat(second.getPrincipal()).isSameAs(first.getPrincipal());
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "jwt.verified.tokens").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void cachedTokenIsRejectedOnceTheUserVersionIsBumped() throws Exception {
+        String token = token(jwtUtils, 0L);
+        assertThat(authenticate(token)).isNotNull();
+
+        when(userRepository.findTokenVersionById(1L)).thenReturn(1L);
+        tokenVersions(filter).versionChanged(1L);
+
+        assertThat(authenticate(token)).isNull();
+    }
+
+    @Test
+    void tamperedTokenIsRejected() throws Exception {
+        String token = token(jwtUtils, 0L);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThat(authenticate(tampered)).isNull();
+    }
+
+    private Authentication authenticate(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/tickets/user");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> { });
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    static JwtUtils jwtUtils(MeterRegistry meterRegistry, long verifiedCacheMaxEntries) {
+        JwtUtils jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 900000);
+        ReflectionTestUtils.setField(jwtUtils, "verifiedCacheMaxEntries", verifiedCacheMaxEntries);
+        ReflectionTestUtils.setField(jwtUtils, "meterRegistry", meterRegistry);
+        jwtUtils.init();
+        return jwtUtils;
+    }
+
+    static AuthTokenFilter filter(JwtUtils jwtUtils, UserRepository userRepository, MeterRegistry meterRegistry) {
+        TokenVersions tokenVersions = new TokenVersions();
+        ReflectionTestUtils.setField(tokenVersions, "refreshSeconds", 30L);
+        ReflectionTestUtils.setField(tokenVersions, "maxEntries", 1000L);
+        ReflectionTestUtils.setField(tokenVersions, "userRepository", userRepository);
+        ReflectionTestUtils.setField(tokenVersions, "meterRegistry", meterRegistry);
+        tokenVersions.init();
+
+        RevokedTokens revokedTokens = new RevokedTokens();
+        ReflectionTestUtils.setField(revokedTokens, "expectedEntries", 1000L);
+        ReflectionTestUtils.setField(revokedTokens, "bloomFalsePositiveRate", 0.01);
+        ReflectionTestUtils.setField(revokedTokens, "refreshTokenRepository", mock(RefreshTokenRepository.class));
+        revokedTokens.init();
+
+        AuthTokenFilter filter = new AuthTokenFilter();
+        ReflectionTestUtils.setField(filter, "jwtUtils", jwtUtils);
+        ReflectionTestUtils.setField(filter, "tokenVersions", tokenVersions);
+        ReflectionTestUtils.setField(filter, "revokedTokens", revokedTokens);
+        return filter;
+    }
+
+    static String token(JwtUtils jwtUtils, long tokenVersion) {
+        UserDetailsImpl principal = UserDetailsImpl.fromClaims(1L, "fan@example.com", List.of("ROLE_USER"),
+                tokenVersion, System.nanoTime());
+        Date issuedAt = new Date();
+        return jwtUtils.generateJwtToken(principal, principal.getTokenId(), issuedAt,
+                new Date(issuedAt.getTime() + jwtUtils.getJwtExpirationMs()));
+    }
+
+    private static TokenVersions tokenVersions(AuthTokenFilter filter) {
+        return (TokenVersions) ReflectionTestUtils.getField(filter, "tokenVersions");
+    }
+}
@@ -0,0 +1,73 @@
+package com.eventmanager.security.jwt;
+
+import com.eventmanager.AbstractIntegrationTest;
+import com.eventmanager.model.Role;
+import com.eventmanager.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+class TokenVersionsTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private TokenVersions tokenVersions;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = createUser(Role.ERole.ROLE_USER);
+    }
+
+    @Test
+    void versionBumpRejectsAnAccessTokenIssuedBeforeIt() throws Exception {
+        String issued = bearerToken(user);
+        // Warm the cached version, so the bump has to displace it rather than be read fresh
+        assertThat(status(issued)).isEqualTo(200);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            userRepository.incrementTokenVersion(user.getId());
+            tokenVersions.versionChanged(user.getId());
+        });
+
+        assertThat(status(issued)).isEqualTo(401);
+        User current = userRepository.findById(user.getId()).orElseThrow();
+        assertThat(current.getTokenVersion()).isEqualTo(1L);
+        assertThat(status(bearerToken(current))).isEqualTo(200);
+    }
+
+    @Test
+    void rolledBackBumpKeepsTheTokenValid() throws Exception {
+        String issued = bearerToken(user);
+        assertThat(status(issued)).isEqualTo(200);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            userRepository.incrementTokenVersion(user.getId());
+            tokenVersions.versionChanged(user.getId());
+            status.setRollbackOnly();
+        });
+
+        assertThat(status(issued)).isEqualTo(200);
+    }
+
+    @Test
+    void tokenOfADeletedUserIsRejected() throws Exception {
+        String issued = bearerToken(user);
+        assertThat(status(issued)).isEqualTo(200);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            userRepository.deleteById(user.getId());
+            tokenVersions.versionChanged(user.getId());
+        });
+
+        assertThat(status(issued)).isEqualTo(401);
+    }
+
+    private int status(String authorization) throws Exception {
+        return mockMvc.perform(get("/tickets/user").header("Authorization", authorization))
+                .andReturn().getResponse().getStatus();
+    }
+}
@@ -0,0 +1,158 @@
+package com.eventmanager.service.impl;
+
+import com.eventmanager.AbstractIntegrationTest;
+import com.eventmanager.dto.request.LoginRequest;
+import com.eventmanager.dto.request.SignupRequest;
+import com.eventmanager.model.Role;
+import com.eventmanager.model.User;
+import com.eventmanager.repository.UserRepository;
+import com.eventmanager.security.services.PasswordHashExecutor;
+import com.eventmanager.service.AuthService;
+import com.eventmanager.service.RefreshTokenService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class AuthServiceImplTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private PasswordHashExecutor passwordHashExecutor;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${security.password.queue-capacity}")
+    private int queueCapacity;
+
+    @Value("${security.password.bcrypt-strength}")
+    private int bcryptStrength;
+
+    @Test
+    void signInUpgradesAWeakHashAndIssuesTokensOffTheHashingPool() throws Exception {
+        User user = createUser(Role.ERole.ROLE_USER);
+        String weakHash = new BCryptPasswordEncoder(4).encode("correct horse");
+        transactionTemplate.executeWithoutResult(status -> userRepository.updatePassword(user.getId(), weakHash));
+        List<String> threads = new CopyOnWriteArrayList<>();
+        AuthServiceImpl target = AopTestUtils.getTargetObject(authService);
+        ReflectionTestUtils.setField(target, "refreshTokenService",
+                recordingThreads(RefreshTokenService.class, refreshTokenService, threads));
+        try {
+            authService.authenticateUser(login(user.getEmail(), "correct horse")).get(30, TimeUnit.SECONDS);
+        } finally {
+            ReflectionTestUtils.setField(target, "refreshTokenService", refreshTokenService);
+        }
+
+        // UserDetailsPasswordService stored a hash at the configured cost
+        String upgraded = userRepository.findById(user.getId()).orElseThrow().getPassword();
+        assertThat(upgraded).isNotEqualTo(weakHash).startsWith(String.format("$2a$%02d$", bcryptStrength));
+        assertThat(passwordEncoder.matches("correct horse", upgraded)).isTrue();
+        assertThat(threads).isNotEmpty().noneMatch(thread -> thread.startsWith("password-hash-"));
+    }
+
+    @Test
+    void signUpStoresTheAccountOffTheHashingPool() throws Exception {
+        List<String> threads = new CopyOnWriteArrayList<>();
+        AuthServiceImpl target = AopTestUtils.getTargetObject(authService);
+        ReflectionTestUtils.setField(target, "userRepository",
+                recordingThreads(UserRepository.class, userRepository, threads));
+        String email = UUID.randomUUID().toString().substring(0, 18) + "@example.com";
+        try {
+            authService.registerUser(signup(email)).get(30, TimeUnit.SECONDS);
+        } finally {
+            ReflectionTestUtils.setField(target, "userRepository", userRepository);
+        }
+
+        assertThat(userRepository.findByEmail(email)).isPresent();
+        // The first call is the duplicate check on the caller's thread; the insert follows the hashing
+        assertThat(threads).hasSizeGreaterThan(1).noneMatch(thread -> thread.startsWith("password-hash-"));
+    }
+
+    @Test
+    void signInIsShedWith429WhenTheHashingQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<CompletableFuture<Object>> blockers = new ArrayList<>();
+        try {
+            // One task per hashing thread, then enough to fill the queue behind them
+            for (int i = 0; i < Runtime.getRuntime().availableProcessors() + queueCapacity; i++) {
+                blockers.add(passwordHashExecutor.submit("test", () -> {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return null;
+                }));
+            }
+
+            mockMvc.perform(post("/auth/signin")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(Map.of(
+                                    "email", "queued@example.com", "password", "whatever"))))
+                    .andExpect(status().isTooManyRequests())
+                    .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+        } finally {
+            release.countDown();
+        }
+        CompletableFuture.allOf(blockers.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+    }
+
+    // Delegates every call to the bean and records which thread made it
+    private static <T> T recordingThreads(Class<T> type, T delegate, List<String> threads) {
+        return mock(type, invocation -> {
+            threads.add(Thread.currentThread().getName());
+            try {
+                return invocation.getMethod().invoke(delegate, invocation.getArguments());
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+    }
+
+    private static LoginRequest login(String email, String password) {
+        LoginRequest request = new LoginRequest();
+        request.setEmail(email);
+        request.setPassword(password);
+        return request;
+    }
+
+    private static SignupRequest signup(String email) {
+        SignupRequest request = new SignupRequest();
+        request.setFirstName("New");
+        request.setLastName("Member");
+        request.setEmail(email);
+        request.setPassword("correct horse");
+        return request;
+    }
+}
@@ -0,0 +1,203 @@
+package com.eventmanager.service.impl;
+
+import com.eventmanager.AbstractIntegrationTest;
+import com.eventmanager.dto.ArtistDTO;
+import com.eventmanager.dto.CategoryDTO;
+import com.eventmanager.dto.EventDTO;
+import com.eventmanager.dto.VenueDTO;
+import com.eventmanager.exception.ResourceNotFoundException;
+import com.eventmanager.model.Artist;
+import com.eventmanager.model.Category;
+import com.eventmanager.model.Event;
+import com.eventmanager.model.Role;
+import com.eventmanager.model.Venue;
+import com.eventmanager.repository.ArtistRepository;
+import com.eventmanager.repository.CategoryRepository;
+import com.eventmanager.service.ArtistService;
+import com.eventmanager.service.CategoryService;
+import com.eventmanager.service.EventService;
+import com.eventmanager.service.VenueService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EventServiceImplTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private VenueService venueService;
+
+    @Autowired
+    private ArtistService artistService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ArtistRepository artistRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private Venue venue;
+
+    private Artist artist;
+
+    private Category category;
+
+    private Event event;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+
+        venue = createVenue();
+
+        artist = new Artist();
+        artist.setName("Band " + suffix);
+        artist.setGenre("Rock");
+        artist = artistRepository.save(artist);
+
+        category = new Category();
+        category.setName("Concerts " + suffix);
+        category = categoryRepository.save(category);
+
+        event = createEvent(venue, 100);
+        event.setArtists(Set.of(artist));
+        event.setCategories(Set.of(category));
+        event = eventRepository.save(event);
+    }
+
+    @Test
+    void eventTagChangesWhenItsVenueIsRenamed() {
+        String before = eventService.getEventETag(event.getId());
+
+        VenueDTO venueDTO = venueService.getVenueById(venue.getId());
+        venueDTO.setName(venueDTO.getName() + " Annex");
+        venueService.updateVenue(venue.getId(), venueDTO);
+
+        assertThat(eventService.getEventETag(event.getId())).isNotEqualTo(before);
+        assertThat(getEvent().getVenueName()).endsWith(" Annex");
+    }
+
+    @Test
+    void eventTagChangesWhenItsArtistIsRenamed() {
+        String before = eventService.getEventETag(event.getId());
+
+        ArtistDTO artistDTO = artistService.getArtistById(artist.getId());
+        artistDTO.setName(artistDTO.getName() + " Reunited");
+        artistService.updateArtist(artist.getId(), artistDTO);
+
+        assertThat(eventService.getEventETag(event.getId())).isNotEqualTo(before);
+    }
+
+    @Test
+    void eventTagChangesWhenItsCategoryIsRenamed() {
+        String before = eventService.getEventETag(event.getId());
+
+        CategoryDTO categoryDTO = categoryService.getCategoryById(category.getId());
+        categoryDTO.setName(categoryDTO.getName() + " Live");
+        categoryService.updateCategory(category.getId(), categoryDTO);
+
+        assertThat(eventService.getEventETag(event.getId())).isNotEqualTo(before);
+    }
+
+    @Test
+    void eventTagMatchesTheTagOfTheBody() {
+        assertThat(eventService.getEventETag(event.getId()))
+                .isEqualTo("\"" + getEvent().revision() + "\"");
+    }
+
+    @Test
+    void listPageLoadsInTheSameNumberOfQueriesWhateverItsSize() {
+        for (int i = 0; i < 10; i++) {
+            Artist other = new Artist();
+            other.setName("Band " + UUID.randomUUID().toString().substring(0, 8));
+            other.setGenre("Jazz");
+            Event listed = createEvent(createVenue(), 100);
+            listed.setArtists(Set.of(artistRepository.save(other)));
+            listed.setCategories(Set.of(category));
+            eventRepository.save(listed);
+        }
+        Category single = new Category();
+        single.setName("Talks " + UUID.randomUUID().toString().substring(0, 8));
+        single = categoryRepository.save(single);
+        Event alone = createEvent(createVenue(), 100);
+        alone.setArtists(Set.of(artist));
+        alone.setCategories(Set.of(single));
+        eventRepository.save(alone);
+
+        long manyQueries = countListQueries(category.getId(), 11);
+        long oneQueries = countListQueries(single.getId(), 1);
+
+        assertThat(manyQueries).isEqualTo(oneQueries).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void referenceDataIsServedFromTheSecondLevelCacheOnceLoaded() {
+        evictSecondLevelCache();
+        readReferenceData();
+
+        statistics().clear();
+        readReferenceData();
+
+        assertThat(statistics().getPrepareStatementCount()).isZero();
+        assertThat(statistics().getSecondLevelCacheHitCount()).isGreaterThanOrEqualTo(3);
+        assertThat(statistics().getQueryCacheHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void updatedReferenceDataIsNotServedStale() {
+        Artist retired = new Artist();
+        retired.setName("Band " + UUID.randomUUID().toString().substring(0, 8));
+        retired.setGenre("Folk");
+        Long retiredId = artistRepository.save(retired).getId();
+        readReferenceData();
+        artistService.getArtistById(retiredId);
+
+        CategoryDTO categoryDTO = categoryService.getCategoryById(category.getId());
+        categoryDTO.setName(categoryDTO.getName() + " Live");
+        categoryService.updateCategory(category.getId(), categoryDTO);
+        artistService.deleteArtist(retiredId);
+
+        assertThat(categoryService.getCategoryById(category.getId()).getName()).endsWith(" Live");
+        assertThat(getEvent().getCategories()).extracting(CategoryDTO::getName).containsExactly(categoryDTO.getName());
+        assertThatThrownBy(() -> artistService.getArtistById(retiredId))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    private void readReferenceData() {
+        transactionTemplate.executeWithoutResult(status -> {
+            venueService.getVenueById(venue.getId());
+            categoryService.getCategoryById(category.getId());
+            artistService.getArtistById(artist.getId());
+            roleRepository.findByName(Role.ERole.ROLE_USER);
+        });
+    }
+
+    // Counts the statements a cold page costs, so cached reference data cannot hide a per-row load
+    private long countListQueries(Long categoryId, int expectedSize) {
+        evictSecondLevelCache();
+        statistics().clear();
+        List<EventDTO> page = transactionTemplate.execute(status ->
+                eventService.getEventsByCategory(categoryId, PageRequest.of(0, 20)).getContent());
+        assertThat(page).hasSize(expectedSize)
+                .allSatisfy(dto -> assertThat(dto.getArtists()).isNotEmpty());
+        return statistics().getPrepareStatementCount();
+    }
+
+    // Requests read the lazy associations through open-in-view; tests need their own session
+    private EventDTO getEvent() {
+        return transactionTemplate.execute(status -> eventService.getEventById(event.getId()));
+    }
+}
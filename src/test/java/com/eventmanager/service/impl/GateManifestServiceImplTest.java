@@ -0,0 +1,171 @@
+package com.eventmanager.service.impl;
+
+import com.eventmanager.AbstractIntegrationTest;
+import com.eventmanager.exception.BadRequestException;
+import com.eventmanager.exception.ResourceNotFoundException;
+import com.eventmanager.model.Event;
+import com.eventmanager.model.Role;
+import com.eventmanager.model.Ticket;
+import com.eventmanager.model.User;
+import com.eventmanager.repository.TicketRepository;
+import com.eventmanager.repository.TicketSpecifications;
+import com.eventmanager.service.GateManifestService;
+import com.eventmanager.service.TicketService;
+import com.eventmanager.util.TicketCodes;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GateManifestServiceImplTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private GateManifestService gateManifestService;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private TicketCodes ticketCodes;
+
+    private Event event;
+
+    private String legacyNumber;
+
+    @BeforeEach
+    void setUp() {
+        event = createEvent(createVenue(), 100);
+        User user = createUser(Role.ERole.ROLE_USER);
+        authenticate(user);
+        ticketService.purchaseTicket(purchaseRequest(event.getId(), 5));
+        ticketService.purchaseTicket(purchaseRequest(event.getId(), 2));
+
+        // A ticket issued before compact keys, known to scanners only by its UUID
+        legacyNumber = UUID.randomUUID().toString();
+        transactionTemplate.executeWithoutResult(status -> {
+            Ticket legacy = new Ticket();
+            legacy.setTicketNumber(legacyNumber);
+            legacy.setEvent(eventRepository.getReferenceById(event.getId()));
+            legacy.setUser(userRepository.getReferenceById(user.getId()));
+            legacy.setStatus(Ticket.TicketStatus.PAID);
+            legacy.setPrice(BigDecimal.TEN);
+            ticketRepository.save(legacy);
+        });
+    }
+
+    @Test
+    void manifestListsEveryValidTicketWithItsCheckSegment() throws Exception {
+        DataInputStream manifest = read(gateManifestService.exportManifest(event.getId()));
+
+        assertThat(manifest.readInt()).isEqualTo(0x544B4D32);
+        assertThat(manifest.readLong()).isEqualTo(event.getId());
+        assertThat(manifest.readLong()).isPositive();
+        List<Long> keys = new ArrayList<>();
+        long key = 0;
+        for (long gap = readVarLong(manifest); gap != 0; gap = readVarLong(manifest)) {
+            key += gap;
+            keys.add(key);
+            assertThat(readCheck(manifest)).isEqualTo(ticketCodes.check(key));
+        }
+        List<String> legacyNumbers = new ArrayList<>();
+        for (String number = manifest.readUTF(); !number.isEmpty(); number = manifest.readUTF()) {
+            legacyNumbers.add(number);
+        }
+
+        assertThat(keys).isSorted().containsExactlyInAnyOrderElementsOf(
+                ticketRepository.findTicketKeysByEventAndStatus(event.getId(), Ticket.TicketStatus.PAID));
+        assertThat(keys).hasSize(7);
+        assertThat(legacyNumbers).containsExactly(legacyNumber);
+        assertThat(manifest.read()).isEqualTo(-1);
+    }
+
+    @Test
+    void deltaCarriesTheLatestStateOfEveryChangedTicket() throws Exception {
+        DataInputStream manifest = read(gateManifestService.exportManifest(event.getId()));
+        manifest.readInt();
+        manifest.readLong();
+        long version = manifest.readLong();
+
+        List<Ticket> tickets = ticketRepository.findAll(TicketSpecifications.forEvent(event.getId()));
+        Ticket used = tickets.stream().filter(ticket -> ticket.getTicketKey() != null).findFirst().orElseThrow();
+        Ticket voided = tickets.stream().filter(ticket -> ticket.getTicketKey() != null && ticket != used)
+                .findFirst().orElseThrow();
+        Ticket legacy = tickets.stream().filter(ticket -> ticket.getTicketKey() == null).findFirst().orElseThrow();
+        transactionTemplate.executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            ticketRepository.checkInById(used.getId(), now, Ticket.TicketStatus.PAID, Ticket.TicketStatus.USED);
+            ticketRepository.cancel(voided.getId(), now, Ticket.TicketStatus.PAID, Ticket.TicketStatus.CANCELLED);
+            ticketRepository.cancel(legacy.getId(), now, Ticket.TicketStatus.PAID, Ticket.TicketStatus.CANCELLED);
+        });
+
+        DataInputStream delta = read(gateManifestService.exportDelta(event.getId(), version));
+
+        assertThat(delta.readInt()).isEqualTo(0x544B4432);
+        assertThat(delta.readLong()).isEqualTo(event.getId());
+        assertThat(delta.readLong()).isEqualTo(version);
+        assertThat(delta.readLong()).isGreaterThanOrEqualTo(version);
+        Map<Object, Integer> states = new HashMap<>();
+        for (int kind = delta.readByte(); kind != 0; kind = delta.readByte()) {
+            int state = delta.readByte();
+            if (kind == 1) {
+                long key = delta.readLong();
+                assertThat(readCheck(delta)).isEqualTo(ticketCodes.check(key));
+                states.put(key, state);
+            } else {
+                assertThat(kind).isEqualTo(2);
+                states.put(delta.readUTF(), state);
+            }
+        }
+
+        assertThat(states).containsEntry(used.getTicketKey(), 1)
+                .containsEntry(voided.getTicketKey(), 2)
+                .containsEntry(legacyNumber, 2);
+        assertThat(delta.read()).isEqualTo(-1);
+    }
+
+    @Test
+    void exportsRejectUnknownEventsAndMissingVersions() {
+        assertThatThrownBy(() -> gateManifestService.exportManifest(-1L)).isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> gateManifestService.exportDelta(event.getId(), 0)).isInstanceOf(BadRequestException.class);
+    }
+
+    private static DataInputStream read(StreamingResponseBody body) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        body.writeTo(output);
+        return new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(output.toByteArray())));
+    }
+
+    private static long readVarLong(DataInputStream data) throws IOException {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = data.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+
+    private static long readCheck(DataInputStream data) throws IOException {
+        return ((long) data.readUnsignedByte() << 32) | Integer.toUnsignedLong(data.readInt());
+    }
+}
@@ -0,0 +1,63 @@
+package com.eventmanager.service.impl;
+
+import com.eventmanager.exception.UnprocessableEntityException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotencyServiceImplTest {
+
+    private IdempotencyServiceImpl idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyServiceImpl();
+        ReflectionTestUtils.setField(idempotencyService, "ttlSeconds", 3600L);
+        ReflectionTestUtils.setField(idempotencyService, "maxEntries", 10);
+        ReflectionTestUtils.setField(idempotencyService, "waitTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(idempotencyService, "durable", false);
+        ReflectionTestUtils.setField(idempotencyService, "objectMapper", new ObjectMapper());
+        idempotencyService.init();
+    }
+
+    @Test
+    void replaysTheFirstResponseForTheSameRequest() {
+        AtomicInteger calls = new AtomicInteger();
+
+        ResponseEntity<String> first = idempotencyService.execute("key", "purchase", Map.of("eventId", 1), String.class,
+                () -> ResponseEntity.ok("ticket-" + calls.incrementAndGet()));
+        ResponseEntity<String> second = idempotencyService.execute("key", "purchase", Map.of("eventId", 1), String.class,
+                () -> ResponseEntity.ok("ticket-" + calls.incrementAndGet()));
+
+        assertThat(calls).hasValue(1);
+        assertThat(second.getBody()).isEqualTo(first.getBody());
+        assertThat(second.getHeaders().getFirst(IdempotencyServiceImpl.REPLAYED_HEADER)).isEqualTo("true");
+    }
+
+    @Test
+    void rejectsAReusedKeyWithADifferentRequest() {
+        idempotencyService.execute("key", "purchase", Map.of("eventId", 1), String.class,
+                () -> ResponseEntity.ok("ticket"));
+
+        assertThatThrownBy(() -> idempotencyService.execute("key", "purchase", Map.of("eventId", 2), String.class,
+                () -> ResponseEntity.ok("other")))
+                .isInstanceOf(UnprocessableEntityException.class);
+    }
+
+    @Test
+    void acceptsNewKeysWhenTheStoreIsFull() {
+        for (int i = 0; i < 100; i++) {
+            ResponseEntity<String> response = idempotencyService.execute("key-" + i, "purchase", i, String.class,
+                    () -> ResponseEntity.ok("ticket"));
+            assertThat(response.getStatusCode().value()).isEqualTo(200);
+        }
+    }
+}
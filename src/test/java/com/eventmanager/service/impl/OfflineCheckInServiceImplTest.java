@@ -0,0 +1,147 @@
+package com.eventmanager.service.impl;
+
+import com.eventmanager.AbstractIntegrationTest;
+import com.eventmanager.dto.CheckInResultDTO;
+import com.eventmanager.dto.request.OfflineCheckInRecord;
+import com.eventmanager.model.Event;
+import com.eventmanager.model.Role;
+import com.eventmanager.model.Ticket;
+import com.eventmanager.repository.TicketRepository;
+import com.eventmanager.service.OfflineCheckInService;
+import com.eventmanager.service.TicketService;
+import com.eventmanager.util.TicketCodes;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OfflineCheckInServiceImplTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private OfflineCheckInService offlineCheckInService;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private TicketCodes ticketCodes;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Event event;
+
+    private LocalDateTime doorsOpen;
+
+    @BeforeEach
+    void setUp() {
+        // Small chunks so uploads span several transactions
+        ReflectionTestUtils.setField(offlineCheckInService, "chunkSize", 2);
+        event = createEvent(createVenue(), 100);
+        doorsOpen = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).minusHours(1);
+        authenticate(createUser(Role.ERole.ROLE_USER));
+    }
+
+    @AfterEach
+    void restoreChunkSize() {
+        ReflectionTestUtils.setField(offlineCheckInService, "chunkSize", 1000);
+    }
+
+    @Test
+    void earliestScanOfATicketWinsWithinAnUpload() throws Exception {
+        String code = buyTicket();
+        String other = buyTicket();
+
+        List<CheckInResultDTO> results = reconcile(
+                scan(code, "gate-b", doorsOpen.plusMinutes(5)),
+                scan(code, "gate-a", doorsOpen.plusMinutes(2)),
+                scan(other, "gate-a", doorsOpen.plusMinutes(1)));
+
+        assertThat(results).extracting(CheckInResultDTO::getOutcome).containsExactly(
+                CheckInResultDTO.Outcome.ALREADY_USED, CheckInResultDTO.Outcome.ADMITTED, CheckInResultDTO.Outcome.ADMITTED);
+        Ticket ticket = ticketRepository.findByTicketKey(key(code)).orElseThrow();
+        assertThat(ticket.getStatus()).isEqualTo(Ticket.TicketStatus.USED);
+        assertThat(ticket.getCheckedInAt()).isEqualTo(doorsOpen.plusMinutes(2));
+        assertThat(ticket.getCheckedInGate()).isEqualTo("gate-a");
+        Event reloaded = eventRepository.findById(event.getId()).orElseThrow();
+        assertThat(reloaded.getUsedTickets()).isEqualTo(2);
+        assertThat(reloaded.getPaidTickets()).isZero();
+    }
+
+    @Test
+    void laterUploadWithAnEarlierScanBackdatesTheCheckIn() throws Exception {
+        String code = buyTicket();
+        reconcile(scan(code, "gate-b", doorsOpen.plusMinutes(10)));
+
+        List<CheckInResultDTO> results = reconcile(scan(code, "gate-a", doorsOpen.plusMinutes(3)));
+
+        assertThat(results).extracting(CheckInResultDTO::getOutcome).containsExactly(CheckInResultDTO.Outcome.ADMITTED);
+        Ticket ticket = ticketRepository.findByTicketKey(key(code)).orElseThrow();
+        assertThat(ticket.getCheckedInAt()).isEqualTo(doorsOpen.plusMinutes(3));
+        assertThat(ticket.getCheckedInGate()).isEqualTo("gate-a");
+        assertThat(eventRepository.findById(event.getId()).orElseThrow().getUsedTickets()).isEqualTo(1);
+    }
+
+    @Test
+    void explainsRejectedScans() throws Exception {
+        String cancelled = buyTicket();
+        ticketService.cancelTicket(ticketRepository.findByTicketKey(key(cancelled)).orElseThrow().getId());
+        Event otherEvent = createEvent(createVenue(), 10);
+        String elsewhere = ticketService.purchaseTicket(purchaseRequest(otherEvent.getId(), 1)).getTicketNumber();
+        String forged = buyTicket().substring(0, 13) + "00000000";
+
+        List<CheckInResultDTO> results = reconcile(
+                scan(cancelled, "gate-a", doorsOpen),
+                scan(elsewhere, "gate-a", doorsOpen),
+                scan(forged, "gate-a", doorsOpen),
+                scan(UUID.randomUUID().toString(), "gate-a", doorsOpen),
+                scan(null, "gate-a", doorsOpen));
+
+        assertThat(results).extracting(CheckInResultDTO::getOutcome).containsExactly(
+                CheckInResultDTO.Outcome.CANCELLED,
+                CheckInResultDTO.Outcome.WRONG_EVENT,
+                CheckInResultDTO.Outcome.INVALID,
+                CheckInResultDTO.Outcome.UNKNOWN,
+                CheckInResultDTO.Outcome.INVALID);
+        assertThat(eventRepository.findById(event.getId()).orElseThrow().getUsedTickets()).isZero();
+    }
+
+    private String buyTicket() {
+        return ticketService.purchaseTicket(purchaseRequest(event.getId(), 1)).getTicketNumber();
+    }
+
+    private Long key(String code) {
+        return ticketCodes.parseKey(code);
+    }
+
+    private List<CheckInResultDTO> reconcile(OfflineCheckInRecord... records) throws Exception {
+        byte[] upload = objectMapper.writeValueAsBytes(List.of(records));
+        ByteArrayOutputStream report = new ByteArrayOutputStream();
+        offlineCheckInService.reconcile(event.getId(), new ByteArrayInputStream(upload)).writeTo(report);
+        return objectMapper.readValue(report.toByteArray(), new TypeReference<List<CheckInResultDTO>>() {
+        });
+    }
+
+    private static OfflineCheckInRecord scan(String ticketNumber, String gateId, LocalDateTime scannedAt) {
+        OfflineCheckInRecord record = new OfflineCheckInRecord();
+        record.setTicketNumber(ticketNumber);
+        record.setGateId(gateId);
+        record.setScannedAt(scannedAt);
+        return record;
+    }
+}
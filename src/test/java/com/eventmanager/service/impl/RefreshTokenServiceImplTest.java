@@ -0,0 +1,126 @@
+package com.eventmanager.service.impl;
+
+import com.eventmanager.AbstractIntegrationTest;
+import com.eventmanager.dto.response.JwtResponse;
+import com.eventmanager.model.RefreshToken;
+import com.eventmanager.model.Role;
+import com.eventmanager.model.User;
+import com.eventmanager.repository.RefreshTokenRepository;
+import com.eventmanager.security.services.UserDetailsImpl;
+import com.eventmanager.service.RefreshTokenService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class RefreshTokenServiceImplTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = createUser(Role.ERole.ROLE_USER);
+    }
+
+    @Test
+    void refreshRotatesTheTokenAndIssuesAWorkingAccessToken() throws Exception {
+        JwtResponse signedIn = refreshTokenService.issueTokens(UserDetailsImpl.build(user));
+
+        String body = refresh(signedIn.getRefreshToken()).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode refreshed = objectMapper.readTree(body);
+
+        assertThat(refreshed.get("refreshToken").asText()).isNotEqualTo(signedIn.getRefreshToken());
+        assertThat(refreshed.get("token").asText()).isNotEqualTo(signedIn.getToken());
+        assertThat(accessStatus(refreshed.get("token").asText())).isEqualTo(200);
+        // Both tokens belong to one session; only the old one is marked as exchanged
+        List<RefreshToken> family = tokensOf(user);
+        assertThat(family).hasSize(2).extracting(RefreshToken::getFamilyId).containsOnly(family.get(0).getFamilyId());
+        assertThat(family).filteredOn(token -> token.getRotatedAt() != null).hasSize(1);
+    }
+
+    @Test
+    void reusingARotatedTokenRevokesTheWholeSession() throws Exception {
+        JwtResponse signedIn = refreshTokenService.issueTokens(UserDetailsImpl.build(user));
+        JwtResponse refreshed = refreshTokenService.refresh(signedIn.getRefreshToken());
+
+        // The stolen copy comes back after the owner already exchanged it
+        refresh(signedIn.getRefreshToken()).andExpect(status().isBadRequest());
+
+        // The revocation committed although the request failed
+        assertThat(tokensOf(user)).hasSize(2).allSatisfy(token -> assertThat(token.getRevokedAt()).isNotNull());
+        refresh(refreshed.getRefreshToken()).andExpect(status().isBadRequest());
+        assertThat(accessStatus(refreshed.getToken())).isEqualTo(401);
+        assertThat(accessStatus(signedIn.getToken())).isEqualTo(401);
+    }
+
+    @Test
+    void expiredTokenIsRefusedWithoutEndingTheSession() throws Exception {
+        JwtResponse signedIn = refreshTokenService.issueTokens(UserDetailsImpl.build(user));
+        transactionTemplate.executeWithoutResult(status -> tokensOf(user)
+                .forEach(token -> token.setExpiresAt(LocalDateTime.now().minusSeconds(1))));
+
+        refresh(signedIn.getRefreshToken()).andExpect(status().isBadRequest());
+
+        assertThat(tokensOf(user)).singleElement().satisfies(token -> {
+            assertThat(token.getRotatedAt()).isNull();
+            assertThat(token.getRevokedAt()).isNull();
+        });
+        assertThat(accessStatus(signedIn.getToken())).isEqualTo(200);
+    }
+
+    @Test
+    void signingOutEverywhereEndsEverySession() throws Exception {
+        JwtResponse phone = refreshTokenService.issueTokens(UserDetailsImpl.build(user));
+        JwtResponse laptop = refreshTokenService.issueTokens(UserDetailsImpl.build(user));
+
+        mockMvc.perform(post("/auth/signout").header("Authorization", "Bearer " + phone.getToken()))
+                .andExpect(status().isOk());
+
+        refresh(phone.getRefreshToken()).andExpect(status().isBadRequest());
+        refresh(laptop.getRefreshToken()).andExpect(status().isBadRequest());
+        assertThat(accessStatus(phone.getToken())).isEqualTo(401);
+        assertThat(accessStatus(laptop.getToken())).isEqualTo(401);
+        // Signing in again starts a session the old version bump does not touch
+        User current = userRepository.findById(user.getId()).orElseThrow();
+        assertThat(accessStatus(refreshTokenService.issueTokens(UserDetailsImpl.build(current)).getToken())).isEqualTo(200);
+    }
+
+    private ResultActions refresh(String refreshToken) throws Exception {
+        return mockMvc.perform(post("/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("refreshToken", refreshToken))));
+    }
+
+    private int accessStatus(String accessToken) throws Exception {
+        return mockMvc.perform(get("/tickets/user").header("Authorization", "Bearer " + accessToken))
+                .andReturn().getResponse().getStatus();
+    }
+
+    private List<RefreshToken> tokensOf(User owner) {
+        return refreshTokenRepository.findAll().stream()
+                .filter(token -> token.getUser().getId().equals(owner.getId()))
+                .toList();
+    }
+}
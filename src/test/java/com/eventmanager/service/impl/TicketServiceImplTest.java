@@ -0,0 +1,394 @@
+package com.eventmanager.service.impl;
+
+import com.eventmanager.AbstractIntegrationTest;
+import com.eventmanager.dto.CheckInResultDTO;
+import com.eventmanager.dto.TicketDTO;
+import com.eventmanager.dto.request.CheckInRequest;
+import com.eventmanager.dto.response.KeysetPageResponse;
+import com.eventmanager.exception.BadRequestException;
+import com.eventmanager.inventory.TicketBatchWriter;
+import com.eventmanager.model.Event;
+import com.eventmanager.model.Role;
+import com.eventmanager.model.Ticket;
+import com.eventmanager.model.User;
+import com.eventmanager.repository.TicketRepository;
+import com.eventmanager.service.TicketService;
+import com.eventmanager.util.TicketCodes;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TicketServiceImplTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private TicketBatchWriter ticketBatchWriter;
+
+    @Autowired
+    private TicketCodes ticketCodes;
+
+    @Test
+    void concurrentBuyersCannotOversellAnEvent() throws Exception {
+        int capacity = 100;
+        int buyers = 500;
+        Event event = createEvent(createVenue(), capacity);
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < buyers; i++) {
+            users.add(createUser(Role.ERole.ROLE_USER));
+        }
+
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger soldOut = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        try {
+            List<Future<?>> purchases = new ArrayList<>();
+            for (User user : users) {
+                purchases.add(executor.submit(() -> {
+                    start.await();
+                    authenticate(user);
+                    try {
+                        ticketService.purchaseTicket(purchaseRequest(event.getId(), 1));
+                        sold.incrementAndGet();
+                    } catch (BadRequestException e) {
+                        soldOut.incrementAndGet();
+                    } finally {
+                        SecurityContextHolder.clearContext();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> purchase : purchases) {
+                purchase.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(sold).hasValue(capacity);
+        assertThat(soldOut).hasValue(buyers - capacity);
+        assertThat(ticketRepository.findTicketKeysByEventAndStatus(event.getId(), Ticket.TicketStatus.PAID)).hasSize(capacity);
+        Event reloaded = eventRepository.findById(event.getId()).orElseThrow();
+        assertThat(reloaded.getAllocatedTickets()).isEqualTo(capacity);
+        assertThat(reloaded.getPaidTickets()).isEqualTo(capacity);
+    }
+
+    @Test
+    void multiTicketPurchaseIsRefusedWhenItDoesNotFit() {
+        Event event = createEvent(createVenue(), 3);
+        authenticate(createUser(Role.ERole.ROLE_USER));
+
+        ticketService.purchaseTicket(purchaseRequest(event.getId(), 2));
+
+        assertThatThrownBy(() -> ticketService.purchaseTicket(purchaseRequest(event.getId(), 2)))
+                .isInstanceOf(BadRequestException.class);
+        assertThat(eventRepository.findById(event.getId()).orElseThrow().getAllocatedTickets()).isEqualTo(2);
+    }
+
+    @Test
+    void ticketsOfAnOrderAreInsertedInOneBatch() {
+        Event event = createEvent(createVenue(), 1000);
+        authenticate(createUser(Role.ERole.ROLE_USER));
+        // Warms the event cache so every order below pays the same fixed cost
+        ticketService.purchaseTicket(purchaseRequest(event.getId(), 1));
+
+        long[] statements = new long[3];
+        int[] quantities = {1, 10, 50};
+        for (int i = 0; i < quantities.length; i++) {
+            statistics().clear();
+            ticketService.purchaseTicket(purchaseRequest(event.getId(), quantities[i]));
+            assertThat(statistics().getEntityInsertCount()).isEqualTo(quantities[i]);
+            statements[i] = statistics().getPrepareStatementCount();
+        }
+
+        // One insert statement per order; an order that runs out of pooled ids also fetches the next block
+        assertThat(Arrays.stream(statements).max().getAsLong())
+                .isLessThanOrEqualTo(Arrays.stream(statements).min().getAsLong() + 1);
+    }
+
+    @Test
+    void ticketCountersFollowEveryStatusChange() {
+        Event event = createEvent(createVenue(), 100);
+        authenticate(createUser(Role.ERole.ROLE_USER));
+
+        List<TicketDTO> bought = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            bought.add(ticketService.purchaseTicket(purchaseRequest(event.getId(), 1)));
+        }
+        assertCounts(event, 3, 0, 3, 0, 0);
+
+        TicketDTO hold = ticketService.holdTickets(purchaseRequest(event.getId(), 2));
+        assertCounts(event, 5, 2, 3, 0, 0);
+
+        ticketService.confirmHold(hold.getHoldReference());
+        assertCounts(event, 5, 0, 5, 0, 0);
+
+        ticketService.cancelTicket(bought.get(0).getId());
+        assertCounts(event, 4, 0, 4, 0, 1);
+
+        TicketDTO lapsed = ticketService.holdTickets(purchaseRequest(event.getId(), 1));
+        transactionTemplate.executeWithoutResult(status -> ticketRepository.findById(lapsed.getId()).orElseThrow()
+                .setExpiresAt(LocalDateTime.now().minusSeconds(1)));
+        ticketBatchWriter.expireOverdueHolds(event.getId());
+        assertCounts(event, 4, 0, 4, 0, 2);
+
+        authenticate(createUser(Role.ERole.ROLE_ORGANIZER));
+        ticketService.checkIn(event.getId(), bought.get(1).getTicketNumber());
+        // A refused scan moves nothing
+        ticketService.checkIn(event.getId(), bought.get(0).getTicketNumber());
+        assertCounts(event, 4, 0, 3, 1, 2);
+    }
+
+    @Test
+    void keysetPagesOfAnEventEndExactlyAtTheLastTicket() {
+        Event event = createEvent(createVenue(), 100);
+        Event other = createEvent(createVenue(), 100);
+        authenticate(createUser(Role.ERole.ROLE_USER));
+        // Interleave the two events' ids so a page boundary can never fall on the other event's rows
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(ticketService.purchaseTicket(purchaseRequest(event.getId(), 1)).getId());
+            ticketService.purchaseTicket(purchaseRequest(other.getId(), 1));
+        }
+        ticketService.cancelTicket(ids.get(2));
+
+        assertThat(pageIds(event.getId(), null, null, 2)).containsExactly(ids.get(0), ids.get(1));
+        KeysetPageResponse<TicketDTO> second = ticketService.getTicketsByEventAfter(event.getId(), null, ids.get(1), 2);
+        assertThat(second.isHasNext()).isTrue();
+        assertThat(second.getNextAfterId()).isEqualTo(ids.get(3));
+        KeysetPageResponse<TicketDTO> last = ticketService.getTicketsByEventAfter(event.getId(), null, ids.get(3), 2);
+        assertThat(last.getContent()).extracting(TicketDTO::getId).containsExactly(ids.get(4));
+        assertThat(last.isHasNext()).isFalse();
+        assertThat(last.getNextAfterId()).isNull();
+
+        // A page that exactly fills up does not promise an empty one after it
+        KeysetPageResponse<TicketDTO> whole = ticketService.getTicketsByEventAfter(event.getId(), null, null, 5);
+        assertThat(whole.getContent()).hasSize(5);
+        assertThat(whole.isHasNext()).isFalse();
+        List<Ticket.TicketStatus> paid = List.of(Ticket.TicketStatus.PAID);
+        KeysetPageResponse<TicketDTO> paidFirst = ticketService.getTicketsByEventAfter(event.getId(), paid, null, 2);
+        assertThat(paidFirst.getContent()).extracting(TicketDTO::getId).containsExactly(ids.get(0), ids.get(1));
+        assertThat(paidFirst.isHasNext()).isTrue();
+        assertThat(pageIds(event.getId(), paid, ids.get(1), 2)).containsExactly(ids.get(3), ids.get(4));
+        assertThat(ticketService.getTicketsByEventAfter(event.getId(), paid, ids.get(1), 2).isHasNext()).isFalse();
+
+        // Paging past the end, as a client holding a stale cursor would, returns an empty last page
+        KeysetPageResponse<TicketDTO> beyond = ticketService.getTicketsByEventAfter(event.getId(), null, ids.get(4), 2);
+        assertThat(beyond.getContent()).isEmpty();
+        assertThat(beyond.isHasNext()).isFalse();
+        assertThatThrownBy(() -> ticketService.getTicketsByEventAfter(event.getId(), null, null, 0))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void cancelRacingAnotherCancelOrAHoldExpiryReleasesTheSeatOnce() throws Exception {
+        Event event = createEvent(createVenue(), 100);
+        authenticate(createUser(Role.ERole.ROLE_USER));
+        ticketService.purchaseTicket(purchaseRequest(event.getId(), 10));
+        User holder = createUser(Role.ERole.ROLE_USER);
+        authenticate(holder);
+        List<Long> holds = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            holds.add(ticketService.holdTickets(purchaseRequest(event.getId(), 1)).getId());
+        }
+        // Overdue, so the expiry sweep competes with the cancels for every hold
+        transactionTemplate.executeWithoutResult(status -> ticketRepository.findAllById(holds)
+                .forEach(ticket -> ticket.setExpiresAt(LocalDateTime.now().minusSeconds(1))));
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (Long id : holds) {
+            tasks.add(() -> cancelQuietly(holder, id));
+            tasks.add(() -> cancelQuietly(holder, id));
+            tasks.add(() -> {
+                ticketBatchWriter.expireOverdueHolds(event.getId());
+                return null;
+            });
+        }
+        runConcurrently(tasks);
+
+        assertThat(ticketRepository.findAllById(holds))
+                .extracting(Ticket::getStatus)
+                .containsOnly(Ticket.TicketStatus.CANCELLED);
+        Event reloaded = eventRepository.findById(event.getId()).orElseThrow();
+        assertThat(reloaded.getAllocatedTickets()).isEqualTo(10);
+        assertThat(reloaded.getPaidTickets()).isEqualTo(10);
+        assertThat(reloaded.getReservedTickets()).isZero();
+        assertThat(reloaded.getCancelledTickets()).isEqualTo(20);
+    }
+
+    @Test
+    void cancelRacingACheckInNeverFreesAUsedSeat() throws Exception {
+        Event event = createEvent(createVenue(), 100);
+        User owner = createUser(Role.ERole.ROLE_USER);
+        User organizer = createUser(Role.ERole.ROLE_ORGANIZER);
+        authenticate(owner);
+        List<TicketDTO> tickets = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            tickets.add(ticketService.purchaseTicket(purchaseRequest(event.getId(), 1)));
+        }
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (TicketDTO ticket : tickets) {
+            tasks.add(() -> cancelQuietly(owner, ticket.getId()));
+            tasks.add(() -> {
+                authenticate(organizer);
+                ticketService.checkIn(event.getId(), ticket.getTicketNumber());
+                return null;
+            });
+        }
+        runConcurrently(tasks);
+
+        List<Ticket> settled = ticketRepository.findAllById(tickets.stream().map(TicketDTO::getId).toList());
+        long used = settled.stream().filter(ticket -> ticket.getStatus() == Ticket.TicketStatus.USED).count();
+        long cancelled = settled.stream().filter(ticket -> ticket.getStatus() == Ticket.TicketStatus.CANCELLED).count();
+        assertThat(used + cancelled).isEqualTo(tickets.size());
+        Event reloaded = eventRepository.findById(event.getId()).orElseThrow();
+        assertThat(reloaded.getAllocatedTickets()).isEqualTo((int) used);
+        assertThat(reloaded.getUsedTickets()).isEqualTo((int) used);
+        assertThat(reloaded.getCancelledTickets()).isEqualTo((int) cancelled);
+        assertThat(reloaded.getPaidTickets()).isZero();
+    }
+
+    @Test
+    void checkInAdmitsATicketOnceAndExplainsEveryRejection() {
+        Event event = createEvent(createVenue(), 100);
+        Event otherEvent = createEvent(createVenue(), 100);
+        authenticate(createUser(Role.ERole.ROLE_USER));
+        TicketDTO paid = ticketService.purchaseTicket(purchaseRequest(event.getId(), 1));
+        TicketDTO cancelled = ticketService.purchaseTicket(purchaseRequest(event.getId(), 1));
+        ticketService.cancelTicket(cancelled.getId());
+        TicketDTO held = ticketService.holdTickets(purchaseRequest(event.getId(), 1));
+        TicketDTO elsewhere = ticketService.purchaseTicket(purchaseRequest(otherEvent.getId(), 1));
+        authenticate(createUser(Role.ERole.ROLE_ORGANIZER));
+
+        List<CheckInResultDTO> results = ticketService.checkIn(checkInRequest(event.getId(), paid.getTicketNumber(),
+                paid.getTicketNumber(), cancelled.getTicketNumber(), held.getTicketNumber(),
+                elsewhere.getTicketNumber(), "not-a-ticket"));
+
+        assertThat(results).extracting(CheckInResultDTO::getOutcome).containsExactly(
+                CheckInResultDTO.Outcome.ADMITTED,
+                CheckInResultDTO.Outcome.ALREADY_USED,
+                CheckInResultDTO.Outcome.CANCELLED,
+                CheckInResultDTO.Outcome.NOT_PAID,
+                CheckInResultDTO.Outcome.WRONG_EVENT,
+                CheckInResultDTO.Outcome.INVALID);
+        // A second gate scanning the same code later is refused too
+        assertThat(ticketService.checkIn(event.getId(), paid.getTicketNumber()).getOutcome())
+                .isEqualTo(CheckInResultDTO.Outcome.ALREADY_USED);
+        assertThat(ticketRepository.findById(elsewhere.getId()).orElseThrow().getStatus())
+                .isEqualTo(Ticket.TicketStatus.PAID);
+        Event reloaded = eventRepository.findById(event.getId()).orElseThrow();
+        assertThat(reloaded.getUsedTickets()).isEqualTo(1);
+        assertThat(reloaded.getPaidTickets()).isZero();
+    }
+
+    @Test
+    void checkInIsRefusedOnceTheEventIsOver() {
+        Event event = createEvent(createVenue(), 100);
+        authenticate(createUser(Role.ERole.ROLE_USER));
+        TicketDTO ticket = ticketService.purchaseTicket(purchaseRequest(event.getId(), 1));
+        transactionTemplate.executeWithoutResult(status -> eventRepository.findById(event.getId()).orElseThrow()
+                .setEndDateTime(LocalDateTime.now().minusMinutes(1)));
+        authenticate(createUser(Role.ERole.ROLE_ORGANIZER));
+
+        assertThat(ticketService.checkIn(event.getId(), ticket.getTicketNumber()).getOutcome())
+                .isEqualTo(CheckInResultDTO.Outcome.EVENT_CLOSED);
+        assertThat(ticketRepository.findById(ticket.getId()).orElseThrow().getStatus())
+                .isEqualTo(Ticket.TicketStatus.PAID);
+    }
+
+    @Test
+    void checkInRunsOneStatementPerAdmittedScan() {
+        Event event = createEvent(createVenue(), 100);
+        authenticate(createUser(Role.ERole.ROLE_USER));
+        List<String> ticketNumbers = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ticketNumbers.add(ticketService.purchaseTicket(purchaseRequest(event.getId(), 1)).getTicketNumber());
+        }
+        authenticate(createUser(Role.ERole.ROLE_ORGANIZER));
+
+        statistics().clear();
+        ticketService.checkIn(checkInRequest(event.getId(), ticketNumbers.toArray(String[]::new)));
+
+        // Five compare-and-set updates and one counter update; no entity is loaded
+        assertThat(statistics().getPrepareStatementCount()).isEqualTo(6);
+        assertThat(statistics().getEntityLoadCount()).isZero();
+    }
+
+    private void assertCounts(Event event, int allocated, int reserved, int paid, int used, int cancelled) {
+        Event reloaded = eventRepository.findById(event.getId()).orElseThrow();
+        assertThat(reloaded.getAllocatedTickets()).as("allocated").isEqualTo(allocated);
+        assertThat(reloaded.getReservedTickets()).as("reserved").isEqualTo(reserved);
+        assertThat(reloaded.getPaidTickets()).as("paid").isEqualTo(paid);
+        assertThat(reloaded.getUsedTickets()).as("used").isEqualTo(used);
+        assertThat(reloaded.getCancelledTickets()).as("cancelled").isEqualTo(cancelled);
+    }
+
+    private List<Long> pageIds(Long eventId, List<Ticket.TicketStatus> statuses, Long afterId, int size) {
+        return ticketService.getTicketsByEventAfter(eventId, statuses, afterId, size).getContent().stream()
+                .map(TicketDTO::getId)
+                .toList();
+    }
+
+    private static CheckInRequest checkInRequest(Long eventId, String... ticketNumbers) {
+        CheckInRequest request = new CheckInRequest();
+        request.setEventId(eventId);
+        request.setTicketNumbers(List.of(ticketNumbers));
+        return request;
+    }
+
+    private Void cancelQuietly(User user, Long ticketId) {
+        authenticate(user);
+        try {
+            ticketService.cancelTicket(ticketId);
+        } catch (BadRequestException e) {
+            // Another cancel, the expiry sweep or a check-in got there first
+        }
+        return null;
+    }
+
+    private void runConcurrently(List<Callable<Void>> tasks) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Callable<Void> task : tasks) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        return task.call();
+                    } finally {
+                        SecurityContextHolder.clearContext();
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.eventmanager.service.impl;
+
+import com.eventmanager.dto.WaitingRoomStatusDTO;
+import com.eventmanager.exception.BadRequestException;
+import com.eventmanager.model.Event;
+import com.eventmanager.repository.EventRepository;
+import com.eventmanager.util.SecurityUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WaitingRoomServiceImplTest {
+
+    private static final long EVENT_ID = 3L;
+
+    private WaitingRoomServiceImpl waitingRoomService;
+
+    private SecurityUtils securityUtils;
+
+    private EventRepository eventRepository;
+
+    @BeforeEach
+    void setUp() {
+        securityUtils = mock(SecurityUtils.class);
+        eventRepository = mock(EventRepository.class);
+        waitingRoomService = newService();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void joiningAgainKeepsTheSamePlace() {
+        openRoom();
+
+        WaitingRoomStatusDTO first = joinAs(1L);
+        joinAs(2L);
+        WaitingRoomStatusDTO again = joinAs(1L, first.getQueueToken());
+
+        assertThat(again.getPosition()).isEqualTo(first.getPosition()).isEqualTo(1L);
+        assertThat(again.getQueueToken()).isEqualTo(first.getQueueToken());
+        assertThat(joinAs(3L).getPosition()).isEqualTo(3L);
+        // Another user's token is not a place in the queue for this one
+        assertThat(joinAs(4L, first.getQueueToken()).getPosition()).isEqualTo(4L);
+    }
+
+    @Test
+    void admissionTokenAdmitsOnlyOnce() {
+        openRoom();
+        String queueToken = joinAs(1L).getQueueToken();
+        waitingRoomService.admitNextClients();
+
+        WaitingRoomStatusDTO status = waitingRoomService.getStatus(EVENT_ID, queueToken);
+        assertThat(status.isAdmitted()).isTrue();
+        waitingRoomService.verifyAdmission(EVENT_ID, status.getAdmissionToken());
+
+        assertThatThrownBy(() -> waitingRoomService.verifyAdmission(EVENT_ID, status.getAdmissionToken()))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("already been used");
+        // The old queue token cannot mint a fresh admission either
+        assertThatThrownBy(() -> waitingRoomService.getStatus(EVENT_ID, queueToken))
+                .isInstanceOf(BadRequestException.class);
+        assertThat(joinAs(1L, queueToken).isAdmitted()).isFalse();
+    }
+
+    @Test
+    void roomOpensOnlyOnceThePublishCommits() {
+        TransactionSynchronizationManager.initSynchronization();
+        waitingRoomService.openRoom(EVENT_ID, LocalDateTime.now().plusDays(1));
+
+        // Purchases are not gated while the publish may still roll back
+        waitingRoomService.verifyAdmission(EVENT_ID, null);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThatThrownBy(() -> waitingRoomService.verifyAdmission(EVENT_ID, null))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void eventOnSaleWithoutARoomFailsClosed() {
+        when(eventRepository.findById(EVENT_ID)).thenReturn(Optional.of(eventOnSale()));
+        when(securityUtils.getCurrentUserId()).thenReturn(1L);
+
+        // Published on another node, or before this one restarted
+        assertThatThrownBy(() -> waitingRoomService.verifyAdmission(EVENT_ID, null))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("admission token");
+        assertThat(joinAs(1L).getPosition()).isEqualTo(1L);
+    }
+
+    @Test
+    void roomsForEventsOnSaleAreRebuiltAtStartup() {
+        when(eventRepository.findEventsOnSale(eq(Event.EventStatus.PUBLISHED), any())).thenReturn(List.of(eventOnSale()));
+
+        waitingRoomService.restoreRooms();
+
+        assertThatThrownBy(() -> waitingRoomService.verifyAdmission(EVENT_ID, null))
+                .isInstanceOf(BadRequestException.class);
+        verify(eventRepository, never()).findById(EVENT_ID);
+    }
+
+    @Test
+    void tokensFromAnEarlierRoomAskTheClientToRejoin() {
+        openRoom();
+        String queueToken = joinAs(1L).getQueueToken();
+        waitingRoomService.admitNextClients();
+        String admissionToken = waitingRoomService.getStatus(EVENT_ID, queueToken).getAdmissionToken();
+
+        // A restart loses which admissions were used, so tokens signed before it are not trusted
+        waitingRoomService = newService();
+        openRoom();
+
+        assertThatThrownBy(() -> waitingRoomService.verifyAdmission(EVENT_ID, admissionToken))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("earlier waiting room");
+        assertThatThrownBy(() -> waitingRoomService.getStatus(EVENT_ID, queueToken))
+                .isInstanceOf(BadRequestException.class);
+        assertThat(joinAs(1L, queueToken).getPosition()).isEqualTo(1L);
+    }
+
+    private WaitingRoomServiceImpl newService() {
+        WaitingRoomServiceImpl service = new WaitingRoomServiceImpl();
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "secret", "waiting-room-test-secret");
+        ReflectionTestUtils.setField(service, "admissionRatePerSecond", 1L);
+        ReflectionTestUtils.setField(service, "admissionTtlSeconds", 600L);
+        ReflectionTestUtils.setField(service, "securityUtils", securityUtils);
+        ReflectionTestUtils.setField(service, "eventRepository", eventRepository);
+        return service;
+    }
+
+    private static Event eventOnSale() {
+        Event event = new Event();
+        event.setId(EVENT_ID);
+        event.setStatus(Event.EventStatus.PUBLISHED);
+        event.setStartDateTime(LocalDateTime.now().plusDays(1));
+        return event;
+    }
+
+    private void openRoom() {
+        waitingRoomService.openRoom(EVENT_ID, LocalDateTime.now().plusDays(1));
+    }
+
+    private WaitingRoomStatusDTO joinAs(Long userId) {
+        return joinAs(userId, null);
+    }
+
+    private WaitingRoomStatusDTO joinAs(Long userId, String queueToken) {
+        when(securityUtils.getCurrentUserId()).thenReturn(userId);
+        return waitingRoomService.joinQueue(EVENT_ID, queueToken);
+    }
+}
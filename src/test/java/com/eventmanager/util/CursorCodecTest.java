@@ -0,0 +1,88 @@
+package com.eventmanager.util;
+
+import com.eventmanager.exception.BadRequestException;
+import com.eventmanager.model.Event;
+import com.eventmanager.model.Ticket;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CursorCodecTest {
+
+    private static final AtomicBoolean CANARY_INITIALISED = new AtomicBoolean();
+
+    @Test
+    void decodesEveryKeyTypeBackToItsValue() {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("startDateTime", LocalDateTime.of(2026, 3, 1, 20, 30, 15));
+        keys.put("id", 42L);
+        keys.put("capacity", 1500);
+        keys.put("name", "Rock & Roll = 100% fun: live");
+        keys.put("ticketPrice", new BigDecimal("49.90"));
+        keys.put("featured", true);
+        keys.put("status", Event.EventStatus.PUBLISHED);
+        keys.put("ticketStatus", Ticket.TicketStatus.CANCELLED);
+        keys.put("description", null);
+
+        KeysetScrollPosition decoded = CursorCodec.decode(CursorCodec.encode(ScrollPosition.forward(keys)));
+
+        assertThat(decoded.getKeys()).containsExactlyEntriesOf(keys);
+        assertThat(decoded.getDirection()).isEqualTo(ScrollPosition.Direction.FORWARD);
+    }
+
+    @Test
+    void emptyCursorStartsAtTheBeginning() {
+        assertThat(CursorCodec.decode(null).isInitial()).isTrue();
+        assertThat(CursorCodec.decode(" ").isInitial()).isTrue();
+    }
+
+    @Test
+    void tamperedCursorsAreRejectedAsBadRequests() {
+        String valid = CursorCodec.encode(ScrollPosition.forward(Map.of("id", 42L)));
+
+        assertInvalid(valid.substring(0, valid.length() - 1) + "!");
+        assertInvalid(token("id=L:forty-two"));
+        assertInvalid(token("id"));
+        assertInvalid(token("id=X:42"));
+        assertInvalid(token("status=ES:NOT_A_STATUS"));
+        assertInvalid(token("startDateTime=T:yesterday"));
+    }
+
+    @Test
+    void enumTagsNeverLoadAClassNamedByTheClient() {
+        // The old format named the enum class, which let a client make the server load any class in the package
+        assertInvalid(token("status=E" + Canary.class.getName() + ":ANY"));
+        assertInvalid(token("status=Ecom.eventmanager.model.Event$EventStatus:PUBLISHED"));
+
+        assertThat(CANARY_INITIALISED).isFalse();
+    }
+
+    private static void assertInvalid(String cursor) {
+        assertThatThrownBy(() -> CursorCodec.decode(cursor))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Invalid cursor");
+    }
+
+    private static String token(String text) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    enum Canary {
+        ANY;
+
+        static {
+            CANARY_INITIALISED.set(true);
+        }
+    }
+}
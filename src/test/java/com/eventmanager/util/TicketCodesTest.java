@@ -0,0 +1,63 @@
+package com.eventmanager.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TicketCodesTest {
+
+    private TicketCodes ticketCodes;
+
+    @BeforeEach
+    void setUp() {
+        ticketCodes = codesWithSecret("test-secret");
+    }
+
+    @Test
+    void parsesTheKeyBackFromItsCode() {
+        long key = new TimeOrderedTicketNumberGenerator(0).nextKey();
+
+        String code = ticketCodes.format(key);
+
+        assertThat(code).hasSize(21);
+        assertThat(ticketCodes.parseKey(code)).isEqualTo(key);
+        assertThat(ticketCodes.parseKey(code.toLowerCase())).isEqualTo(key);
+    }
+
+    @Test
+    void rejectsTheCodeOfANeighbouringKey() {
+        long key = new TimeOrderedTicketNumberGenerator(0).nextKey();
+        String code = ticketCodes.format(key);
+
+        // Keep the check segment of a real ticket but point it at the next sequence number
+        String forged = ticketCodes.format(key + 1).substring(0, 13) + code.substring(13);
+
+        assertThat(ticketCodes.parseKey(forged)).isNull();
+        assertThat(ticketCodes.isLegacy(forged)).isFalse();
+    }
+
+    @Test
+    void rejectsCodesSignedWithAnotherSecret() {
+        String code = codesWithSecret("other-secret").format(42L);
+
+        assertThat(ticketCodes.parseKey(code)).isNull();
+    }
+
+    @Test
+    void recognisesLegacyTicketNumbers() {
+        String legacy = UUID.randomUUID().toString();
+
+        assertThat(ticketCodes.parseKey(legacy)).isNull();
+        assertThat(ticketCodes.isLegacy(legacy)).isTrue();
+    }
+
+    private static TicketCodes codesWithSecret(String secret) {
+        TicketCodes codes = new TicketCodes();
+        ReflectionTestUtils.setField(codes, "secret", secret);
+        return codes;
+    }
+}
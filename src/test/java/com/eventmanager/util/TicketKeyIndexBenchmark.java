@@ -0,0 +1,83 @@
+package com.eventmanager.util;
+
+import org.h2.engine.SessionLocal;
+import org.h2.index.Index;
+import org.h2.jdbc.JdbcConnection;
+import org.h2.mvstore.db.MVSecondaryIndex;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.function.LongFunction;
+
+/**
+ * Bulk-loads tickets keyed the old way (a random UUID string under a unique index) and
+ * the new way (a {@link TimeOrderedTicketNumberGenerator} key in a BIGINT unique index),
+ * then reports insert throughput and the size of each unique index. The database is an
+ * H2 file in a temporary directory so ten million rows do not have to fit in the heap;
+ * the index size is read from the pages of its B-tree after a checkpoint, so the half-full
+ * pages left by random inserts count. Not run by the test suite; start it with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.eventmanager.util.TicketKeyIndexBenchmark}
+ * and optionally pass the number of tickets, which defaults to ten million.
+ */
+public class TicketKeyIndexBenchmark {
+
+    private static final int BATCH_SIZE = 10_000;
+
+    public static void main(String[] args) throws Exception {
+        int tickets = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        TimeOrderedTicketNumberGenerator generator = new TimeOrderedTicketNumberGenerator(1);
+
+        System.out.printf("%-12s %12s %14s %14s%n", "key", "tickets", "inserts/s", "index MiB");
+        load("uuid", "VARCHAR(36)", tickets, id -> UUID.randomUUID().toString());
+        load("timeOrdered", "BIGINT", tickets, id -> generator.nextKey());
+    }
+
+    private static void load(String name, String keyType, int tickets, LongFunction<Object> keys) throws Exception {
+        Path directory = Files.createTempDirectory("ticket-key-benchmark");
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:" + directory.resolve(name))) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE tickets (id BIGINT PRIMARY KEY, ticket_key " + keyType + " NOT NULL, " +
+                        "event_id BIGINT, status VARCHAR(16))");
+                statement.execute("CREATE UNIQUE INDEX uk_ticket_key ON tickets (ticket_key)");
+            }
+
+            connection.setAutoCommit(false);
+            long started = System.nanoTime();
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO tickets VALUES (?, ?, 1, 'PAID')")) {
+                for (int id = 1; id <= tickets; id++) {
+                    insert.setLong(1, id);
+                    insert.setObject(2, keys.apply(id));
+                    insert.addBatch();
+                    if (id % BATCH_SIZE == 0 || id == tickets) {
+                        insert.executeBatch();
+                        connection.commit();
+                    }
+                }
+            }
+            double seconds = (System.nanoTime() - started) / 1e9;
+            connection.setAutoCommit(true);
+
+            long indexBytes = indexSize(connection, "UK_TICKET_KEY");
+            System.out.printf("%-12s %12d %14.0f %14.1f%n", name, tickets, tickets / seconds, indexBytes / (1024.0 * 1024));
+        } finally {
+            try (var files = Files.walk(directory)) {
+                files.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    private static long indexSize(Connection connection, String indexName) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CHECKPOINT");
+        }
+        SessionLocal session = (SessionLocal) connection.unwrap(JdbcConnection.class).getSession();
+        Index index = session.getDatabase().getMainSchema().findIndex(session, indexName);
+        return ((MVSecondaryIndex) index).getMVMap().getRootPage().getDiskSpaceUsed();
+    }
+}